@@ -0,0 +1,89 @@
+-- Benchmark: trip date overlap/containment queries vs. table size.
+--
+-- Builds a scratch copy of the Trips date columns (same generated date_range column and
+-- indexes as init.sql), grows it to each size below and reports the average latency of the
+-- queries behind GET /backend/trips/dates, next to the plain start/end column predicate the
+-- explore page used to evaluate. Nothing outside the temp table is touched.
+--
+-- Run against the compose database:
+--   docker exec -i docker-database-1 psql -U root -d main < Docker/Database/benchmarks/trip_date_ranges.sql
+
+\set ON_ERROR_STOP on
+SET client_min_messages = notice;
+SELECT setseed(0.42);
+
+CREATE TEMP TABLE bench_trips (
+    trip_id SERIAL PRIMARY KEY,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    date_range DATERANGE GENERATED ALWAYS AS (daterange(start_date, end_date, '[]')) STORED
+);
+CREATE INDEX ON bench_trips (start_date, end_date, trip_id);
+CREATE INDEX ON bench_trips USING GIST (date_range);
+
+DO $$
+DECLARE
+    sizes INT[] := ARRAY[10000, 50000, 100000, 250000, 500000];
+    runs CONSTANT INT := 200;
+    target INT;
+    current_size INT := 0;
+    window_from DATE;
+    t0 TIMESTAMP;
+    overlap_ms NUMERIC;
+    within_ms NUMERIC;
+    columns_ms NUMERIC;
+    ignored BIGINT;
+BEGIN
+    RAISE NOTICE '% | % | % | %', lpad('trips', 8), lpad('overlap ms', 11), lpad('within ms', 10), lpad('columns ms', 11);
+
+    FOREACH target IN ARRAY sizes LOOP
+        -- Trips start anywhere in a five year span and last 1 to 30 days
+        INSERT INTO bench_trips (start_date, end_date)
+        SELECT d, d + (1 + floor(random() * 30))::INT
+        FROM (SELECT DATE '2024-01-01' + floor(random() * 1826)::INT AS d
+              FROM generate_series(1, target - current_size)) s;
+        current_size := target;
+        ANALYZE bench_trips;
+
+        -- Each run asks for a random two week availability window, one page of 50 trips
+        t0 := clock_timestamp();
+        FOR i IN 1..runs LOOP
+            window_from := DATE '2024-01-01' + floor(random() * 1826)::INT;
+            SELECT count(*) INTO ignored FROM (
+                SELECT trip_id FROM bench_trips
+                WHERE date_range && daterange(window_from, window_from + 14, '[]')
+                ORDER BY trip_id LIMIT 50) page;
+        END LOOP;
+        overlap_ms := extract(epoch FROM clock_timestamp() - t0) * 1000 / runs;
+
+        t0 := clock_timestamp();
+        FOR i IN 1..runs LOOP
+            window_from := DATE '2024-01-01' + floor(random() * 1826)::INT;
+            SELECT count(*) INTO ignored FROM (
+                SELECT trip_id FROM bench_trips
+                WHERE date_range <@ daterange(window_from, window_from + 14, '[]')
+                ORDER BY trip_id LIMIT 50) page;
+        END LOOP;
+        within_ms := extract(epoch FROM clock_timestamp() - t0) * 1000 / runs;
+
+        t0 := clock_timestamp();
+        FOR i IN 1..runs LOOP
+            window_from := DATE '2024-01-01' + floor(random() * 1826)::INT;
+            SELECT count(*) INTO ignored FROM (
+                SELECT trip_id FROM bench_trips
+                WHERE end_date >= window_from AND start_date <= window_from + 14
+                ORDER BY trip_id LIMIT 50) page;
+        END LOOP;
+        columns_ms := extract(epoch FROM clock_timestamp() - t0) * 1000 / runs;
+
+        RAISE NOTICE '% | % | % | %', lpad(target::TEXT, 8), lpad(round(overlap_ms, 3)::TEXT, 11),
+            lpad(round(within_ms, 3)::TEXT, 10), lpad(round(columns_ms, 3)::TEXT, 11);
+    END LOOP;
+END
+$$;
+
+-- Plan of the overlap query at the largest size, to confirm the GiST index is used
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT trip_id FROM bench_trips
+WHERE date_range && daterange(DATE '2026-06-01', DATE '2026-06-15', '[]')
+ORDER BY trip_id LIMIT 50;
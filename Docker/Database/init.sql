@@ -8,6 +8,9 @@ CREATE DATABASE root;
 CREATE DATABASE main;
 \connect main;
 
+-- Trigram matching for fuzzy location/description search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- Users table remains unchanged
 CREATE TABLE Users (
     user_id SERIAL PRIMARY KEY,
@@ -23,9 +26,15 @@ CREATE TABLE Users (
     profile_picture TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    review_score INT DEFAULT 0 CHECK (review_score BETWEEN 0 AND 5)
+    review_score INT DEFAULT 0 CHECK (review_score BETWEEN 0 AND 5),
+    -- Optimistic-locking version, incremented by the backend on every profile edit
+    version BIGINT NOT NULL DEFAULT 0
 );
 
+-- Trigram indexes for the user directory search (prefix, substring and fuzzy matches)
+CREATE INDEX idx_users_username_trgm ON Users USING GIN (LOWER(username) gin_trgm_ops);
+CREATE INDEX idx_users_name_trgm ON Users USING GIN (LOWER(name) gin_trgm_ops);
+
 -- Create a new join table for user languages
 CREATE TABLE User_Languages (
     user_id INT REFERENCES Users(user_id) ON DELETE CASCADE,
@@ -46,17 +55,44 @@ CREATE TABLE Trips (
     start_date DATE NOT NULL,
     end_date DATE NOT NULL,
     description TEXT,
+    -- Coordinates resolved from the location by the backend geocoder; both or neither are set
+    latitude DOUBLE PRECISION CHECK (latitude BETWEEN -90 AND 90),
+    longitude DOUBLE PRECISION CHECK (longitude BETWEEN -180 AND 180),
     created_by INT REFERENCES Users(user_id) ON DELETE CASCADE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Members the creator can accept (NULL: no limit) and how many are joined right now; the
+    -- UserTrips seat triggers keep seats_taken in step with the 'joined' rows
+    capacity INT CHECK (capacity > 0),
+    seats_taken INT NOT NULL DEFAULT 0 CHECK (seats_taken >= 0),
+    CHECK (capacity IS NULL OR seats_taken <= capacity),
+    -- Optimistic-locking version, incremented by the backend on every edit of the trip
+    version BIGINT NOT NULL DEFAULT 0,
+    -- Full-text document for ranked search, location weighted above description
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', location), 'A') ||
+        setweight(to_tsvector('english', COALESCE(description, '')), 'B')
+    ) STORED,
+    -- Inclusive [start_date, end_date] range for GiST-indexed overlap/containment queries
+    date_range DATERANGE GENERATED ALWAYS AS (daterange(start_date, end_date, '[]')) STORED,
+    CHECK ((latitude IS NULL) = (longitude IS NULL)),
+    CHECK (end_date >= start_date)
 );
 
+-- Ranked full-text search and typeahead/fuzzy matching on location and description
+CREATE INDEX idx_trips_search_vector ON Trips USING GIN (search_vector);
+CREATE INDEX idx_trips_location_trgm ON Trips USING GIN (LOWER(location) gin_trgm_ops);
+CREATE INDEX idx_trips_description_trgm ON Trips USING GIN (LOWER(description) gin_trgm_ops);
+
 CREATE TABLE TripImages (
     image_id SERIAL PRIMARY KEY,
     trip_id INT REFERENCES Trips(trip_id) ON DELETE CASCADE,
     image VARCHAR(255) NOT NULL
 );
 
+-- Trip cards load the images of a whole page of trips at once
+CREATE INDEX idx_tripimages_trip_id ON TripImages(trip_id);
+
 CREATE TABLE interests (
     interest_id SERIAL PRIMARY KEY,  
     name VARCHAR(100) NOT NULL UNIQUE 
@@ -70,17 +106,129 @@ CREATE TABLE trip_interests (
     UNIQUE (trip_id, interest_id)
 );
 
+-- Trip search: interest filters probe trip_interests by interest, location filters compare
+-- case-insensitively and date filters test range overlap on start/end dates
+CREATE INDEX idx_trip_interests_interest_trip ON trip_interests(interest_id, trip_id);
+CREATE INDEX idx_trips_location_lower ON Trips(LOWER(location), trip_id);
+CREATE INDEX idx_trips_dates ON Trips(start_date, end_date, trip_id);
+CREATE INDEX idx_trips_date_range ON Trips USING GIST (date_range);
+
 -- UserTrips Table
 CREATE TABLE UserTrips (
     user_trip_id SERIAL PRIMARY KEY,
     user_id INT REFERENCES Users(user_id),
     trip_id INT REFERENCES Trips(trip_id) ON DELETE CASCADE,
     role VARCHAR(50),
-    status VARCHAR(50) CHECK (status IN ('requested', 'joined', 'declined', 'created')),
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    status VARCHAR(50) CHECK (status IN ('requested', 'joined', 'declined', 'created', 'waitlisted')),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Optimistic-locking version; bumped by the trigger below on every status change
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 ALTER TABLE UserTrips ADD CONSTRAINT unique_user_trip UNIQUE (user_id, trip_id);
+-- Its index leads with user_id, so it also serves the per-user lookups ("my trips" pages)
+
+-- Waitlisted requests of a trip in the order they are promoted (first requested, first served)
+CREATE INDEX idx_usertrips_waitlist ON UserTrips(trip_id, created_at, user_trip_id) WHERE status = 'waitlisted';
+
+-- Seat reservation: a row becoming 'joined' takes a seat with a conditional increment that cannot
+-- go past the capacity, however many accepts run at once. When the trip is full the row is
+-- waitlisted instead. BEFORE INSERT fires before ON CONFLICT is resolved, so an upsert that turns
+-- into an update would take a seat twice: upserts insert 'requested' rows only.
+CREATE OR REPLACE FUNCTION reserve_trip_seat() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.status = 'joined' AND (TG_OP = 'INSERT' OR OLD.status IS DISTINCT FROM 'joined') THEN
+        UPDATE Trips SET seats_taken = seats_taken + 1
+        WHERE trip_id = NEW.trip_id AND (capacity IS NULL OR seats_taken < capacity);
+        IF NOT FOUND THEN
+            NEW.status := 'waitlisted';
+        END IF;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER before_user_trip_seat
+BEFORE INSERT OR UPDATE OF status ON UserTrips
+FOR EACH ROW
+EXECUTE FUNCTION reserve_trip_seat();
+
+-- Status changes come from entity saves, set-based reviews, join upserts and waitlist promotions
+-- alike; each one moves the row to the next version. Runs after the seat trigger (triggers fire
+-- in name order), so a request that stays waitlisted keeps its version. An entity save has
+-- already incremented the version itself, to the same value.
+CREATE OR REPLACE FUNCTION bump_user_trip_version() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.status IS DISTINCT FROM OLD.status THEN
+        NEW.version := OLD.version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER before_user_trip_version
+BEFORE UPDATE OF status ON UserTrips
+FOR EACH ROW
+EXECUTE FUNCTION bump_user_trip_version();
+
+-- Give free seats of a trip to its waitlisted requests, oldest first, until the trip is full
+CREATE OR REPLACE FUNCTION promote_waitlist(p_trip_id INT) RETURNS VOID AS $$
+DECLARE
+    next_id INT;
+BEGIN
+    LOOP
+        SELECT user_trip_id INTO next_id FROM UserTrips
+        WHERE trip_id = p_trip_id AND status = 'waitlisted'
+        ORDER BY created_at, user_trip_id
+        LIMIT 1
+        FOR UPDATE SKIP LOCKED;
+        EXIT WHEN next_id IS NULL;
+
+        -- The seat trigger takes the seat, or keeps the row waitlisted when there is none left
+        UPDATE UserTrips SET status = 'joined' WHERE user_trip_id = next_id;
+        EXIT WHEN NOT EXISTS (SELECT 1 FROM UserTrips WHERE user_trip_id = next_id AND status = 'joined');
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Seat release: a joined member who leaves (any other status, or the row is deleted) frees the
+-- seat for the waitlist. Skipped when the trip itself is being deleted.
+CREATE OR REPLACE FUNCTION release_trip_seat() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE Trips SET seats_taken = seats_taken - 1 WHERE trip_id = OLD.trip_id;
+    IF FOUND THEN
+        PERFORM promote_waitlist(OLD.trip_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER after_user_trip_seat_update
+AFTER UPDATE OF status ON UserTrips
+FOR EACH ROW
+WHEN (OLD.status = 'joined' AND NEW.status IS DISTINCT FROM 'joined')
+EXECUTE FUNCTION release_trip_seat();
+
+CREATE TRIGGER after_user_trip_seat_delete
+AFTER DELETE ON UserTrips
+FOR EACH ROW
+WHEN (OLD.status = 'joined')
+EXECUTE FUNCTION release_trip_seat();
+
+-- Raising (or removing) a trip's capacity promotes waitlisted requests into the new seats; a trip
+-- without a capacity never has a waitlist
+CREATE OR REPLACE FUNCTION promote_on_capacity_change() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM promote_waitlist(NEW.trip_id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER after_trip_capacity_change
+AFTER UPDATE OF capacity ON Trips
+FOR EACH ROW
+WHEN (OLD.capacity IS NOT NULL AND (NEW.capacity IS NULL OR NEW.capacity > OLD.capacity))
+EXECUTE FUNCTION promote_on_capacity_change();
 
 -- Create a function for the trigger
 CREATE OR REPLACE FUNCTION insert_user_trip()
@@ -106,9 +254,13 @@ CREATE TABLE Posts (
     caption TEXT NOT NULL,
     image VARCHAR(255) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Optimistic-locking version, incremented by the backend on every edit of the post
+    version BIGINT NOT NULL DEFAULT 0
 );
 
+CREATE INDEX idx_posts_usertrip_id ON Posts(usertrip_id);
+
 -- Comments Table
 CREATE TABLE Comments (
     comment_id SERIAL PRIMARY KEY,
@@ -149,6 +301,112 @@ CREATE TABLE Reviews (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+CREATE INDEX idx_reviews_post_id ON Reviews(post_id);
+
+-- Rating aggregates per reviewed user and per reviewed trip, kept current by the triggers below.
+-- stars_N counts the reviews rated N; review_score on Users mirrors the rounded user average.
+CREATE TABLE user_review_aggregates (
+    user_id INT PRIMARY KEY REFERENCES Users(user_id) ON DELETE CASCADE,
+    review_count INT NOT NULL DEFAULT 0,
+    rating_sum INT NOT NULL DEFAULT 0,
+    stars_1 INT NOT NULL DEFAULT 0,
+    stars_2 INT NOT NULL DEFAULT 0,
+    stars_3 INT NOT NULL DEFAULT 0,
+    stars_4 INT NOT NULL DEFAULT 0,
+    stars_5 INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE trip_review_aggregates (
+    trip_id INT PRIMARY KEY REFERENCES Trips(trip_id) ON DELETE CASCADE,
+    review_count INT NOT NULL DEFAULT 0,
+    rating_sum INT NOT NULL DEFAULT 0,
+    stars_1 INT NOT NULL DEFAULT 0,
+    stars_2 INT NOT NULL DEFAULT 0,
+    stars_3 INT NOT NULL DEFAULT 0,
+    stars_4 INT NOT NULL DEFAULT 0,
+    stars_5 INT NOT NULL DEFAULT 0
+);
+
+-- A review of a post is a review of its author and of the trip it was posted from. Record both
+-- on the review itself, so a later delete (even one cascaded from the post) knows what to undo.
+CREATE OR REPLACE FUNCTION resolve_review_subjects()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.post_id IS NOT NULL AND (NEW.reviewee_id IS NULL OR NEW.trip_id IS NULL) THEN
+        SELECT COALESCE(NEW.reviewee_id, ut.user_id), COALESCE(NEW.trip_id, ut.trip_id)
+        INTO NEW.reviewee_id, NEW.trip_id
+        FROM Posts p JOIN UserTrips ut ON ut.user_trip_id = p.usertrip_id
+        WHERE p.post_id = NEW.post_id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER before_review_insert
+BEFORE INSERT ON Reviews
+FOR EACH ROW
+EXECUTE FUNCTION resolve_review_subjects();
+
+-- Add (delta = 1) or remove (delta = -1) one rating from the aggregates of a user and a trip
+-- with in-place increments, so concurrent reviews never overwrite each other. Removals only
+-- update existing rows: during a cascaded delete the user or trip may already be gone.
+CREATE OR REPLACE FUNCTION apply_review_aggregate(p_user_id INT, p_trip_id INT, p_rating INT, delta INT)
+RETURNS VOID AS $$
+BEGIN
+    IF p_user_id IS NOT NULL THEN
+        IF delta > 0 THEN
+            INSERT INTO user_review_aggregates (user_id) VALUES (p_user_id) ON CONFLICT (user_id) DO NOTHING;
+        END IF;
+        UPDATE user_review_aggregates SET
+            review_count = review_count + delta,
+            rating_sum = rating_sum + delta * p_rating,
+            stars_1 = stars_1 + CASE WHEN p_rating = 1 THEN delta ELSE 0 END,
+            stars_2 = stars_2 + CASE WHEN p_rating = 2 THEN delta ELSE 0 END,
+            stars_3 = stars_3 + CASE WHEN p_rating = 3 THEN delta ELSE 0 END,
+            stars_4 = stars_4 + CASE WHEN p_rating = 4 THEN delta ELSE 0 END,
+            stars_5 = stars_5 + CASE WHEN p_rating = 5 THEN delta ELSE 0 END
+        WHERE user_id = p_user_id;
+
+        UPDATE Users u SET review_score = COALESCE(ROUND(CAST(a.rating_sum AS NUMERIC) / NULLIF(a.review_count, 0)), 0)
+        FROM user_review_aggregates a
+        WHERE a.user_id = p_user_id AND u.user_id = p_user_id;
+    END IF;
+
+    IF p_trip_id IS NOT NULL THEN
+        IF delta > 0 THEN
+            INSERT INTO trip_review_aggregates (trip_id) VALUES (p_trip_id) ON CONFLICT (trip_id) DO NOTHING;
+        END IF;
+        UPDATE trip_review_aggregates SET
+            review_count = review_count + delta,
+            rating_sum = rating_sum + delta * p_rating,
+            stars_1 = stars_1 + CASE WHEN p_rating = 1 THEN delta ELSE 0 END,
+            stars_2 = stars_2 + CASE WHEN p_rating = 2 THEN delta ELSE 0 END,
+            stars_3 = stars_3 + CASE WHEN p_rating = 3 THEN delta ELSE 0 END,
+            stars_4 = stars_4 + CASE WHEN p_rating = 4 THEN delta ELSE 0 END,
+            stars_5 = stars_5 + CASE WHEN p_rating = 5 THEN delta ELSE 0 END
+        WHERE trip_id = p_trip_id;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION maintain_review_aggregates()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.rating IS NOT NULL THEN
+        PERFORM apply_review_aggregate(OLD.reviewee_id, OLD.trip_id, OLD.rating, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.rating IS NOT NULL THEN
+        PERFORM apply_review_aggregate(NEW.reviewee_id, NEW.trip_id, NEW.rating, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER after_review_change
+AFTER INSERT OR DELETE OR UPDATE OF rating, reviewee_id, trip_id ON Reviews
+FOR EACH ROW
+EXECUTE FUNCTION maintain_review_aggregates();
+
 
 -- Events Table
 CREATE TABLE Events (
@@ -181,6 +439,42 @@ CREATE TABLE Notifications (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Account deletion ("forget me") jobs. The backend works through them in the background,
+-- deleting the user's rows in small batches; no FK to Users since the row outlives the user.
+CREATE TABLE deletion_jobs (
+    job_id SERIAL PRIMARY KEY,
+    user_id INT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'queued' CHECK (status IN ('queued', 'running', 'completed', 'failed')),
+    step VARCHAR(50),
+    rows_deleted BIGINT NOT NULL DEFAULT 0,
+    files_deleted INT NOT NULL DEFAULT 0,
+    attempts INT NOT NULL DEFAULT 0,
+    error TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+-- At most one unfinished job per user
+CREATE UNIQUE INDEX idx_deletion_jobs_active_user ON deletion_jobs(user_id) WHERE status IN ('queued', 'running');
+
+-- Foreign-key indexes, so the deletion job's batches find a user's rows without scanning
+CREATE INDEX idx_trips_created_by ON Trips(created_by);
+CREATE INDEX idx_usertrips_trip_id ON UserTrips(trip_id);
+CREATE INDEX idx_comments_post_id ON Comments(post_id);
+CREATE INDEX idx_comments_user_id ON Comments(user_id);
+CREATE INDEX idx_messages_sender_id ON Messages(sender_id);
+CREATE INDEX idx_messages_receiver_id ON Messages(receiver_id);
+CREATE INDEX idx_friendships_user_id_1 ON Friendships(user_id_1);
+CREATE INDEX idx_friendships_user_id_2 ON Friendships(user_id_2);
+CREATE INDEX idx_reviews_reviewer_id ON Reviews(reviewer_id);
+CREATE INDEX idx_reviews_reviewee_id ON Reviews(reviewee_id);
+CREATE INDEX idx_reviews_trip_id ON Reviews(trip_id);
+CREATE INDEX idx_events_created_by ON Events(created_by);
+CREATE INDEX idx_userevents_user_id ON UserEvents(user_id);
+CREATE INDEX idx_userevents_event_id ON UserEvents(event_id);
+CREATE INDEX idx_notifications_user_id ON Notifications(user_id);
+
 -- Trigger: Automatically notify trip creators when a user requests to join their trip
 CREATE OR REPLACE FUNCTION notify_trip_creator() RETURNS TRIGGER AS $$
 DECLARE
@@ -210,43 +504,48 @@ FOR EACH ROW
 WHEN (NEW.status = 'requested')
 EXECUTE FUNCTION notify_trip_creator();
 
--- Create the updated function
+-- A declined user asking again reuses their row
+CREATE TRIGGER trigger_notify_trip_creator_rerequest
+AFTER UPDATE OF status ON UserTrips
+FOR EACH ROW
+WHEN (OLD.status = 'declined' AND NEW.status = 'requested')
+EXECUTE FUNCTION notify_trip_creator();
+
+-- Notify users when their join request is accepted, declined or waitlisted, and when a waitlisted
+-- request gets a seat that opened up. Statement-level with transition tables, so an UPDATE that
+-- reviews many requests at once writes all notifications in one insert
 CREATE OR REPLACE FUNCTION notify_user_trip_status() RETURNS TRIGGER AS $$
-DECLARE
-    trip_location TEXT;
-    trip_creator_name TEXT;
-    status_message TEXT;
 BEGIN
-    -- Get the trip location
-    SELECT location INTO trip_location FROM Trips WHERE trip_id = NEW.trip_id;
-
-    -- Get the name of the trip creator
-    SELECT name INTO trip_creator_name FROM Users
-    WHERE user_id = (SELECT created_by FROM Trips WHERE trip_id = NEW.trip_id);
-
-    -- Determine the appropriate status message
-    IF NEW.status = 'joined' THEN
-        status_message := 'accepted';
-    ELSE
-        status_message := NEW.status;
-    END IF;
-
-    -- Insert the notification with the custom message
     INSERT INTO Notifications (user_id, message)
-    VALUES (
-        NEW.user_id,
-        'Your trip request to ' || trip_location || ' has been ' || status_message || ' by ' || trip_creator_name || '.'
-    );
-
-    RETURN NEW;
+    SELECT
+        new_rows.user_id,
+        CASE
+            WHEN new_rows.status = 'waitlisted' THEN
+                'Your trip request to ' || t.location || ' has been accepted by ' || creator.name
+                    || ', but the trip is full. You are on the waitlist.'
+            WHEN old_rows.status = 'waitlisted' AND new_rows.status = 'joined' THEN
+                'A seat opened up on the trip to ' || t.location || '. You have joined it.'
+            ELSE
+                'Your trip request to ' || t.location || ' has been '
+                    || CASE WHEN new_rows.status = 'joined' THEN 'accepted' ELSE new_rows.status END
+                    || ' by ' || creator.name || '.'
+        END
+    FROM new_rows
+    JOIN old_rows ON old_rows.user_trip_id = new_rows.user_trip_id
+    JOIN Trips t ON t.trip_id = new_rows.trip_id
+    JOIN Users creator ON creator.user_id = t.created_by
+    WHERE old_rows.status IN ('requested', 'waitlisted')
+      AND new_rows.status IN ('joined', 'declined', 'waitlisted')
+      AND new_rows.status <> old_rows.status;
+
+    RETURN NULL;
 END;
 $$ LANGUAGE plpgsql;
 
--- Create the updated trigger
 CREATE TRIGGER trigger_notify_user_trip_status
 AFTER UPDATE ON UserTrips
-FOR EACH ROW
-WHEN (OLD.status = 'requested' AND NEW.status IN ('joined', 'declined'))
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT
 EXECUTE FUNCTION notify_user_trip_status();
 
 
@@ -306,47 +605,55 @@ VALUES (
 );
 
 INSERT INTO Trips (
-    location, start_date, end_date, description, created_by
+    location, start_date, end_date, description, created_by, latitude, longitude
 ) 
 VALUES (
     'Paris, France', 
     '2024-12-15', 
     '2024-12-22', 
     'Christmas vacation exploring Paris.', 
-    2 
+    2, 
+    48.8566, 
+    2.3522
 );
 
 INSERT INTO Trips (
-    location, start_date, end_date, description, created_by
+    location, start_date, end_date, description, created_by, latitude, longitude
 ) 
 VALUES (
     'Moscow, Russia', 
     '2024-12-11', 
     '2024-12-14', 
     'Drinking vodka with bears while wearing a fuzzy hat in -30°C.', 
-    2 
+    2, 
+    55.7558, 
+    37.6173
 );
 
 INSERT INTO Trips (
-    location, start_date, end_date, description, created_by
+    location, start_date, end_date, description, created_by, latitude, longitude
 ) 
 VALUES (
     'Tehran, Iran', 
     '2024-12-17', 
     '2024-12-28', 
     'Trip to try Persian cusine.', 
-    2 
+    2, 
+    35.6892, 
+    51.3890
 );
 
 INSERT INTO Trips (
-    location, start_date, end_date, description, created_by
+    location, start_date, end_date, description, created_by, latitude, longitude
 ) 
 VALUES (
     'Oslo, Norway', 
     '2025-6-17', 
     '2025-6-28', 
     'Viking adventure in Scandinavian mountains.', 
-    2 
+    2, 
+    59.9139, 
+    10.7522
 );
 
 INSERT INTO UserTrips (user_id, trip_id, status)
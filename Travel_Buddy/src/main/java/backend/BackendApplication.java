@@ -4,19 +4,33 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Date;
 import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,7 +42,16 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import backend.config.TokenOnly;
+import backend.dto.DeletionStatus;
+import backend.dto.MyTripCard;
+import backend.dto.PostCard;
+import backend.dto.ProfileView;
+import backend.dto.TripCard;
+import backend.dto.UserDirectoryEntry;
+import backend.model.DeletionJob;
 import backend.model.Interest;
 import backend.model.Notification;
 import backend.model.Post;
@@ -37,20 +60,42 @@ import backend.model.Trip;
 import backend.model.TripImage;
 import backend.model.User;
 import backend.model.UserTrips;
+import backend.repository.DeletionJobRepository;
 import backend.repository.InterestRepository;
 import backend.repository.NotificationRepository;
 import backend.repository.PostRepository;
 import backend.repository.ReviewRepository;
 import backend.repository.TripImageRepository;
 import backend.repository.TripRepository;
+import backend.repository.TripSpecifications;
 import backend.repository.UserRepository;
 import backend.repository.UserTripsRepository;
+import backend.service.AfterCommit;
+import backend.service.CompanionIndex;
+import backend.service.EntityCacheEvictor;
+import backend.service.ForgetMeService;
+import backend.service.GeoPoint;
+import backend.service.GeoTripIndex;
+import backend.service.Geocoder;
+import backend.service.InterestFacetIndex;
+import backend.service.NdjsonStreamer;
+import backend.service.PasswordService;
+import backend.service.PrincipalCache;
+import backend.service.ProfileLoader;
+import backend.service.RecommendationService;
+import backend.service.SessionPrincipal;
+import backend.service.SessionTokenService;
+import backend.service.TripCatalogCache;
+import backend.service.TripCardLoader;
+import backend.service.UserDataExporter;
+import backend.service.VersionTags;
 import jakarta.transaction.Transactional;
 
 
 // Declares this class as a REST controller and Spring Boot application
 @RestController
 @SpringBootApplication
+@EnableScheduling
 public class BackendApplication {
 
     // Autowired repositories for database operations
@@ -78,61 +123,98 @@ public class BackendApplication {
     @Autowired
     private TripImageRepository tripImageRepository; // Repository for TripImage entity
 
+    @Autowired
+    private TripCardLoader tripCardLoader; // Batched loader for explore page trip cards
+
+    @Autowired
+    private InterestFacetIndex interestFacetIndex; // In-memory interest -> trips bitmaps
+
+    @Autowired
+    private GeoTripIndex geoTripIndex; // In-memory geohash index of trip coordinates
+
+    @Autowired
+    private Geocoder geocoder; // Resolves trip locations to coordinates
+
+    @Autowired
+    private RecommendationService recommendationService; // Precomputed per-user trip rankings
+
+    @Autowired
+    private CompanionIndex companionIndex; // MinHash/LSH index of user profiles
+
+    @Autowired
+    private TripCatalogCache tripCatalogCache; // Serialized trip responses with ETags
+
+    @Autowired
+    private EntityCacheEvictor entityCacheEvictor; // Evicts rows the database cascades away
+
+    @Autowired
+    private NdjsonStreamer ndjsonStreamer; // Streams large lists as newline-delimited JSON
+
+    @Autowired
+    private PasswordService passwordService; // bcrypt hashing on a bounded executor
+
+    @Autowired
+    private SessionTokenService sessionTokenService; // Signed session tokens issued at sign-in
+
+    @Autowired
+    private PrincipalCache principalCache; // Request principals by user ID and email
+
+    @Autowired
+    private ProfileLoader profileLoader; // Profile pages in a fixed number of queries
+
+    @Autowired
+    private ForgetMeService forgetMeService; // Background account deletion jobs
+
+    @Autowired
+    private DeletionJobRepository deletionJobRepository;
+
+    @Autowired
+    private UserDataExporter userDataExporter; // "Download my data" zip archives
+
     // Main method to run the Spring Boot application
     public static void main(String[] args) {
         SpringApplication.run(BackendApplication.class, args);
     }
 
-    // API to join a trip or update the status of an existing user-trip association
+    // API to request to join a trip. Accepting, declining and waitlisting are the trip creator's
+    // (PUT /backend/user-trips/{id} and the bulk review), so the only status a caller can ask for
+    // here is "requested"
     @CrossOrigin(origins = "http://localhost:3000") // Allow requests from frontend
     @PostMapping("/backend/user-trips")
-    public ResponseEntity<?> joinTrip(@RequestBody Map<String, String> payload) {
+    public ResponseEntity<?> joinTrip(SessionPrincipal caller, @RequestBody Map<String, String> payload) {
         System.out.println("Payload received: " + payload);
 
         try {
-            // Extract user email, trip ID, and status from the payload
-            String userEmail = payload.get("userEmail");
+            // Extract trip ID and status from the payload; the member is the caller
             Long tripId = Long.parseLong(payload.get("tripId"));
             String status = payload.get("status");
 
-            System.out.println("Parsed values - userEmail: " + userEmail + ", tripId: " + tripId + ", status: " + status);
+            System.out.println("Parsed values - tripId: " + tripId + ", status: " + status);
+            if (status == null) {
+                return ResponseEntity.badRequest().body("Status is required.");
+            }
+            if (!"requested".equals(status)) {
+                return ResponseEntity.badRequest().body("Only join requests can be sent here.");
+            }
 
-            // Validate user existence
-            Optional<User> userOptional = user_repository.findByEmail(userEmail);
-            if (userOptional.isEmpty()) {
-                System.err.println("Error: User not found for email " + userEmail);
+            SessionPrincipal user = caller;
+            if (user == null) {
+                System.err.println("Error: Join request without a signed-in user.");
                 return ResponseEntity.badRequest().body("User not found.");
             }
 
-            // Validate trip existence
-            Optional<Trip> tripOptional = trip_repository.findById(tripId);
-            if (tripOptional.isEmpty()) {
+            // One idempotent upsert; it also reports whether the trip exists
+            UserTripsRepository.JoinResult result = userTripsRepository.upsertRequest(user.userId(), tripId);
+            if (!result.getFound()) {
                 System.err.println("Error: Trip not found for ID :" + tripId);
                 return ResponseEntity.badRequest().body("Trip not found.");
             }
+            System.out.println("User trip " + result.getUserTripId() + " has status: " + status);
 
-            User user = userOptional.get();
-            System.out.println("User found: " + user.getUserId());
-
-            Trip trip = tripOptional.get();
-            System.out.println("Trip found: " + trip.getTripId());
-
-            //Check if UserTrip already exists
-            Optional<UserTrips> existingUserTrip = userTripsRepository.findByUserIdAndTripId(user.getUserId(), tripId);
-            if (existingUserTrip.isPresent()) {
-                // Update status if the UserTrip already exists
-                UserTrips userTrip = existingUserTrip.get();
-                userTrip.setStatus(status);
-                userTripsRepository.save(userTrip);
-                System.out.println("Updated user trip status to: " + status);
-            } else {
-                // Create a new UserTrip if it doesn't exist
-                UserTrips newUserTrip = new UserTrips();
-                newUserTrip.setUserId(user.getUserId());
-                newUserTrip.setTripId(tripId);
-                newUserTrip.setStatus(status);
-                userTripsRepository.save(newUserTrip);
-                System.out.println("Created new user trip with status: " + status);
+            if (result.getChanged()) {
+                AfterCommit.run(() -> recommendationService.onMembershipChanged(user.userId(), tripId, status));
+                entityCacheEvictor.evictTrip(tripId);
+                touchProfile(user.userId());
             }
 
             return ResponseEntity.ok("Trip join status updated.");
@@ -145,44 +227,37 @@ public class BackendApplication {
         }
     }
 
-    // API to get user trips by email
+    // API to get the caller's trips (bearer token)
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/backend/user-trips")
-    public ResponseEntity<?> getUserTrips(@RequestParam String email) {
+    public ResponseEntity<?> getUserTrips(SessionPrincipal caller) {
         try {
-            // Find the user by their email
-            Optional<User> userOptional = user_repository.findByEmail(email);
-            if (userOptional.isEmpty()) {
+            if (caller == null) {
                 return ResponseEntity.badRequest().body("User not found.");
             }
 
-            User user = userOptional.get();
-
-            // Fetch all UserTrips for the given user
-            List<UserTrips> userTripsList = userTripsRepository.findByUserId(user.getUserId());
+            // Fetch all UserTrips for the given user, with their trips in the same query
+            List<UserTrips> userTripsList = userTripsRepository.findWithTripByUserId(caller.userId());
 
             // Map UserTrips to include Trip details
             List<Map<String, Object>> tripsWithDetails = new ArrayList<>();
             for (UserTrips userTrip : userTripsList) {
-                Optional<Trip> tripOptional = trip_repository.findById(userTrip.getTripId());
-                if (tripOptional.isPresent()) {
-                    Trip trip = tripOptional.get();
-                    Map<String, Object> tripDetails = new HashMap<>();
-                    tripDetails.put("userTripId", userTrip.getUserTripId());
-                    tripDetails.put("status", userTrip.getStatus());
-                    
-                    // Include Trip details
-                    Map<String, Object> tripInfo = new HashMap<>();
-                    tripInfo.put("tripId", trip.getTripId());
-                    tripInfo.put("location", trip.getLocation());
-                    tripInfo.put("startDate", trip.getStartDate());
-                    tripInfo.put("endDate", trip.getEndDate());
-                    tripInfo.put("description", trip.getDescription());
-
-                    tripDetails.put("trip", tripInfo); // Add trip details to the response
-
-                    tripsWithDetails.add(tripDetails);
-                }
+                Trip trip = userTrip.getTrip();
+                Map<String, Object> tripDetails = new HashMap<>();
+                tripDetails.put("userTripId", userTrip.getUserTripId());
+                tripDetails.put("status", userTrip.getStatus());
+
+                // Include Trip details
+                Map<String, Object> tripInfo = new HashMap<>();
+                tripInfo.put("tripId", trip.getTripId());
+                tripInfo.put("location", trip.getLocation());
+                tripInfo.put("startDate", trip.getStartDate());
+                tripInfo.put("endDate", trip.getEndDate());
+                tripInfo.put("description", trip.getDescription());
+
+                tripDetails.put("trip", tripInfo); // Add trip details to the response
+
+                tripsWithDetails.add(tripDetails);
             }
 
             return ResponseEntity.ok(tripsWithDetails);
@@ -192,6 +267,55 @@ public class BackendApplication {
         }
     }
 
+    // API to page through the caller's trips, split into upcoming (not ended yet, soonest first)
+    // and completed (most recently ended first). Each row carries the membership status, the
+    // trip card fields and a cover image, all from one query.
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/my-trips")
+    public ResponseEntity<?> getMyTrips(
+            SessionPrincipal caller,
+            @RequestParam(value = "scope", defaultValue = MyTripCard.UPCOMING) String scope,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (caller == null) {
+            return ResponseEntity.badRequest().body("User not found.");
+        }
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body("Limit must be positive.");
+        }
+        boolean upcoming = scope.equals(MyTripCard.UPCOMING);
+        if (!upcoming && !scope.equals(MyTripCard.COMPLETED)) {
+            return ResponseEntity.badRequest().body("Scope must be upcoming or completed.");
+        }
+
+        // Cursor is "<date>_<tripId>" of the last row of the previous page, where the date is the
+        // start date for upcoming trips and the end date for completed ones
+        LocalDate cursorDate = upcoming ? LocalDate.of(1, 1, 1) : LocalDate.of(9999, 12, 31);
+        long cursorId = upcoming ? 0 : Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split("_");
+            try {
+                cursorDate = LocalDate.parse(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor.");
+            }
+        }
+
+        int pageSize = Math.min(limit, TripCardLoader.MAX_PAGE_SIZE);
+        List<Object[]> rows = upcoming
+                ? userTripsRepository.findUpcomingTripCards(caller.userId(), cursorDate, cursorId, pageSize)
+                : userTripsRepository.findCompletedTripCards(caller.userId(), cursorDate, cursorId, pageSize);
+
+        List<MyTripCard> trips = rows.stream().map(MyTripCard::fromRow).toList();
+        String nextCursor = null;
+        if (trips.size() == pageSize) {
+            MyTripCard last = trips.get(trips.size() - 1);
+            nextCursor = (upcoming ? last.startDate() : last.endDate()) + "_" + last.tripId();
+        }
+        return ResponseEntity.ok(new MyTripCard.Page(scope, trips, nextCursor));
+    }
+
     // API to get user requests for a specific trip
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/backend/trips/{tripId}/requests")
@@ -216,6 +340,7 @@ public class BackendApplication {
                 request.put("username", user.getUsername());
                 request.put("status", userTrip.getStatus());
                 request.put("userId", userTrip.getUserId());
+                request.put("version", userTrip.getVersion());
                 requests.add(request);
             }
         }
@@ -223,10 +348,16 @@ public class BackendApplication {
         return ResponseEntity.ok(requests);
     }
 
-    // API to update the status of a user-trip association
-    @CrossOrigin(origins = "http://localhost:3000")
+    // API to update the status of a user-trip association (the trip creator only). Conditional on
+    // If-Match when the client sends the membership's ETag (412 when it is stale); the response
+    // carries the new one.
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
     @PutMapping("/backend/user-trips/update")
-    public ResponseEntity<?> updateRequest(@RequestBody Map<String, Object> payload) {
+    public ResponseEntity<?> updateRequest(SessionPrincipal caller, @RequestBody Map<String, Object> payload,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (caller == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Sign in to review requests.");
+        }
         // Extract trip ID, user ID, and status from the payload
         Long tripId = Long.valueOf(String.valueOf(payload.get("tripId")));
         Long userId = Long.valueOf(String.valueOf(payload.get("userId")));
@@ -238,19 +369,47 @@ public class BackendApplication {
             return ResponseEntity.badRequest().body("Request not found.");
         }
 
-        // Update the status and save the UserTrip
         UserTrips userTrip = userTripsOptional.get();
-        userTrip.setStatus(status);
-        userTripsRepository.save(userTrip);
-        return ResponseEntity.ok("Request updated successfully.");
+        if (userTrip.getTrip().getCreatedBy().getUserId() != caller.userId()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to review requests for this trip.");
+        }
+        if (!VersionTags.matches(ifMatch, userTrip.getVersion())) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .eTag(VersionTags.etag(userTrip.getVersion()))
+                    .body("Request was changed by someone else; reload it and try again.");
+        }
+
+        // Update the status in place, unless it changed since it was read; the seat triggers
+        // decide whether an accept gets a seat
+        Optional<UserTripsRepository.StatusChange> change =
+                userTripsRepository.updateStatus(userTrip.getUserTripId(), status, userTrip.getVersion());
+        if (change.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Request was changed by someone else; reload it and try again.");
+        }
+        String newStatus = change.get().getStatus();
+        AfterCommit.run(() -> recommendationService.onMembershipChanged(userId, tripId, newStatus));
+        entityCacheEvictor.evictTrip(tripId);
+        touchProfile(userId);
+        String etag = VersionTags.etag(change.get().getVersion());
+        if (!change.get().getStatus().equals(status)) {
+            return ResponseEntity.ok().eTag(etag).body("Trip is full, request waitlisted.");
+        }
+        return ResponseEntity.ok().eTag(etag).body("Request updated successfully.");
     }
 
-    // API to update the status of a specific UserTrip by ID
-    @CrossOrigin(origins = "http://localhost:3000")
+    // API to update the status of a specific UserTrip by ID (the trip creator only), conditional
+    // on If-Match like the endpoint above
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
     @PutMapping("/backend/user-trips/{userTripId}")
     public ResponseEntity<?> updateUserTripStatus(
             @PathVariable Long userTripId,
-            @RequestBody Map<String, String> payload) {
+            SessionPrincipal caller,
+            @RequestBody Map<String, String> payload,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (caller == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Sign in to review requests.");
+        }
         try {
             String status = payload.get("status");
             System.out.println("Received update request for UserTrip ID: " + userTripId + " with status: " + status);
@@ -262,12 +421,38 @@ public class BackendApplication {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("UserTrip not found.");
             }
 
-            // Update the status and save the UserTrip
             UserTrips userTrip = userTripOptional.get();
-            userTrip.setStatus(status);
-            userTripsRepository.save(userTrip);
+            if (userTrip.getTrip().getCreatedBy().getUserId() != caller.userId()) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to review requests for this trip.");
+            }
+            if (!VersionTags.matches(ifMatch, userTrip.getVersion())) {
+                System.out.println("Stale If-Match for UserTrip ID " + userTripId + ".");
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                        .eTag(VersionTags.etag(userTrip.getVersion()))
+                        .body("Request was changed by someone else; reload it and try again.");
+            }
 
-            return ResponseEntity.ok("Status updated successfully.");
+            // Update the status in place, unless it changed since it was read; the seat triggers
+            // decide whether an accept gets a seat
+            Optional<UserTripsRepository.StatusChange> change =
+                    userTripsRepository.updateStatus(userTripId, status, userTrip.getVersion());
+            if (change.isEmpty()) {
+                System.out.println("UserTrip ID " + userTripId + " changed concurrently.");
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("Request was changed by someone else; reload it and try again.");
+            }
+            String newStatus = change.get().getStatus();
+            AfterCommit.run(() -> recommendationService.onMembershipChanged(
+                    userTrip.getUserId(), userTrip.getTripId(), newStatus));
+            entityCacheEvictor.evictTrip(userTrip.getTripId());
+            touchProfile(userTrip.getUser());
+
+            String etag = VersionTags.etag(change.get().getVersion());
+            if (!change.get().getStatus().equals(status)) {
+                System.out.println("Trip is full, UserTrip ID " + userTripId + " was waitlisted.");
+                return ResponseEntity.ok().eTag(etag).body("Trip is full, request waitlisted.");
+            }
+            return ResponseEntity.ok().eTag(etag).body("Status updated successfully.");
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -275,27 +460,95 @@ public class BackendApplication {
         }
     }
 
-    // API to sign-in a user locally 
+    // API to accept or decline many join requests of a trip at once (the trip creator only).
+    // Takes {"status": "joined"|"declined", "userTripIds": [...]}, or {"status": ..., "all": true}
+    // for every pending request; the whole batch is one UPDATE in one transaction.
     @CrossOrigin(origins = "http://localhost:3000")
-    @PostMapping("/backend/credentials/signin")
-    public ResponseEntity<?> handle_credentials_signin(@RequestBody User user) {
-        // Fetch all users from the database
-        List<User> all_users = user_repository.findAll();
-        for (User u : all_users) {
-            // Check if the username and password match
-            if (u.getUsername().equals(user.getUsername()) &&
-                u.getPassword().equals(user.getPassword())) {
-                System.out.println("User authenticated successfully.");
-                return ResponseEntity.ok(u);
+    @PutMapping("/backend/trips/{tripId}/requests")
+    public ResponseEntity<?> reviewTripRequests(@PathVariable Long tripId, SessionPrincipal caller,
+                                                @RequestBody Map<String, Object> payload) {
+        if (caller == null) {
+            return ResponseEntity.badRequest().body("User not found.");
+        }
+        String status = (String) payload.get("status");
+        if (!"joined".equals(status) && !"declined".equals(status)) {
+            return ResponseEntity.badRequest().body("Status must be joined or declined.");
+        }
+
+        Optional<Trip> trip = trip_repository.findById(tripId);
+        if (trip.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Trip not found.");
+        }
+        if (trip.get().getCreatedBy().getUserId() != caller.userId()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to review requests for this trip.");
+        }
+
+        List<Long> reviewedUserIds;
+        if (Boolean.TRUE.equals(payload.get("all"))) {
+            reviewedUserIds = userTripsRepository.reviewAllRequests(tripId, status);
+        } else if (payload.get("userTripIds") instanceof List<?> ids && !ids.isEmpty()) {
+            List<Long> userTripIds = new ArrayList<>();
+            for (Object id : ids) {
+                if (!(id instanceof Number number)) {
+                    return ResponseEntity.badRequest().body("Invalid user trip ID.");
+                }
+                userTripIds.add(number.longValue());
             }
+            reviewedUserIds = userTripsRepository.reviewRequests(tripId, userTripIds, status);
+        } else {
+            return ResponseEntity.badRequest().body("No requests selected.");
+        }
+
+        // The statement bumped the members' updated_at and the trip's seats behind Hibernate's back
+        List<Long> reviewed = List.copyOf(reviewedUserIds);
+        AfterCommit.run(() -> recommendationService.onMembershipsChanged(tripId, reviewed, status));
+        reviewedUserIds.forEach(entityCacheEvictor::evictUserRow);
+        entityCacheEvictor.evictTrip(tripId);
+        System.out.println("Set " + reviewedUserIds.size() + " requests for trip " + tripId + " to " + status);
+        return ResponseEntity.ok(Map.of("updated", reviewedUserIds.size()));
+    }
+
+    // API to sign-in a user locally 
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = SessionTokenService.HEADER)
+    @PostMapping("/backend/credentials/signin")
+    public CompletableFuture<ResponseEntity<?>> handle_credentials_signin(@RequestBody User user) {
+        // Look the user up through the unique username index
+        Optional<User> existing = user.getUsername() != null
+                ? user_repository.findByUsername(user.getUsername())
+                : Optional.empty();
+        String storedPassword = existing.map(User::getPassword).orElse(null);
+
+        // Check the password off the request thread; unknown users are hashed against too
+        CompletableFuture<PasswordService.Verification> verification;
+        try {
+            verification = passwordService.verify(user.getPassword(), storedPassword);
+        } catch (RejectedExecutionException e) {
+            System.err.println("Sign-in rejected, password hashing queue is full.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Too many sign-in attempts, please try again."));
         }
 
-        System.out.println("Invalid email or password.");
-        return ResponseEntity.badRequest().body("Invalid email or password.");
+        return verification.thenApply(result -> {
+            if (!result.matches()) {
+                System.out.println("Invalid email or password.");
+                return ResponseEntity.badRequest().body("Invalid email or password.");
+            }
+
+            // Migrate plaintext or outdated hashes to a fresh bcrypt hash
+            User u = existing.get();
+            if (result.upgradedHash() != null
+                    && user_repository.replacePassword(u.getUserId(), storedPassword, result.upgradedHash()) == 1) {
+                u.setPassword(result.upgradedHash());
+            }
+            System.out.println("User authenticated successfully.");
+            return ResponseEntity.ok()
+                                 .header(SessionTokenService.HEADER, sessionTokenService.issue(u))
+                                 .body(u);
+        });
     }
 
     // API to handle Google sign-in
-    @CrossOrigin(origins = "http://localhost:3000")
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = SessionTokenService.HEADER)
     @PostMapping("/backend/google/signin")
     public ResponseEntity<User> handle_google_signin(@RequestBody User user) {
         // Check if a user with the given email already exists in the repository
@@ -303,7 +556,9 @@ public class BackendApplication {
         
         // If the user exists, return a successful response with the existing user data
         if (existing.isPresent()) {
-            return ResponseEntity.ok(existing.get());
+            return ResponseEntity.ok()
+                                 .header(SessionTokenService.HEADER, sessionTokenService.issue(existing.get()))
+                                 .body(existing.get());
         }
 
         // If the user doesn't exist, create a new user
@@ -315,23 +570,30 @@ public class BackendApplication {
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
 
-        return ResponseEntity.ok(user_repository.save(user));
+        User saved = user_repository.save(user);
+        return ResponseEntity.ok()
+                             .header(SessionTokenService.HEADER, sessionTokenService.issue(saved))
+                             .body(saved);
     }
 
     // API to register a user locally 
     @CrossOrigin(origins = "http://localhost:3000")
     @PostMapping("/backend/signup")
-    public ResponseEntity<?> handle_signup(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> handle_signup(@RequestBody User user) {
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Password is required"));
+        }
+
         // Check if the email or username already exists
         Optional<User> existingUserByEmail = user_repository.findByEmail(user.getEmail());
         Optional<User> existingUserByUsername = user_repository.findByUsername(user.getUsername());
 
         if (existingUserByEmail.isPresent()) {
-            return ResponseEntity.badRequest().body("Email already exists");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email already exists"));
         }
 
         if (existingUserByUsername.isPresent()) {
-            return ResponseEntity.badRequest().body("Username already exists");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username already exists"));
         }
 
         // Set timestamps and save the new user
@@ -340,38 +602,81 @@ public class BackendApplication {
         user.setUpdatedAt(currentTimestamp);
         user.setName(user.getUsername());
 
-
-        return ResponseEntity.ok(user_repository.save(user));
+        // Store only a salted hash of the password, computed off the request thread
+        CompletableFuture<String> hashed;
+        try {
+            hashed = passwordService.hash(user.getPassword());
+        } catch (RejectedExecutionException e) {
+            System.err.println("Sign-up rejected, password hashing queue is full.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Too many requests, please try again."));
+        }
+        return hashed.thenApply(hash -> {
+            user.setPassword(hash);
+            User savedUser = user_repository.save(user);
+            companionIndex.put(savedUser);
+            return ResponseEntity.ok(savedUser);
+        });
     }
 
-    // API to delete user account
-    @CrossOrigin(origins = "http://localhost:3000")
+    // API to delete the caller's account (verified bearer token only). The email in the body is
+    // the confirmation typed by the user and must be the account's own. The deletion runs as a
+    // background job; the response points at its status endpoint
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.LOCATION)
     @PostMapping("/backend/forgetme")
-    public ResponseEntity<?> handle_forgetme(@RequestBody User user) {
-      // Check if the user exists by email
-      Optional<User> existingUserByEmail = user_repository.findByEmail(user.getEmail());
+    public ResponseEntity<?> handle_forgetme(@TokenOnly SessionPrincipal caller, @RequestBody User user) {
+      if (caller == null) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Sign in to delete your profile.");
+      }
+      if (user.getEmail() == null || !user.getEmail().equalsIgnoreCase(caller.email())) {
+        return ResponseEntity.badRequest().body("Email doesn't match your account.");
+      }
 
-      if (!existingUserByEmail.isPresent()) {
-        return ResponseEntity.badRequest().body("Email doesn't exist.");
+      Optional<User> existingUser = user_repository.findById(caller.userId());
+      if (!existingUser.isPresent()) {
+        return ResponseEntity.badRequest().body("User not found.");
       }
 
-      // Delete the user by ID
-      user_repository.deleteById(existingUserByEmail.get().getUserId());
-      return ResponseEntity.ok().build();
+      DeletionJob job = forgetMeService.enqueue(existingUser.get());
+      String statusUrl = "/backend/forgetme/" + job.getJobId();
+      return ResponseEntity.accepted()
+                           .header(HttpHeaders.LOCATION, statusUrl)
+                           .body(Map.of("jobId", job.getJobId(), "status", job.getStatus(), "statusUrl", statusUrl));
     }
 
-
-    // API to get user data by email
+    // API to get the progress of the caller's own account deletion job (verified bearer token
+    // only). Other users' jobs are reported as not found, so job IDs reveal nothing.
     @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/forgetme/{jobId}")
+    public ResponseEntity<?> getForgetMeStatus(@PathVariable long jobId, @TokenOnly SessionPrincipal caller) {
+        if (caller == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Sign in to see your deletion status.");
+        }
+        Optional<DeletionJob> job = deletionJobRepository.findById(jobId);
+        if (job.isEmpty() || job.get().getUserId() != caller.userId()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Deletion job not found.");
+        }
+        DeletionJob found = job.get();
+        return ResponseEntity.ok(new DeletionStatus(found.getJobId(), found.getStatus(), found.getStep(),
+                found.getRowsDeleted(), found.getFilesDeleted(), found.getCreatedAt(), found.getCompletedAt()));
+    }
+
+
+    // API to get the caller's user data (bearer token). The ETag is
+    // the profile's version, to send back as If-Match when updating it.
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
     @GetMapping("/backend/user")
-    public ResponseEntity<?> get_user_data(@RequestHeader("Email") String email) {
-        System.out.println("Request to get user data for email: " + email);
-        // Find the user by email
-        Optional<User> user = user_repository.findByEmail(email);
+    public ResponseEntity<?> get_user_data(SessionPrincipal caller) {
+        if (caller == null) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+        System.out.println("Request to get user data for email: " + caller.email());
+        // Load the profile by ID, which the second-level cache serves
+        Optional<User> user = user_repository.findById(caller.userId());
 
         if (user.isPresent()) {
             System.out.println("Found Username: " + user.get().getUsername());
-            return ResponseEntity.ok(user.get());
+            return ResponseEntity.ok().eTag(VersionTags.etag(user.get().getVersion())).body(user.get());
         } else {
             return ResponseEntity.badRequest().body("User not found");
         }
@@ -393,22 +698,56 @@ public class BackendApplication {
         }
     }
 
-    // API to update user data
-    @CrossOrigin(origins = "http://localhost:3000")
-    @PutMapping("/backend/user")
-    public ResponseEntity<?> update_user(@RequestHeader(value = "Email", required = false) String email, @RequestHeader(value = "Id", required = false) String id, @RequestBody User updatedUser) {
-        System.out.println("Request to update user data for email: " + email);
-        System.out.println("id: ");
-        System.out.println(id);
+    // API to get a user's profile page in one request: public profile, the most recent posts
+    // (pass `nextPostsBefore` back as `before` for older ones), review statistics and trip counts.
+    // The ETag follows the user's updated_at, which every write shown on a profile bumps.
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
+    @GetMapping("/backend/profiles/{userId}")
+    public ResponseEntity<?> getProfile(
+            @PathVariable("userId") long userId,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body("Limit must be positive.");
+        }
+        Optional<User> user = user_repository.findById(userId);
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+        }
+
+        Timestamp updatedAt = user.get().getUpdatedAt();
+        String etag = "\"profile-" + userId + "-" + (updatedAt != null ? updatedAt.getTime() : 0) + "-"
+                + before + "-" + Math.min(limit, ProfileLoader.MAX_POSTS) + "\"";
+        if (TripCatalogCache.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ProfileView profile = profileLoader.load(user.get(), before, limit);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(profile);
+    }
 
-        if (id == null && email == null) {
-            return ResponseEntity.badRequest().body("Either email or id must be provided.");
+    // API to update the caller's user data. With If-Match, only applied while the profile is
+    // still at that version (412 otherwise); an edit that lands between the read and the write
+    // gets 409.
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
+    @PutMapping("/backend/user")
+    public ResponseEntity<?> update_user(SessionPrincipal caller,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @RequestBody User updatedUser) {
+        if (caller == null) {
+            return ResponseEntity.badRequest().body("User not found.");
         }
+        System.out.println("Request to update user data for email: " + caller.email());
 
-        Optional<User> existingUser = id != null ? user_repository.findById(Integer.parseInt(id)) : user_repository.findByEmail(email);
+        Optional<User> existingUser = user_repository.findById(caller.userId());
         
         if (existingUser.isPresent()) {
             User user = existingUser.get();
+            if (!VersionTags.matches(ifMatch, user.getVersion())) {
+                System.out.println("Stale If-Match for user " + user.getUserId() + ".");
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                        .eTag(VersionTags.etag(user.getVersion()))
+                        .body("Profile was changed elsewhere; reload it and try again.");
+            }
             
             // Print current user data
             System.out.println("Current User Data:");
@@ -431,7 +770,6 @@ public class BackendApplication {
             System.out.println("Sex: " + updatedUser.getSex());
             System.out.println("Interests: " + updatedUser.getInterests());
             System.out.println("Bio: " + updatedUser.getBio());
-            System.out.println("Review Score: " + updatedUser.getReviewScore());
 
             // Update user fields
             user.setName(updatedUser.getName());
@@ -443,7 +781,6 @@ public class BackendApplication {
             user.setInterests(updatedUser.getInterests());
             user.setBio(updatedUser.getBio());
             user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
-            user.setReviewScore(updatedUser.getReviewScore());
 
             try {
                 user.setProfilePicture(updatedUser.getProfilePicture());
@@ -452,10 +789,21 @@ public class BackendApplication {
                 e.printStackTrace();
             }
 
-            // Save the updated user
-            user_repository.save(user);
+            // Save the updated user; the UPDATE only matches the version read above
+            User saved;
+            try {
+                saved = user_repository.save(user);
+            } catch (ObjectOptimisticLockingFailureException e) {
+                System.out.println("User " + user.getUserId() + " was updated concurrently.");
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("Profile was changed elsewhere; reload it and try again.");
+            }
+            recommendationService.onUserSaved(user);
+            companionIndex.put(user);
+            principalCache.invalidate(user.getUserId(), user.getEmail());
+            tripCatalogCache.invalidate(); // Trip responses embed their creator's profile
             System.out.println("User updated successfully.");
-            return ResponseEntity.ok("User updated successfully.");
+            return ResponseEntity.ok().eTag(VersionTags.etag(saved.getVersion())).body("User updated successfully.");
         } else {
             System.out.println("User not found.");
             return ResponseEntity.badRequest().body("User not found.");
@@ -475,6 +823,70 @@ public class BackendApplication {
         }
     }
 
+    // API to search the user directory by username or name: prefix matches first, then
+    // substring and trigram (misspelling) matches. Returns one page of user summaries with their
+    // average post rating; pass `nextCursor` back as `cursor` for the next page.
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/users/search")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam(value = "q", defaultValue = "") String q,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body("Limit must be positive.");
+        }
+
+        // Cursor is "<tier>-<userId>" of the last row of the previous page
+        int afterTier = 0;
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split("-");
+            try {
+                afterTier = Integer.parseInt(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor.");
+            }
+        }
+
+        int pageSize = Math.min(limit, TripCardLoader.MAX_PAGE_SIZE);
+        String needle = q.trim().toLowerCase();
+        String escaped = needle.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        List<Object[]> rows = user_repository.searchDirectory(needle, escaped + "%", "%" + escaped + "%",
+                                                             afterTier, afterId, pageSize);
+
+        List<UserDirectoryEntry> users = rows.stream().map(UserDirectoryEntry::fromRow).toList();
+        String nextCursor = null;
+        if (rows.size() == pageSize) {
+            Object[] last = rows.get(rows.size() - 1);
+            nextCursor = ((Number) last[4]).intValue() + "-" + ((Number) last[0]).longValue();
+        }
+        return ResponseEntity.ok(new UserDirectoryEntry.Page(users, nextCursor));
+    }
+
+    // API to download everything stored about the caller as a zip archive of JSON-lines files
+    // and the images they reference, streamed as it is read. Personal data, so only a verified
+    // session token identifies the caller here.
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.CONTENT_DISPOSITION)
+    @GetMapping("/backend/users/{userId}/export")
+    public ResponseEntity<?> exportUserData(@PathVariable long userId, @TokenOnly SessionPrincipal caller) {
+        if (caller == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Sign in to export your data.");
+        }
+        if (caller.userId() != userId) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You can only export your own data.");
+        }
+        System.out.println("Exporting data for user ID: " + userId);
+        return userDataExporter.export(userId);
+    }
+
+    // API to stream all users as NDJSON (Accept: application/x-ndjson), one public profile per line
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping(value = "/backend/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ndjsonStreamer.stream(user_repository::streamAllProfiles, profileLoader::withCollections);
+    }
+
     // API to get all reviews
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/backend/reviews")
@@ -488,49 +900,271 @@ public class BackendApplication {
         }
     }
 
-    // API to get all trips with images
+    // API to stream all reviews as NDJSON (Accept: application/x-ndjson), one review per line
     @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping(value = "/backend/reviews", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllReviews() {
+        return ndjsonStreamer.stream(reviewRepository::streamAllLines);
+    }
+
+    // API to get all trips with images. With `limit`, returns one keyset page of trips whose
+    // ID is greater than `after`; pass the last tripId of a page to fetch the next one.
+    // Responses carry an ETag and are served from the catalog cache until a trip changes.
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
     @GetMapping("/backend/trips")
-    public ResponseEntity<List<Map<String, Object>>> getAllTrips() {
-        // Fetch all trips from the database
-        List<Trip> trips = trip_repository.findAll();
-        List<Map<String, Object>> tripsWithImages = new ArrayList<>();
+    public ResponseEntity<byte[]> getAllTrips(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (limit != null && limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Trips, creators, images and interests are loaded in a fixed number of queries per page
+        if (limit == null) {
+            return tripCatalogCache.respond("trips", ifNoneMatch, tripCardLoader::loadAll);
+        }
+        return tripCatalogCache.respond("trips:" + after + ":" + limit, ifNoneMatch,
+                () -> tripCardLoader.loadPage(after, limit));
+    }
+
+    // API to search trips by interests, location and travel dates. Results are keyset-paginated
+    // by trip ID the same way as GET /backend/trips.
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/trips/search")
+    public ResponseEntity<List<TripCard>> searchTrips(
+            @RequestParam(value = "interestIds", required = false) List<Integer> interestIds,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        if (limit <= 0 || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        Specification<Trip> filters = Specification.where(TripSpecifications.hasAnyInterest(interestIds))
+                .and(TripSpecifications.locationMatches(location, fuzzy))
+                .and(TripSpecifications.overlaps(
+                        from != null ? Date.valueOf(from) : null,
+                        to != null ? Date.valueOf(to) : null));
+
+        return ResponseEntity.ok(tripCardLoader.searchPage(filters, after, limit));
+    }
+
+    // API for ranked free-text search over trip locations and descriptions
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/trips/text-search")
+    public ResponseEntity<List<TripCard>> textSearchTrips(
+            @RequestParam("q") String q,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        if (q.isBlank() || limit <= 0) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        List<Long> rankedIds = trip_repository.searchTripIdsByText(q.trim(), Math.min(limit, TripCardLoader.MAX_PAGE_SIZE));
+        return ResponseEntity.ok(tripCardLoader.loadInOrder(rankedIds));
+    }
+
+    // API for location typeahead: top prefix/fuzzy matches, or the most common locations when
+    // nothing has been typed yet
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/trips/locations")
+    public ResponseEntity<List<String>> suggestLocations(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        int cappedLimit = Math.min(limit, 50);
+        if (q == null || q.isBlank()) {
+            return ResponseEntity.ok(trip_repository.findTopLocations(cappedLimit));
+        }
 
-        for (Trip trip : trips) {
-            Map<String, Object> tripDetails = new HashMap<>();
-            tripDetails.put("tripId", trip.getTripId());
-            tripDetails.put("location", trip.getLocation());
-            tripDetails.put("startDate", trip.getStartDate());
-            tripDetails.put("endDate", trip.getEndDate());
-            tripDetails.put("description", trip.getDescription());
-            tripDetails.put("createdBy", trip.getCreatedBy()); // Ensure `User` is serialized properly
-            tripDetails.put("interests", trip.getInterests());
+        String needle = q.trim().toLowerCase();
+        String prefix = needle.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return ResponseEntity.ok(trip_repository.suggestLocations(needle, prefix, cappedLimit));
+    }
 
-            // Fetch images for each trip
-            List<TripImage> tripImages = tripImageRepository.findByTrip_TripId(trip.getTripId());
-            List<String> imageUrls = tripImages.stream()
-                                            .map(TripImage::getImageUrl)
-                                            .toList();
-            tripDetails.put("images", imageUrls); // Add images to response
+    // API to find trips by travel dates: `overlap` returns trips sharing at least one day with
+    // [from, to], `within` only trips that fit entirely inside it. Either bound may be omitted.
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/trips/dates")
+    public ResponseEntity<List<TripCard>> getTripsByDates(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "mode", defaultValue = "overlap") String mode,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        if (limit <= 0 || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().body(null);
+        }
 
-            tripsWithImages.add(tripDetails);
+        int pageSize = Math.min(limit, TripCardLoader.MAX_PAGE_SIZE);
+        List<Long> tripIds;
+        if ("overlap".equals(mode)) {
+            tripIds = trip_repository.findTripIdsOverlapping(from, to, after, pageSize);
+        } else if ("within".equals(mode)) {
+            tripIds = trip_repository.findTripIdsWithin(from, to, after, pageSize);
+        } else {
+            return ResponseEntity.badRequest().body(null);
         }
+        return ResponseEntity.ok(tripCardLoader.loadInOrder(tripIds));
+    }
 
-        return ResponseEntity.ok(tripsWithImages);
+    // API to find trips within `radiusKm` of a point, nearest first. Each card carries its
+    // `distanceKm`; pass the last card's distanceKm and tripId as `afterKm` and `after` to
+    // fetch the next page.
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/trips/nearby")
+    public ResponseEntity<List<TripCard.Nearby>> getNearbyTrips(
+            @RequestParam("lat") double lat,
+            @RequestParam("lon") double lon,
+            @RequestParam(value = "radiusKm", defaultValue = "50") double radiusKm,
+            @RequestParam(value = "afterKm", required = false) Double afterKm,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        GeoPoint center = new GeoPoint(lat, lon);
+        if (!center.isValid() || radiusKm <= 0 || radiusKm > 20000 || limit <= 0) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        List<GeoTripIndex.Hit> hits = geoTripIndex.nearby(center, radiusKm, afterKm, after,
+                Math.min(limit, TripCardLoader.MAX_PAGE_SIZE));
+        Map<Long, Double> distances = new HashMap<>();
+        hits.forEach(hit -> distances.put(hit.tripId(), hit.distanceKm()));
+
+        List<TripCard> cards = tripCardLoader.loadInOrder(hits.stream().map(GeoTripIndex.Hit::tripId).toList());
+        return ResponseEntity.ok(cards.stream()
+                .map(card -> new TripCard.Nearby(card, distances.get(card.tripId())))
+                .toList());
     }
 
-    // API to update trip details
+    // API to get the trips recommended to a user, best first. Each card carries its `score`.
     @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/trips/recommended")
+    public ResponseEntity<?> getRecommendedTrips(
+            SessionPrincipal caller,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (caller == null) {
+            return ResponseEntity.badRequest().body("User not found.");
+        }
+
+        List<RecommendationService.Recommendation> recommendations =
+                recommendationService.recommend(caller.userId());
+        recommendations = recommendations.subList(0, Math.max(0, Math.min(limit, recommendations.size())));
+
+        Map<Long, Double> scores = new HashMap<>();
+        recommendations.forEach(recommendation -> scores.put(recommendation.tripId(), recommendation.score()));
+        List<TripCard> cards = tripCardLoader.loadInOrder(
+                recommendations.stream().map(RecommendationService.Recommendation::tripId).toList());
+        return ResponseEntity.ok(cards.stream()
+                .map(card -> new TripCard.Scored(card, scores.get(card.tripId())))
+                .toList());
+    }
+
+    // API to suggest travel companions with a similar profile (languages, interests,
+    // nationality, age bracket), most similar first. Each entry carries its `similarity`.
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/users/{id}/companions")
+    public ResponseEntity<?> getCompanions(
+            @PathVariable("id") long id,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body("Limit must be positive.");
+        }
+        if (!user_repository.existsById(id)) {
+            return ResponseEntity.badRequest().body("User not found.");
+        }
+
+        List<CompanionIndex.Match> matches = companionIndex.companions(id, Math.min(limit, 100));
+        Map<Long, User> usersById = new HashMap<>();
+        user_repository.findAllById(matches.stream().map(CompanionIndex.Match::userId).toList())
+                       .forEach(user -> usersById.put(user.getUserId(), user));
+
+        List<Map<String, Object>> companions = new ArrayList<>();
+        for (CompanionIndex.Match match : matches) {
+            User user = usersById.get(match.userId());
+            if (user == null) {
+                continue;
+            }
+            Map<String, Object> companion = new HashMap<>();
+            companion.put("userId", user.getUserId());
+            companion.put("username", user.getUsername());
+            companion.put("name", user.getName());
+            companion.put("profilePicture", user.getProfilePicture());
+            companion.put("nationality", user.getNationality());
+            companion.put("age", user.getAge());
+            companion.put("similarity", match.similarity());
+            companions.add(companion);
+        }
+        return ResponseEntity.ok(companions);
+    }
+
+    // API to count trips per interest. `interestIds` narrows the base set first, matching any
+    // (default) or all of the given interests, so the counts reflect the current selection.
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/trips/facets")
+    public ResponseEntity<Map<String, Object>> getInterestFacets(
+            @RequestParam(value = "interestIds", required = false) List<Integer> interestIds,
+            @RequestParam(value = "match", defaultValue = "any") String match) {
+        RoaringBitmap matching;
+        if ("all".equals(match)) {
+            matching = interestFacetIndex.matchAll(interestIds);
+        } else if ("any".equals(match)) {
+            matching = interestFacetIndex.matchAny(interestIds);
+        } else {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        Map<String, Object> facets = new HashMap<>();
+        facets.put("matching", matching.getLongCardinality());
+        facets.put("counts", interestFacetIndex.facetCounts(matching));
+        return ResponseEntity.ok(facets);
+    }
+
+    // API to report the size of the in-memory interest index
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/backend/trips/facets/stats")
+    public ResponseEntity<Map<String, Object>> getInterestFacetStats() {
+        return ResponseEntity.ok(interestFacetIndex.stats());
+    }
+
+    // API to update trip details. With If-Match (the trip's "version" as an ETag), only applied
+    // while the trip is still at that version (412 otherwise); an edit that lands between the
+    // read and the write gets 409.
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
     @PutMapping("/backend/trips/{id}")
-    public ResponseEntity<?> updateTrip(@PathVariable Long id, @RequestBody Trip updatedTrip) {
+    public ResponseEntity<?> updateTrip(@PathVariable Long id, @RequestBody Trip updatedTrip,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         System.out.println("Request to update trip with ID: " + id);
 
         // Find the trip by ID
         Optional<Trip> optionalTrip = trip_repository.findById(id);
         if (optionalTrip.isPresent()) {
             Trip existingTrip = optionalTrip.get();
+            if (!VersionTags.matches(ifMatch, existingTrip.getVersion())) {
+                System.out.println("Stale If-Match for trip " + id + ".");
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                        .eTag(VersionTags.etag(existingTrip.getVersion()))
+                        .body("Trip was changed by someone else; reload it and try again.");
+            }
+
+            String coordinateError = coordinateError(updatedTrip.getLatitude(), updatedTrip.getLongitude());
+            if (coordinateError != null) {
+                return ResponseEntity.badRequest().body(coordinateError);
+            }
 
-            // Update the fields
+            // Update the fields, geocoding the trip again when it moves without explicit coordinates
+            boolean moved = !Objects.equals(updatedTrip.getLocation(), existingTrip.getLocation());
+            if (updatedTrip.getLatitude() != null && updatedTrip.getLongitude() != null) {
+                existingTrip.setLatitude(updatedTrip.getLatitude());
+                existingTrip.setLongitude(updatedTrip.getLongitude());
+            } else if (moved) {
+                GeoPoint point = geocoder.geocode(updatedTrip.getLocation()).orElse(null);
+                existingTrip.setLatitude(point != null ? point.latitude() : null);
+                existingTrip.setLongitude(point != null ? point.longitude() : null);
+            }
             existingTrip.setLocation(updatedTrip.getLocation());
             existingTrip.setStartDate(updatedTrip.getStartDate());
             existingTrip.setEndDate(updatedTrip.getEndDate());
@@ -538,12 +1172,38 @@ public class BackendApplication {
             if (updatedTrip.getInterests() != null) {
                 existingTrip.setInterests(updatedTrip.getInterests());
             }
+            if (updatedTrip.getCapacity() != null) {
+                if (updatedTrip.getCapacity() <= 0) {
+                    return ResponseEntity.badRequest().body("Capacity must be positive.");
+                }
+                if (updatedTrip.getCapacity() < existingTrip.getSeatsTaken()) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body("Capacity is below the " + existingTrip.getSeatsTaken() + " members already joined.");
+                }
+                existingTrip.setCapacity(updatedTrip.getCapacity());
+            }
 
-            // Save the updated trip
+            // Save the updated trip; the UPDATE only matches the version read above
             try {
-                trip_repository.save(existingTrip);
+                Trip savedTrip = trip_repository.save(existingTrip);
+                if (updatedTrip.getInterests() != null) {
+                    List<Integer> interestIds = updatedTrip.getInterests().stream()
+                            .map(Interest::getInterestId)
+                            .toList();
+                    AfterCommit.run(() -> interestFacetIndex.putTrip(id, interestIds));
+                }
+                GeoPoint coordinates = coordinatesOf(existingTrip);
+                AfterCommit.run(() -> geoTripIndex.put(id, coordinates));
+                AfterCommit.run(() -> recommendationService.onTripSaved(id));
+                // A raised capacity promotes waitlisted members in the database
+                entityCacheEvictor.evictTrip(id);
+                tripCatalogCache.invalidate();
                 System.out.println("Trip updated successfully.");
-                return ResponseEntity.ok("Trip updated successfully"); 
+                return ResponseEntity.ok().eTag(VersionTags.etag(savedTrip.getVersion())).body("Trip updated successfully");
+            } catch (ObjectOptimisticLockingFailureException e) {
+                System.out.println("Trip " + id + " was updated concurrently.");
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("Trip was changed by someone else; reload it and try again.");
             } catch (Exception e) {
                 System.err.println("Error saving updated trip: " + e.getMessage());
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Could not save updated trip data.");
@@ -554,36 +1214,45 @@ public class BackendApplication {
         }
     }
 
-    // API to set a user's review score
+    // API to rate a trip from the explore page. Recorded as a review of the trip and of its
+    // creator; the rating aggregates and the creator's review score are updated by the database.
     @CrossOrigin(origins = "http://localhost:3000")
     @PostMapping("/backend/reviewstemp")
-    public ResponseEntity<?> setUserReview(@RequestBody Map<String, Object> requestBody) {
+    public ResponseEntity<?> setUserReview(SessionPrincipal caller, @RequestBody Map<String, Object> requestBody) {
         try {
             // Extract trip ID and rating from the request body
             Long tripId = ((Number) requestBody.get("tripId")).longValue();
             int rating = Integer.parseInt(requestBody.get("rating").toString());
+            if (rating < 1 || rating > 5) {
+                return ResponseEntity.badRequest().body("Rating must be between 1 and 5.");
+            }
 
-            // Find the user associated with the trip
-            List<UserTrips> userTrips = userTripsRepository.findByTripId(tripId);
-            if (userTrips.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No user found for this trip.");
+            Optional<User> reviewer = caller != null ? user_repository.findById(caller.userId()) : Optional.empty();
+            if (reviewer.isEmpty()) {
+                return ResponseEntity.badRequest().body("User not found.");
             }
-            User user = userTrips.get(0).getUser(); // Assuming one user per trip
-            user.setReviewScore(rating);
-            user_repository.save(user);
-            System.out.println("MEOW");
-        return ResponseEntity.ok("Review successfully updated.");
+            Optional<Trip> trip = trip_repository.findById(tripId);
+            if (trip.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Trip not found.");
+            }
+
+            Review review = new Review();
+            review.setReviewer(reviewer.get());
+            review.setReviewee(trip.get().getCreatedBy());
+            review.setTrip(trip.get());
+            review.setRating(rating);
+            reviewRepository.save(review);
+            onReviewSaved(trip.get().getCreatedBy());
+            return ResponseEntity.ok("Review successfully updated.");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error updating review.");
         }
     }
-    
-
 
-    // API to create a review
+    // API to create a review of a post; the reviewer is the caller
     @CrossOrigin(origins = "http://localhost:3000")
     @PostMapping("/backend/reviews")
-    public ResponseEntity<?> createReview(@RequestBody Map<String, Object> payload) {
+    public ResponseEntity<?> createReview(SessionPrincipal caller, @RequestBody Map<String, Object> payload) {
         try {
             // Extract post information from the payload
             Map<String, Object> postMap = (Map<String, Object>) payload.get("post");
@@ -597,16 +1266,11 @@ public class BackendApplication {
             
             String comment = (String) payload.get("comment");
             
-            // Extract reviewer information from the payload
-            Map<String, Object> reviewerMap = (Map<String, Object>) payload.get("reviewer");
-            if (reviewerMap == null || !reviewerMap.containsKey("userId")) {
-                return ResponseEntity.badRequest().body("Reviewer information is missing.");
+            // The reviewer is the caller
+            if (caller == null) {
+                return ResponseEntity.badRequest().body("User not found.");
             }
-    
-            Long userId = Long.parseLong(reviewerMap.get("userId").toString());
-    
-            // Find the reviewer user
-            Optional<User> userOptional = user_repository.findById(userId);
+            Optional<User> userOptional = user_repository.findById(caller.userId());
             
             if (userOptional.isEmpty()) {
                 return ResponseEntity.badRequest().body("User not found.");
@@ -627,6 +1291,8 @@ public class BackendApplication {
             newReview.setComment(comment);
     
             reviewRepository.save(newReview);
+            UserTrips reviewedUserTrip = postOptional.get().getUserTrip();
+            onReviewSaved(reviewedUserTrip != null ? reviewedUserTrip.getUser() : null);
     
             return ResponseEntity.ok("Review added successfully.");            
         } catch (Exception e) {
@@ -637,64 +1303,49 @@ public class BackendApplication {
     
 
 
-    // Retrieve trip details using ID
-    @CrossOrigin(origins = "http://localhost:3000")
+    // Retrieve trip details using ID, cached and ETag-tagged like the trip list
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
     @GetMapping("/backend/trips/{id}")
-    public ResponseEntity<Trip> getTripById(@PathVariable Long id) {
-        // Find the trip by ID
-        Optional<Trip> trip = trip_repository.findById(id);
-        if (trip.isPresent()) {
-            return ResponseEntity.ok(trip.get());
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<byte[]> getTripById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Find the trip by ID; a missing trip is cached as a 404 until the catalog changes
+        return tripCatalogCache.respond("trip:" + id, ifNoneMatch, () -> {
+            List<TripCard> cards = tripCardLoader.loadInOrder(List.of(id));
+            return cards.isEmpty() ? null : cards.get(0);
+        });
     }
 
     // API to fetch trips created by a specific user
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/backend/trips/created")
-    public ResponseEntity<?> getTripsByCreator(@RequestHeader("Email") String email) {
-        System.out.println("Request to get trips created by user with email: " + email);
-
-        // Find the user by email
-        Optional<User> user = user_repository.findByEmail(email);
-        if (user.isEmpty()) {
-            System.err.println("User not found for email: " + email);
+    public ResponseEntity<?> getTripsByCreator(SessionPrincipal caller) {
+        if (caller == null) {
+            System.err.println("User not found for trips created request.");
             return ResponseEntity.badRequest().body("User not found.");
         }
+        System.out.println("Request to get trips created by user with email: " + caller.email());
 
-        // Fetch trips created by the user
-        List<Trip> trips = trip_repository.findByCreatedByUserId(user.get().getUserId());
+        // Fetch the cards of the trips created by the user, with images and interests batched
+        List<TripCard> trips = tripCardLoader.loadCreatedBy(caller.userId());
         if (trips.isEmpty()) {
-            System.out.println("No trips found for user ID: " + user.get().getUserId());
+            System.out.println("No trips found for user ID: " + caller.userId());
             return ResponseEntity.ok(List.of()); // Return empty list
         }
 
-        // Add images to each trip
-        for (Trip trip : trips) {
-            List<TripImage> tripImages = tripImageRepository.findByTrip_TripId(trip.getTripId());
-            List<String> imageUrls = tripImages.stream()
-                                            .map(TripImage::getImageUrl)
-                                            .toList();
-            trip.setImages(imageUrls); 
-        }
-
-        System.out.println("Trips fetched successfully for user ID: " + user.get().getUserId());
+        System.out.println("Trips fetched successfully for user ID: " + caller.userId());
         return ResponseEntity.ok(trips);
     }
 
     // API to delete a trip
     @CrossOrigin(origins = "http://localhost:3000")
     @DeleteMapping("/backend/trips/{tripId}")
-    public ResponseEntity<?> deleteTrip(@PathVariable Long tripId, @RequestHeader("Email") String email) {
-        System.out.println("Request to delete trip with ID: " + tripId + " by user with email: " + email);
-
-        // Find the user by email
-        Optional<User> user = user_repository.findByEmail(email);
-        if (user.isEmpty()) {
-            System.err.println("User not found for email: " + email);
+    public ResponseEntity<?> deleteTrip(@PathVariable Long tripId, SessionPrincipal caller) {
+        if (caller == null) {
+            System.err.println("User not found for delete request of trip ID: " + tripId);
             return ResponseEntity.badRequest().body("User not found.");
         }
+        System.out.println("Request to delete trip with ID: " + tripId + " by user with email: " + caller.email());
 
         // Find the trip by ID
         Optional<Trip> trip = trip_repository.findById(tripId);
@@ -703,13 +1354,21 @@ public class BackendApplication {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Trip not found.");
         }
         // Check if the requesting user is the creator of the trip
-        if (trip.get().getCreatedBy().getUserId() != user.get().getUserId()) {
+        if (trip.get().getCreatedBy().getUserId() != caller.userId()) {
             System.err.println("User is not authorized to delete this trip.");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to delete this trip.");
         }
         try {
+            // Members lose the trip from their profile counts
+            userTripsRepository.findByTripId(tripId).forEach(member -> touchProfile(member.getUser()));
+
             // Delete the trip
             trip_repository.delete(trip.get());
+            AfterCommit.run(() -> interestFacetIndex.removeTrip(tripId));
+            AfterCommit.run(() -> geoTripIndex.remove(tripId));
+            AfterCommit.run(() -> recommendationService.onTripDeleted(tripId));
+            entityCacheEvictor.evictTrip(tripId);
+            tripCatalogCache.invalidate();
             System.out.println("Trip with ID: " + tripId + " deleted successfully.");
             return ResponseEntity.ok("Trip deleted successfully.");
         } catch (Exception e) {
@@ -730,19 +1389,35 @@ public class BackendApplication {
     @CrossOrigin(origins = "http://localhost:3000")
     @PostMapping("/backend/trips")
     @Transactional
-    public ResponseEntity<?> addTrip(@RequestBody Trip trip) {
+    public ResponseEntity<?> addTrip(SessionPrincipal caller, @RequestBody Trip trip) {
         try {
-            // Validate the user creating the trip
-            Optional<User> user = user_repository.findByEmail(trip.getCreatedByEmail());
+            // The creator is the caller
+            Optional<User> user = caller != null ? user_repository.findById(caller.userId()) : Optional.empty();
 
             if (user.isEmpty()) {
-                System.err.println("Error: User not found for email: " + trip.getCreatedByEmail());
+                System.err.println("Error: Trip creator not signed in.");
                 return ResponseEntity.badRequest().body("User not found.");
             }
 
+            if (trip.getCapacity() != null && trip.getCapacity() <= 0) {
+                return ResponseEntity.badRequest().body("Capacity must be positive.");
+            }
+            String coordinateError = coordinateError(trip.getLatitude(), trip.getLongitude());
+            if (coordinateError != null) {
+                return ResponseEntity.badRequest().body(coordinateError);
+            }
+
             // Associate the trip with the found user
             trip.setCreatedBy(user.get());
 
+            // Geocode the location unless the client already sent coordinates
+            if (trip.getLatitude() == null || trip.getLongitude() == null) {
+                geocoder.geocode(trip.getLocation()).ifPresent(point -> {
+                    trip.setLatitude(point.latitude());
+                    trip.setLongitude(point.longitude());
+                });
+            }
+
             // Set timestamps
             Timestamp currentTimestamp = new Timestamp(System.currentTimeMillis());
             trip.setCreatedAt(currentTimestamp);
@@ -757,6 +1432,13 @@ public class BackendApplication {
                     trip_repository.addTripInterest(savedTrip.getTripId(), interestId);
                 }
             }
+            List<Integer> interestIds = trip.getInterestIds() != null ? List.copyOf(trip.getInterestIds()) : List.of();
+            AfterCommit.run(() -> interestFacetIndex.putTrip(savedTrip.getTripId(), interestIds));
+            GeoPoint coordinates = coordinatesOf(savedTrip);
+            AfterCommit.run(() -> geoTripIndex.put(savedTrip.getTripId(), coordinates));
+            AfterCommit.run(() -> recommendationService.onTripSaved(savedTrip.getTripId()));
+            tripCatalogCache.invalidate();
+            touchProfile(user.get());
 
             System.out.println("Trip added successfully: " + savedTrip);
             return ResponseEntity.ok(savedTrip);
@@ -770,17 +1452,24 @@ public class BackendApplication {
     // API to get all posts
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/backend/posts")
-    public ResponseEntity<List<Post>> getAllPosts() {
-        // Fetch all posts from the database
-        return ResponseEntity.ok(postRepository.findAll());
+    public ResponseEntity<List<PostCard>> getAllPosts() {
+        // Fetch all posts with their author and trip summaries in one query
+        return ResponseEntity.ok(postRepository.findAllPostCards());
+    }
+
+    // API to stream all posts as NDJSON (Accept: application/x-ndjson), one post card per line
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping(value = "/backend/posts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPosts() {
+        return ndjsonStreamer.stream(postRepository::streamAllPostCards);
     }
 
     // API to get posts by user ID
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/backend/posts/user/{userId}")
-    public ResponseEntity<List<Post>> getPostsByUserId(@PathVariable Long userId) {
+    public ResponseEntity<List<PostCard>> getPostsByUserId(@PathVariable Long userId) {
         // Fetch posts by user ID
-        return ResponseEntity.ok(postRepository.findPostsByUserId(userId));
+        return ResponseEntity.ok(postRepository.findPostCardsByUserId(userId));
 
     }
 
@@ -813,6 +1502,7 @@ public class BackendApplication {
             post.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
 
             Post savedPost = postRepository.save(post);
+            touchProfile(userTrip.getUser());
 
             return ResponseEntity.ok(savedPost);
         } catch (Exception e) {
@@ -821,14 +1511,16 @@ public class BackendApplication {
         }
     }
 
-    // API to update a post
-    @CrossOrigin(origins = "http://localhost:3000")
+    // API to update a post. With If-Match (the post's "version" as an ETag), only applied while
+    // the post is still at that version (412 otherwise); a concurrent edit gets 409.
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
     @PutMapping("/backend/posts/{postId}")
     public ResponseEntity<?> updatePost(
             @PathVariable Long postId,
             @RequestParam(value = "caption", required = false) String caption,
             @RequestParam(value = "image", required = false) MultipartFile image,
-            @RequestParam(value = "userTripId", required = false) Long userTripId) {
+            @RequestParam(value = "userTripId", required = false) Long userTripId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         try {
             // Find the existing post by postId
@@ -838,6 +1530,11 @@ public class BackendApplication {
             }
     
             Post post = postOptional.get();
+            if (!VersionTags.matches(ifMatch, post.getVersion())) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                        .eTag(VersionTags.etag(post.getVersion()))
+                        .body("Post was changed by someone else; reload it and try again.");
+            }
     
             if (caption != null) {
                 post.setCaption(caption);
@@ -859,8 +1556,12 @@ public class BackendApplication {
             post.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
     
             Post updatedPost = postRepository.save(post);
+            touchProfile(updatedPost.getUserTrip() != null ? updatedPost.getUserTrip().getUser() : null);
     
-            return ResponseEntity.ok(updatedPost);
+            return ResponseEntity.ok().eTag(VersionTags.etag(updatedPost.getVersion())).body(updatedPost);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Post was changed by someone else; reload it and try again.");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error updating post: " + e.getMessage());
@@ -868,6 +1569,55 @@ public class BackendApplication {
     }
     
 
+    // Helper method to refresh what a new review changes: the reviewee's profile and cached row
+    // (the trigger rewrote review_score) and the trip responses, which carry review stats
+    private void onReviewSaved(User reviewee) {
+        if (reviewee != null) {
+            touchProfile(reviewee);
+            entityCacheEvictor.evictUserRow(reviewee.getUserId());
+        }
+        tripCatalogCache.invalidate();
+    }
+
+    // Helper methods to bump a user's updated_at after a write that changes their profile page
+    // (posts, reviews received, trip memberships), so cached profile responses revalidate. One
+    // UPDATE of the column, without loading the user or changing its version; only that user's
+    // cached row is evicted.
+    private void touchProfile(User user) {
+        if (user != null) {
+            touchProfile(user.getUserId());
+        }
+    }
+
+    private void touchProfile(Long userId) {
+        if (userId != null && !user_repository.touch(userId).isEmpty()) {
+            entityCacheEvictor.evictUserRow(userId);
+        }
+    }
+
+    // Helper method to read a trip's coordinates, null when it has not been geocoded
+    private GeoPoint coordinatesOf(Trip trip) {
+        if (trip.getLatitude() == null || trip.getLongitude() == null) {
+            return null;
+        }
+        return new GeoPoint(trip.getLatitude(), trip.getLongitude());
+    }
+
+    // Helper method to check coordinates sent with a trip: both or neither, and within range.
+    // Returns the error message, or null when they are acceptable.
+    private String coordinateError(Double latitude, Double longitude) {
+        if (latitude == null && longitude == null) {
+            return null;
+        }
+        if (latitude == null || longitude == null) {
+            return "Latitude and longitude must be given together.";
+        }
+        if (!new GeoPoint(latitude, longitude).isValid()) {
+            return "Latitude must be between -90 and 90 and longitude between -180 and 180.";
+        }
+        return null;
+    }
+
     // Helper method to save an image to disk
     private String saveImageToDisk(MultipartFile image) {
         // Save the image to the "public/images/posts" directory
@@ -886,15 +1636,13 @@ public class BackendApplication {
     // Get all notifications for a user
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/backend/notifications")
-    public ResponseEntity<?> getUserNotifications(@RequestParam String email) {
-        // Find the user by email
-        Optional<User> userOptional = user_repository.findByEmail(email);
-        if (userOptional.isEmpty()) {
+    public ResponseEntity<?> getUserNotifications(SessionPrincipal caller) {
+        if (caller == null) {
             return ResponseEntity.badRequest().body("User not found.");
         }
 
         // Fetch notifications for the user
-        List<Notification> notifications = notificationRepository.findByUserUserId(userOptional.get().getUserId());
+        List<Notification> notifications = notificationRepository.findByUserUserId(caller.userId());
         return ResponseEntity.ok(notifications);
     }
 
@@ -907,6 +1655,14 @@ public class BackendApplication {
         return ResponseEntity.ok(notifications);
     }
 
+    // API to stream all notifications as NDJSON (Accept: application/x-ndjson), one notification
+    // with its recipient's ID and username per line
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping(value = "/backend/notifications/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllNotifications() {
+        return ndjsonStreamer.stream(notificationRepository::streamAllLines);
+    }
+
     // Mark a notification as read
     @CrossOrigin(origins = "http://localhost:3000")
     @PutMapping("/backend/notifications/{notificationId}/read")
@@ -970,6 +1726,7 @@ public class BackendApplication {
 
             // Save all TripImage entities
             tripImageRepository.saveAll(tripImages);
+            tripCatalogCache.invalidate();
             return ResponseEntity.ok("Images uploaded successfully.");
 
         } catch (Exception e) {
@@ -0,0 +1,88 @@
+package backend.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+// Hibernate second-level cache regions, backed by in-process Caffeine caches. Every region is
+// created here with an explicit size so nothing falls back to an unbounded default, and each
+// one publishes hit/miss/put/eviction counts under the `cache.*` metrics.
+@Configuration
+public class EntityCacheConfig {
+
+    public static final String INTERESTS = "interests";
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "users-by-email";
+    public static final String USER_LANGUAGES = "users-languages";
+    public static final String USER_INTERESTS = "users-interests";
+    public static final String TRIPS = "trips";
+    public static final String TRIP_INTERESTS = "trips-interests";
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    // A cache region's bounds: maximum entries, and how long an entry lives (null = forever)
+    private record Region(long maximumSize, Duration expireAfterWrite) {}
+
+    private static final Map<String, Region> REGIONS = new LinkedHashMap<>();
+
+    static {
+        REGIONS.put(INTERESTS, new Region(1_000, null));
+        REGIONS.put(USERS, new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put(USERS_BY_EMAIL, new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put(USER_LANGUAGES, new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put(USER_INTERESTS, new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put(TRIPS, new Region(20_000, Duration.ofMinutes(30)));
+        REGIONS.put(TRIP_INTERESTS, new Region(20_000, Duration.ofMinutes(30)));
+        REGIONS.put(QUERY_RESULTS, new Region(1_000, Duration.ofMinutes(10)));
+        // Must outlive every cached query result, or stale results could be served
+        REGIONS.put(UPDATE_TIMESTAMPS, new Region(10_000, null));
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        REGIONS.forEach((name, region) -> {
+            if (cacheManager.getCache(name) == null) {
+                cacheManager.createCache(name, configuration(region));
+            }
+        });
+        return cacheManager;
+    }
+
+    // Hand Hibernate the cache manager holding the regions above
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> REGIONS.keySet().forEach(name ->
+                JCacheMetrics.monitor(registry, entityCacheManager.getCache(name)));
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.maximumSize()));
+        if (region.expireAfterWrite() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(region.expireAfterWrite().toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
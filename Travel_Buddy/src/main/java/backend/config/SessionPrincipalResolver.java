@@ -0,0 +1,88 @@
+package backend.config;
+
+import java.util.OptionalLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import backend.service.PrincipalCache;
+import backend.service.SessionPrincipal;
+import backend.service.SessionTokenService;
+
+// Resolves `SessionPrincipal` controller arguments once per request from a valid
+// `Authorization: Bearer <token>`. Resolves to null without one, which the endpoints answer
+// with "User not found". The unauthenticated `Email` header / `email` parameter lets anyone act
+// as anyone, so it is only honoured while auth.legacy-email-header is switched on.
+@Component
+public class SessionPrincipalResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATTRIBUTE = SessionPrincipalResolver.class.getName() + ".principal";
+    private static final String BEARER = "Bearer ";
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    // Transition switch for clients that do not send tokens yet; off by default
+    @Value("${auth.legacy-email-header:false}")
+    private boolean legacyEmailHeader;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return SessionPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        if (parameter.hasParameterAnnotation(TokenOnly.class)) {
+            return resolveToken(webRequest);
+        }
+        Object resolved = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved instanceof SessionPrincipal principal) {
+            return principal;
+        }
+
+        SessionPrincipal principal = resolve(webRequest);
+        if (principal != null) {
+            webRequest.setAttribute(ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        }
+        return principal;
+    }
+
+    private SessionPrincipal resolve(NativeWebRequest webRequest) {
+        String authorization = webRequest.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            return resolveToken(webRequest);
+        }
+        if (!legacyEmailHeader) {
+            return null;
+        }
+
+        String email = webRequest.getHeader("Email");
+        if (email == null) {
+            email = webRequest.getParameter("email");
+        }
+        return principalCache.byEmail(email);
+    }
+
+    // The principal of a valid bearer token, null without one
+    private SessionPrincipal resolveToken(NativeWebRequest webRequest) {
+        String authorization = webRequest.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return null;
+        }
+        OptionalLong userId = sessionTokenService.verify(authorization.substring(BEARER.length()).trim());
+        return userId.isPresent() ? principalCache.byId(userId.getAsLong()) : null;
+    }
+}
@@ -0,0 +1,13 @@
+package backend.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a `SessionPrincipal` parameter that only a verified bearer token may fill, even while
+// auth.legacy-email-header is switched on. For endpoints that hand out personal data.
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TokenOnly {
+}
@@ -0,0 +1,8 @@
+package backend.dto;
+
+import java.sql.Timestamp;
+
+// Progress of an account deletion job as shown to the user who asked for it. Leaves out the
+// user ID and the last error, which may name internal tables or files.
+public record DeletionStatus(long jobId, String status, String step, long rowsDeleted, int filesDeleted,
+                             Timestamp createdAt, Timestamp completedAt) {}
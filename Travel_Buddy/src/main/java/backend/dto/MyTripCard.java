@@ -0,0 +1,28 @@
+package backend.dto;
+
+import java.sql.Date;
+import java.util.List;
+
+// One of the caller's trips: their membership (role and status) with the trip card fields, the
+// trip's first image as its cover (null when it has none) and the creator
+public record MyTripCard(long userTripId, String role, String status, long tripId, String location,
+                         Date startDate, Date endDate, String description, String coverImage,
+                         Long creatorId, String creatorUsername, String creatorName) {
+
+    // Trips that have not ended yet, soonest first, and trips that have, most recent first
+    public static final String UPCOMING = "upcoming";
+    public static final String COMPLETED = "completed";
+
+    // One page of results; pass `nextCursor` back as `cursor` for the next page (null on the last)
+    public record Page(String scope, List<MyTripCard> trips, String nextCursor) {}
+
+    // Row layout of UserTripsRepository.findUpcomingTripCards / findCompletedTripCards:
+    // user_trip_id, role, status, trip_id, location, start_date, end_date, description,
+    // cover_image, creator_id, creator_username, creator_name
+    public static MyTripCard fromRow(Object[] row) {
+        return new MyTripCard(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                ((Number) row[3]).longValue(), (String) row[4], (Date) row[5], (Date) row[6], (String) row[7],
+                (String) row[8], row[9] != null ? ((Number) row[9]).longValue() : null,
+                (String) row[10], (String) row[11]);
+    }
+}
@@ -0,0 +1,8 @@
+package backend.dto;
+
+import java.sql.Timestamp;
+
+// One line of the notifications NDJSON export: the notification with the ID and username of the
+// user it was sent to, selected in a single query
+public record NotificationLine(long notificationId, String message, String status, Timestamp createdAt,
+                               long userId, String username) {}
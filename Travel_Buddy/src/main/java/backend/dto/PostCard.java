@@ -0,0 +1,23 @@
+package backend.dto;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+// A post as shown in the feed. Keeps the `userTrip.user` / `userTrip.trip` nesting the
+// frontend reads, but only with the fields it displays, selected in a single query.
+public record PostCard(Long postId, String caption, String image, Timestamp createdAt, UserTripSummary userTrip) {
+
+    public record UserTripSummary(Long userTripId, UserSummary user, TripSummary trip) {}
+
+    public record TripSummary(Long tripId, String location, Date startDate, Date endDate) {}
+
+    // Target of the JPQL constructor expressions in PostRepository
+    public PostCard(Long postId, String caption, String image, Timestamp createdAt, Long userTripId,
+                    Long userId, String username, String name, String profilePicture,
+                    Long tripId, String location, Date startDate, Date endDate) {
+        this(postId, caption, image, createdAt,
+             new UserTripSummary(userTripId,
+                                 new UserSummary(userId, username, name, profilePicture),
+                                 new TripSummary(tripId, location, startDate, endDate)));
+    }
+}
@@ -0,0 +1,6 @@
+package backend.dto;
+
+// A review of a post as shown under it: who wrote it, the rating and the comment. Selected with
+// the reviewer's name in a single query for a whole page of posts.
+public record PostReview(Long postId, Integer reviewId, long reviewerId, String reviewerUsername, String reviewerName,
+                         Integer rating, String comment) {}
@@ -0,0 +1,30 @@
+package backend.dto;
+
+import java.util.List;
+
+// Everything a profile page shows, assembled server-side: the public profile, how many posts the
+// user has and one page of the most recent ones with the reviews of those posts, their review
+// statistics and how many trips they are part of.
+public record ProfileView(Profile user, long postCount, List<PostCard> posts, Long nextPostsBefore,
+                          List<PostReview> postReviews, ReviewStats reviews, TripCounts trips) {
+
+    // Public profile fields; never the email, password hash or phone number
+    public record Profile(long userId, String username, String name, String profilePicture, String bio,
+                          String nationality, Integer age, String sex, List<String> languages,
+                          List<String> interests) {
+
+        // Target of the JPQL constructor expression in UserRepository; the collections are
+        // attached per batch with withCollections
+        public Profile(long userId, String username, String name, String profilePicture, String bio,
+                       String nationality, Integer age, String sex) {
+            this(userId, username, name, profilePicture, bio, nationality, age, sex, List.of(), List.of());
+        }
+
+        public Profile withCollections(List<String> languages, List<String> interests) {
+            return new Profile(userId, username, name, profilePicture, bio, nationality, age, sex, languages, interests);
+        }
+    }
+
+    // Trip memberships by status
+    public record TripCounts(long created, long joined, long requested) {}
+}
@@ -0,0 +1,24 @@
+package backend.dto;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+// One line of the reviews NDJSON export: the review with its reviewer, reviewee and trip as
+// summaries and the reviewed post by ID, selected in a single query. The reviewee and trip are
+// null for reviews that are not about them.
+public record ReviewLine(Integer reviewId, UserSummary reviewer, UserSummary reviewee, PostCard.TripSummary trip,
+                         Long postId, Integer rating, String comment, Timestamp createdAt) {
+
+    // Target of the JPQL constructor expression in ReviewRepository
+    public ReviewLine(Integer reviewId, Long reviewerId, String reviewerUsername, String reviewerName,
+                      String reviewerPicture, Long revieweeId, String revieweeUsername, String revieweeName,
+                      String revieweePicture, Long tripId, String location, Date startDate, Date endDate,
+                      Long postId, Integer rating, String comment, Timestamp createdAt) {
+        this(reviewId,
+             new UserSummary(reviewerId, reviewerUsername, reviewerName, reviewerPicture),
+             revieweeId == null ? null
+                     : new UserSummary(revieweeId, revieweeUsername, revieweeName, revieweePicture),
+             tripId == null ? null : new PostCard.TripSummary(tripId, location, startDate, endDate),
+             postId, rating, comment, createdAt);
+    }
+}
@@ -0,0 +1,19 @@
+package backend.dto;
+
+// Ratings received by a user or a trip, read from the review aggregate tables.
+// `histogram[i]` counts the reviews rated i + 1 stars; `average` is null when there are none.
+public record ReviewStats(long count, Double average, long[] histogram) {
+
+    public static final ReviewStats NONE = new ReviewStats(0, null, new long[5]);
+
+    // From the aggregate columns review_count, rating_sum, stars_1 .. stars_5 starting at `offset`
+    public static ReviewStats fromRow(Object[] row, int offset) {
+        long count = ((Number) row[offset]).longValue();
+        long sum = ((Number) row[offset + 1]).longValue();
+        long[] histogram = new long[5];
+        for (int stars = 0; stars < 5; stars++) {
+            histogram[stars] = ((Number) row[offset + 2 + stars]).longValue();
+        }
+        return new ReviewStats(count, count > 0 ? (double) sum / count : null, histogram);
+    }
+}
@@ -0,0 +1,50 @@
+package backend.dto;
+
+import java.sql.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import backend.model.Interest;
+
+// A trip as shown on the explore page. Built from a constructor expression that selects only
+// these columns; images, interests and review stats are attached afterwards in one batched query
+// each. `version` is what an edit of the trip sends back as If-Match.
+public record TripCard(
+        Long tripId,
+        String location,
+        Double latitude,
+        Double longitude,
+        Date startDate,
+        Date endDate,
+        String description,
+        long version,
+        UserSummary createdBy,
+        List<Interest> interests,
+        List<String> images,
+        ReviewStats reviews) {
+
+    // Target of the JPQL constructor expressions in TripRepository and TripCardLoader
+    public TripCard(Long tripId, String location, Double latitude, Double longitude, Date startDate, Date endDate,
+                    String description, long version, Long creatorId, String creatorUsername, String creatorName,
+                    String creatorProfilePicture) {
+        this(tripId, location, latitude, longitude, startDate, endDate, description, version,
+             new UserSummary(creatorId, creatorUsername, creatorName, creatorProfilePicture),
+             List.of(), List.of(), ReviewStats.NONE);
+    }
+
+    public TripCard withDetails(List<Interest> interests, List<String> images) {
+        return withDetails(interests, images, reviews);
+    }
+
+    public TripCard withDetails(List<Interest> interests, List<String> images, ReviewStats reviews) {
+        return new TripCard(tripId, location, latitude, longitude, startDate, endDate, description, version,
+                            createdBy, interests, images, reviews);
+    }
+
+    // A card from a radius search, with its distance from the search center
+    public record Nearby(@JsonUnwrapped TripCard trip, double distanceKm) {}
+
+    // A recommended card with its ranking score
+    public record Scored(@JsonUnwrapped TripCard trip, double score) {}
+}
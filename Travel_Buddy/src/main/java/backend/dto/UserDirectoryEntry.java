@@ -0,0 +1,20 @@
+package backend.dto;
+
+import java.util.List;
+
+// A row of the user directory search: the public profile summary plus the average rating of the
+// reviews the user received (null when they have none)
+public record UserDirectoryEntry(long userId, String username, String name, String profilePicture,
+                                 Double averageRating, long reviewCount) {
+
+    // One page of results; pass `nextCursor` back as `cursor` for the next page (null on the last)
+    public record Page(List<UserDirectoryEntry> users, String nextCursor) {}
+
+    // Row layout of UserRepository.searchDirectory: user_id, username, name, profile_picture,
+    // tier, average_rating, review_count
+    public static UserDirectoryEntry fromRow(Object[] row) {
+        return new UserDirectoryEntry(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                (String) row[3], row[5] != null ? ((Number) row[5]).doubleValue() : null,
+                ((Number) row[6]).longValue());
+    }
+}
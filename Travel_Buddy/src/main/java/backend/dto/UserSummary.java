@@ -0,0 +1,5 @@
+package backend.dto;
+
+// The public face of a user embedded in trip and post cards. Never carries the email,
+// password hash, phone number or profile collections.
+public record UserSummary(long userId, String username, String name, String profilePicture) {}
@@ -7,8 +7,16 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import backend.config.EntityCacheConfig;
+
 @Entity
 @Table(name = "interests")
+@Immutable  // Reference data, seeded by init.sql and never edited by the application
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = EntityCacheConfig.INTERESTS)
 public class Interest {
 
     @Id
@@ -13,6 +13,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "Posts")
@@ -37,6 +38,11 @@ public class Post {
     @Column(name = "updated_at", nullable = false)
     private Timestamp updatedAt;
 
+    // Incremented on every edit of the post; updates carrying a stale version are rejected
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Getters and setters
     public Long getPostId() {
         return postId;
@@ -85,4 +91,8 @@ public class Post {
     public void setUpdatedAt(Timestamp updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
@@ -18,9 +18,18 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import backend.config.EntityCacheConfig;
 
 @Entity
 @Table(name = "trips") 
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.TRIPS)
 public class Trip {
 
     @Id
@@ -40,6 +49,12 @@ public class Trip {
     @Column(name = "description")
     private String description;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @ManyToOne
     @JoinColumn(name = "created_by", referencedColumnName = "user_id", nullable = false)
     private User createdBy;
@@ -59,6 +74,20 @@ public class Trip {
     @Column(name = "updated_at", nullable = false)
     private Timestamp updatedAt;
 
+    // Members the creator can accept; null means no limit
+    @Column(name = "capacity")
+    private Integer capacity;
+
+    // Members joined right now, maintained by the UserTrips seat triggers
+    @Column(name = "seats_taken", insertable = false, updatable = false)
+    private int seatsTaken;
+
+    // Incremented on every edit of the trip; updates carrying a stale version are rejected
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         Timestamp now = new Timestamp(System.currentTimeMillis());
@@ -86,7 +115,20 @@ public class Trip {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public int getSeatsTaken() { return seatsTaken; }
+    public void setSeatsTaken(int seatsTaken) { this.seatsTaken = seatsTaken; }
+
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.TRIP_INTERESTS)
     @JoinTable(
         name = "trip_interests",
         joinColumns = @JoinColumn(name = "trip_id"),
@@ -126,6 +168,8 @@ public class Trip {
     public Timestamp getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
 
+    public long getVersion() { return version; }
+
     // Getters & Setters for Images
     public List<String> getImages() {
         return images;
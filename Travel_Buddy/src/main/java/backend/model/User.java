@@ -1,7 +1,9 @@
 package backend.model;
 
 import java.sql.Timestamp;
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
@@ -14,11 +16,28 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.OptimisticLock;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import backend.config.EntityCacheConfig;
 
 @Entity
 @Table(name = "users")  // Matches the existing table name in the database
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USERS)
+@NaturalIdCache(region = EntityCacheConfig.USERS_BY_EMAIL)
 public class User {
 
+    // Users whose languages (or interests) are loaded together by one batch select
+    public static final int COLLECTION_BATCH_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "user_id")  // Matches the primary key column in the table
@@ -30,9 +49,11 @@ public class User {
     @Column(name = "name", nullable = false)
     private String name;
 
+    @NaturalId  // Users are looked up by email on nearly every request
     @Column(name = "email", unique = true, nullable = false)
     private String email;
 
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)  // Accepted on sign-up/sign-in, never sent back
     @Column(name = "password", nullable = false)
     private String password;
 
@@ -42,13 +63,18 @@ public class User {
     @Column(name = "nationality")
     private String nationality;
 
+    // Sets match the (user_id, value) primary keys, so Hibernate writes only the rows that were
+    // added or removed; lists are deleted and re-inserted whole on every change. Collections of
+    // up to COLLECTION_BATCH_SIZE users are initialized by one select instead of one select per user.
     @ElementCollection
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USER_LANGUAGES)
     @CollectionTable(
         name = "user_languages",
         joinColumns = @JoinColumn(name = "user_id")
     )
     @Column(name = "language") // Specify column name for languages
-    private List<String> languages;
+    private Set<String> languages = new LinkedHashSet<>();
 
     @Column(name = "age")
     private Integer age;
@@ -57,9 +83,11 @@ public class User {
     private String sex;
 
     @ElementCollection
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USER_INTERESTS)
     @CollectionTable(name = "user_interests", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "interest")
-    private List<String> interests;
+    private Set<String> interests = new LinkedHashSet<>();
 
     @Column(name = "bio")
     private String bio;
@@ -70,10 +98,20 @@ public class User {
     @Column(name = "created_at", nullable = false, updatable = false)
     private Timestamp createdAt;
 
+    // Also bumped when the user's posts, reviews or memberships change; that is not an edit of
+    // the profile, so it neither increments the version nor conflicts with one
+    @OptimisticLock(excluded = true)
     @Column(name = "updated_at", nullable = false)
     private Timestamp updatedAt;
 
-    @Column(name = "review_score")
+    // Incremented on every profile edit; updates carrying a stale version are rejected
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Rounded average rating, maintained by the Reviews triggers (see user_review_aggregates)
+    @Column(name = "review_score", insertable = false, updatable = false)
     private Integer reviewScore = 0;
 
     @PrePersist
@@ -146,12 +184,13 @@ public class User {
         this.nationality = nationality;
     }
 
-    public List<String> getLanguages() {
+    public Set<String> getLanguages() {
         return languages;
     }
 
-    public void setLanguages(List<String> languages) {
-        this.languages = languages;
+    // Updates the managed set in place so only the differences are written
+    public void setLanguages(Collection<String> languages) {
+        replaceContents(this.languages, languages);
     }
 
     public Integer getAge() {
@@ -170,6 +209,10 @@ public class User {
         this.reviewScore = score;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getSex() {
         return sex;
     }
@@ -178,12 +221,22 @@ public class User {
         this.sex = sex;
     }
 
-    public List<String> getInterests() {
+    public Set<String> getInterests() {
         return interests;
     }
 
-    public void setInterests(List<String> interests) {
-        this.interests = interests;
+    // Updates the managed set in place so only the differences are written
+    public void setInterests(Collection<String> interests) {
+        replaceContents(this.interests, interests);
+    }
+
+    private static void replaceContents(Set<String> current, Collection<String> values) {
+        if (values == null) {
+            current.clear();
+            return;
+        }
+        current.retainAll(values);
+        current.addAll(values);
     }
 
     public String getBio() {
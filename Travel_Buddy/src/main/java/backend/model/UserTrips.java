@@ -11,6 +11,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "usertrips", uniqueConstraints = {
@@ -40,6 +41,12 @@ public class UserTrips {
     @Column(name = "created_at", nullable = false)
     private Timestamp createdAt;
 
+    // Incremented on every status change, including the ones made in SQL (see
+    // bump_user_trip_version in init.sql)
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public UserTrips() {
         this.createdAt = new Timestamp(System.currentTimeMillis());
     }
@@ -99,6 +106,10 @@ public class UserTrips {
         this.createdAt = createdAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public User getUser() {
         return user;
     }
@@ -0,0 +1,13 @@
+package backend.repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import backend.model.DeletionJob;
+
+public interface DeletionJobRepository extends JpaRepository<DeletionJob, Long> {
+    // The user's unfinished job, if one is already queued or running
+    Optional<DeletionJob> findFirstByUserIdAndStatusIn(long userId, Collection<String> statuses);
+}
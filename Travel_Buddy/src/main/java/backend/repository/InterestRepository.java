@@ -1,8 +1,18 @@
 package backend.repository;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import backend.model.Interest;
+import jakarta.persistence.QueryHint;
 
 public interface InterestRepository extends JpaRepository<Interest, Integer> {
+
+    // The interest list is static, so its query result is served from the query cache
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Interest> findAll();
 }
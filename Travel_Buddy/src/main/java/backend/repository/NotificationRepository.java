@@ -2,12 +2,28 @@ package backend.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import backend.dto.NotificationLine;
 import backend.model.Notification;
+import jakarta.persistence.QueryHint;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUserUserId(long userId);
     Optional<Notification> findByNotificationId(long notificationId);
+
+    // Every notification through a server-side cursor, for the NDJSON export. Only the
+    // recipient's ID and username are selected, so no user entity is loaded.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new backend.dto.NotificationLine(n.notificationId, n.message, n.status, n.createdAt, u.userId, u.username) "
+            + "FROM Notification n JOIN n.user u ORDER BY n.notificationId")
+    Stream<NotificationLine> streamAllLines();
 }
@@ -2,17 +2,51 @@ package backend.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import backend.dto.PostCard;
 import backend.model.Post;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
+    // Selects just the post card columns, joining the author and trip in the same statement
+    String POST_CARD_SELECT = "SELECT new backend.dto.PostCard(p.postId, p.caption, p.image, p.createdAt, "
+            + "ut.userTripId, u.userId, u.username, u.name, u.profilePicture, "
+            + "t.tripId, t.location, t.startDate, t.endDate) "
+            + "FROM Post p JOIN p.userTrip ut JOIN ut.user u JOIN ut.trip t ";
+
+    @Query(POST_CARD_SELECT + "ORDER BY p.postId")
+    List<PostCard> findAllPostCards();
+
+    // Every post card through a server-side cursor, for the NDJSON export
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(POST_CARD_SELECT + "ORDER BY p.postId")
+    Stream<PostCard> streamAllPostCards();
+
+    @Query(POST_CARD_SELECT + "WHERE u.userId = :userId ORDER BY p.postId")
+    List<PostCard> findPostCardsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT COUNT(p) FROM Post p WHERE p.userTrip.user.userId = :userId")
+    long countByAuthor(@Param("userId") Long userId);
+
+    // Keyset page of a user's post cards, newest first, with IDs below `before`
+    @Query(POST_CARD_SELECT + "WHERE u.userId = :userId AND p.postId < :before ORDER BY p.postId DESC")
+    List<PostCard> findRecentPostCardsByUserId(@Param("userId") Long userId, @Param("before") Long before, Pageable pageable);
+
     @Query("SELECT p FROM Post p WHERE p.userTrip.user.userId = :userId")
     List<Post> findPostsByUserId(Long userId);
 
@@ -1,16 +1,50 @@
 package backend.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import backend.dto.PostReview;
+import backend.dto.ReviewLine;
 import backend.model.Review;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
-}
+    // Every review through a server-side cursor, for the NDJSON export. The reviewer, reviewee
+    // and trip columns are selected in the same row, so no entity or association is loaded.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new backend.dto.ReviewLine(r.reviewId, u.userId, u.username, u.name, u.profilePicture, "
+            + "e.userId, e.username, e.name, e.profilePicture, t.tripId, t.location, t.startDate, t.endDate, "
+            + "p.postId, r.rating, r.comment, r.createdAt) "
+            + "FROM Review r JOIN r.reviewer u LEFT JOIN r.reviewee e LEFT JOIN r.trip t LEFT JOIN r.post p "
+            + "ORDER BY r.reviewId")
+    Stream<ReviewLine> streamAllLines();
+
+    // Reviews of the given posts with their reviewers' names, oldest first
+    @Query("SELECT new backend.dto.PostReview(p.postId, r.reviewId, u.userId, u.username, u.name, r.rating, r.comment) "
+            + "FROM Review r JOIN r.post p JOIN r.reviewer u WHERE p.postId IN :postIds ORDER BY r.reviewId")
+    List<PostReview> findPostReviews(@Param("postIds") Collection<Long> postIds);
 
+    // Rating aggregate of a user, maintained by the Reviews triggers: at most one row of
+    // review_count, rating_sum, stars_1 .. stars_5
+    @Query(value = "SELECT review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5 "
+            + "FROM user_review_aggregates WHERE user_id = :userId", nativeQuery = true)
+    List<Object[]> findUserAggregate(@Param("userId") Long userId);
+
+    // Rating aggregates of a batch of trips: trip_id, review_count, rating_sum, stars_1 .. stars_5
+    @Query(value = "SELECT CAST(trip_id AS BIGINT), review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5 "
+            + "FROM trip_review_aggregates WHERE trip_id IN :tripIds", nativeQuery = true)
+    List<Object[]> findTripAggregates(@Param("tripIds") Collection<Long> tripIds);
+}
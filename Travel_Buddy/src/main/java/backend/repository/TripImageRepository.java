@@ -1,8 +1,11 @@
 package backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import backend.model.TripImage;
@@ -10,4 +13,8 @@ import backend.model.TripImage;
 @Repository
 public interface TripImageRepository extends JpaRepository<TripImage, Long> {
     List<TripImage> findByTrip_TripId(Long tripId);
+
+    // (tripId, imageUrl) pairs for a batch of trips without loading the TripImage entities
+    @Query("SELECT ti.trip.tripId, ti.imageUrl FROM TripImage ti WHERE ti.trip.tripId IN :tripIds ORDER BY ti.imageId")
+    List<Object[]> findImageUrlsByTripIds(@Param("tripIds") Collection<Long> tripIds);
 }
@@ -1,20 +1,35 @@
 package backend.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import backend.dto.TripCard;
 import backend.model.Trip;
 import java.util.Optional;
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface TripRepository extends JpaRepository<Trip, Long> {
+public interface TripRepository extends JpaRepository<Trip, Long>, JpaSpecificationExecutor<Trip> {
 
+    // Selects just the trip card columns and the creator summary, instead of whole entities
+    String TRIP_CARD_SELECT = "SELECT new backend.dto.TripCard(t.tripId, t.location, t.latitude, t.longitude, "
+            + "t.startDate, t.endDate, t.description, t.version, u.userId, u.username, u.name, u.profilePicture) "
+            + "FROM Trip t JOIN t.createdBy u ";
+
+    // Declaring the touched table keeps Hibernate from clearing the whole second-level cache
     @Modifying
     @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "trip_interests"))
     @Query(value = "INSERT INTO trip_interests (trip_id, interest_id) VALUES (:tripId, :interestId)", nativeQuery = true)
     void addTripInterest(@Param("tripId") Long tripId, @Param("interestId") Integer interestId);
 
@@ -23,5 +38,76 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
 
     @Query("SELECT t FROM Trip t WHERE t.tripId = :tripId")
     Optional<Trip> findTripById(@Param("tripId") Long tripId);  
+
+    // Keyset page of trip cards ordered by ID
+    @Query(TRIP_CARD_SELECT + "WHERE t.tripId > :after ORDER BY t.tripId")
+    List<TripCard> findTripCardsAfter(@Param("after") Long after, Pageable pageable);
+
+    // (tripId, Interest) pairs for a batch of trips, read from trip_interests in one query
+    @Query("SELECT t.tripId, i FROM Trip t JOIN t.interests i WHERE t.tripId IN :tripIds")
+    List<Object[]> findInterestsByTripIds(@Param("tripIds") Collection<Long> tripIds);
+
+    // Trip cards for the given IDs, in no particular order
+    @Query(TRIP_CARD_SELECT + "WHERE t.tripId IN :tripIds")
+    List<TripCard> findTripCardsByIds(@Param("tripIds") Collection<Long> tripIds);
+
+    // Trip cards of every trip a user created
+    @Query(TRIP_CARD_SELECT + "WHERE u.userId = :userId ORDER BY t.tripId")
+    List<TripCard> findTripCardsByCreator(@Param("userId") Long userId);
+
+    // Trip IDs ranked by full-text relevance of location/description, falling back to
+    // trigram similarity on the location so misspellings still match
+    @Query(value = "SELECT CAST(t.trip_id AS BIGINT) FROM trips t, websearch_to_tsquery('english', :q) query "
+            + "WHERE t.search_vector @@ query OR LOWER(t.location) % LOWER(:q) OR LOWER(t.description) % LOWER(:q) "
+            + "ORDER BY ts_rank(t.search_vector, query) DESC, similarity(LOWER(t.location), LOWER(:q)) DESC, t.trip_id "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Long> searchTripIdsByText(@Param("q") String q, @Param("limit") int limit);
+
+    // Distinct locations for typeahead: prefix matches first, then closest trigram matches,
+    // then the most travelled locations
+    @Query(value = "SELECT location FROM trips "
+            + "WHERE LOWER(location) LIKE :prefix ESCAPE '\\' OR LOWER(location) % :q "
+            + "GROUP BY location "
+            + "ORDER BY MAX(CASE WHEN LOWER(location) LIKE :prefix ESCAPE '\\' THEN 1 ELSE 0 END) DESC, "
+            + "MAX(similarity(LOWER(location), :q)) DESC, COUNT(*) DESC, location "
+            + "LIMIT :limit", nativeQuery = true)
+    List<String> suggestLocations(@Param("q") String q, @Param("prefix") String prefix, @Param("limit") int limit);
+
+    // Most travelled locations, used by the typeahead before the user has typed anything
+    @Query(value = "SELECT location FROM trips GROUP BY location ORDER BY COUNT(*) DESC, location LIMIT :limit", nativeQuery = true)
+    List<String> findTopLocations(@Param("limit") int limit);
+
+    // Keyset page of trip IDs whose [start_date, end_date] overlaps [from, to] (GiST on
+    // date_range). A null bound leaves that side of the window open.
+    @Query(value = "SELECT CAST(t.trip_id AS BIGINT) FROM trips t "
+            + "WHERE t.date_range && daterange(CAST(:from AS DATE), CAST(:to AS DATE), '[]') AND t.trip_id > :after "
+            + "ORDER BY t.trip_id LIMIT :limit", nativeQuery = true)
+    List<Long> findTripIdsOverlapping(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("after") long after, @Param("limit") int limit);
+
+    // Keyset page of trip IDs that start and end inside [from, to] (GiST on date_range)
+    @Query(value = "SELECT CAST(t.trip_id AS BIGINT) FROM trips t "
+            + "WHERE t.date_range <@ daterange(CAST(:from AS DATE), CAST(:to AS DATE), '[]') AND t.trip_id > :after "
+            + "ORDER BY t.trip_id LIMIT :limit", nativeQuery = true)
+    List<Long> findTripIdsWithin(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                 @Param("after") long after, @Param("limit") int limit);
+
+    // (tripId, latitude, longitude) of every geocoded trip, used to build the geo index
+    @Query("SELECT t.tripId, t.latitude, t.longitude FROM Trip t WHERE t.latitude IS NOT NULL AND t.longitude IS NOT NULL")
+    List<Object[]> findAllTripCoordinates();
+
+    // (tripId, creatorId, startDate, endDate) of every trip, used to build recommendations
+    @Query("SELECT t.tripId, t.createdBy.userId, t.startDate, t.endDate FROM Trip t")
+    List<Object[]> findAllTripSchedules();
+
+    @Query("SELECT t.tripId, t.createdBy.userId, t.startDate, t.endDate FROM Trip t WHERE t.tripId = :tripId")
+    List<Object[]> findTripSchedule(@Param("tripId") Long tripId);
+
+    @Query("SELECT t.tripId FROM Trip t")
+    List<Long> findAllTripIds();
+
+    // Every (trip_id, interest_id) row, used to build the in-memory interest index
+    @Query(value = "SELECT trip_id, interest_id FROM trip_interests", nativeQuery = true)
+    List<Object[]> findAllTripInterestPairs();
 }
 
@@ -0,0 +1,73 @@
+package backend.repository;
+
+import java.sql.Date;
+import java.util.Collection;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import backend.model.Interest;
+import backend.model.Trip;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+// Composable filters for trip search queries. Each factory returns null when its filter is
+// not set, which Specification.where/and treat as "no restriction".
+public final class TripSpecifications {
+
+    private TripSpecifications() {}
+
+    // Keyset cursor: only trips whose ID is greater than the last one the client has seen
+    public static Specification<Trip> idAfter(Long after) {
+        if (after == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThan(root.get("tripId"), after);
+    }
+
+    // Trips tagged with at least one of the given interests (EXISTS over trip_interests)
+    public static Specification<Trip> hasAnyInterest(Collection<Integer> interestIds) {
+        if (interestIds == null || interestIds.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<Long> tagged = query.subquery(Long.class);
+            Root<Trip> taggedTrip = tagged.from(Trip.class);
+            Join<Trip, Interest> interest = taggedTrip.join("interests");
+            tagged.select(taggedTrip.get("tripId"))
+                  .where(cb.equal(taggedTrip.get("tripId"), root.get("tripId")),
+                         interest.get("interestId").in(interestIds));
+            return cb.exists(tagged);
+        };
+    }
+
+    // Case-insensitive location match, either the whole value or any substring of it
+    public static Specification<Trip> locationMatches(String location, boolean fuzzy) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        String needle = location.trim().toLowerCase();
+        if (fuzzy) {
+            String pattern = "%" + needle.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            return (root, query, cb) -> cb.like(cb.lower(root.get("location")), pattern, '\\');
+        }
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("location")), needle);
+    }
+
+    // Trips whose [start_date, end_date] overlaps the [from, to] window. Either bound may be open.
+    public static Specification<Trip> overlaps(Date from, Date to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.get("startDate"), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("endDate"), from);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(root.get("endDate"), from),
+                          cb.lessThanOrEqualTo(root.get("startDate"), to));
+        };
+    }
+}
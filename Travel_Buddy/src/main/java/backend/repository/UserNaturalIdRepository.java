@@ -0,0 +1,11 @@
+package backend.repository;
+
+import java.util.Optional;
+
+import backend.model.User;
+
+// Lookups by the user's natural ID (email), resolved through Hibernate's natural-ID cache
+// instead of a derived query so repeat lookups skip the database
+public interface UserNaturalIdRepository {
+  Optional<User> findByEmail(String email);
+}
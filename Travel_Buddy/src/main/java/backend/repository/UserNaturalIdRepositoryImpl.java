@@ -0,0 +1,25 @@
+package backend.repository;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+
+import backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Optional<User> findByEmail(String email) {
+    if (email == null) {
+      return Optional.empty();
+    }
+    return entityManager.unwrap(Session.class)
+                        .bySimpleNaturalId(User.class)
+                        .loadOptional(email);
+  }
+}
@@ -1,13 +1,92 @@
 package backend.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import backend.dto.ProfileView;
 import backend.model.User;
+import jakarta.persistence.QueryHint;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
   Optional<User> findByUsername(String username);
+
+  // Implemented by UserNaturalIdRepositoryImpl through the natural-ID cache
+  @Override
   Optional<User> findByEmail(String email);
   Optional<User> findById(long id);
+
+  // Replace a password only if it still holds the value that was verified, so a concurrent
+  // change is never overwritten by a rehash-on-login
+  @Modifying
+  @Transactional
+  @Query("UPDATE User u SET u.password = :password WHERE u.userId = :userId AND u.password = :previous")
+  int replacePassword(@Param("userId") long userId, @Param("previous") String previous, @Param("password") String password);
+
+  // Bump a user's updated_at without loading the row or changing its version. Run as a query
+  // (RETURNING) rather than a bulk update, so Hibernate does not invalidate the whole users cache
+  // region; the caller evicts the one cached row. Empty when the user does not exist.
+  @Transactional
+  @Query(value = "UPDATE users SET updated_at = CURRENT_TIMESTAMP WHERE user_id = :userId "
+      + "RETURNING CAST(user_id AS BIGINT)", nativeQuery = true)
+  List<Long> touch(@Param("userId") long userId);
+
+  // Every public profile through a server-side cursor, for the NDJSON export. Only the profile
+  // columns are selected; languages and interests are attached per batch by ProfileLoader.
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT new backend.dto.ProfileView$Profile(u.userId, u.username, u.name, u.profilePicture, u.bio, "
+      + "u.nationality, u.age, u.sex) FROM User u ORDER BY u.userId")
+  Stream<ProfileView.Profile> streamAllProfiles();
+
+  // (userId, language) and (userId, interest) of a batch of users
+  @Query("SELECT u.userId, l FROM User u JOIN u.languages l WHERE u.userId IN :userIds")
+  List<Object[]> findLanguagesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+  @Query("SELECT u.userId, i FROM User u JOIN u.interests i WHERE u.userId IN :userIds")
+  List<Object[]> findInterestsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+  // Keyset page of the user directory search. Matches are tiered: 0 when the username or name
+  // starts with the query, 1 when it contains it, 2 when it is only trigram-similar; within a
+  // tier users are ordered by ID. Ratings are read from the maintained aggregate row.
+  // Columns: user_id, username, name, profile_picture, tier, average_rating, review_count
+  @Query(value = "WITH page AS ("
+      + "SELECT * FROM (SELECT u.user_id, u.username, u.name, u.profile_picture, "
+      + "CASE WHEN LOWER(u.username) LIKE :prefix ESCAPE '\\' OR LOWER(u.name) LIKE :prefix ESCAPE '\\' THEN 0 "
+      + "WHEN LOWER(u.username) LIKE :contains ESCAPE '\\' OR LOWER(u.name) LIKE :contains ESCAPE '\\' THEN 1 "
+      + "ELSE 2 END AS tier "
+      + "FROM users u "
+      + "WHERE LOWER(u.username) LIKE :contains ESCAPE '\\' OR LOWER(u.name) LIKE :contains ESCAPE '\\' "
+      + "OR LOWER(u.username) % :q OR LOWER(u.name) % :q) matches "
+      + "WHERE (matches.tier, matches.user_id) > (:afterTier, :afterId) "
+      + "ORDER BY matches.tier, matches.user_id LIMIT :limit) "
+      + "SELECT page.user_id, page.username, page.name, page.profile_picture, page.tier, "
+      + "CAST(a.rating_sum AS DOUBLE PRECISION) / NULLIF(a.review_count, 0), COALESCE(a.review_count, 0) "
+      + "FROM page LEFT JOIN user_review_aggregates a ON a.user_id = page.user_id "
+      + "ORDER BY page.tier, page.user_id", nativeQuery = true)
+  List<Object[]> searchDirectory(@Param("q") String q, @Param("prefix") String prefix, @Param("contains") String contains,
+                                 @Param("afterTier") int afterTier, @Param("afterId") long afterId, @Param("limit") int limit);
+
+  // Flattened profile attributes of every user, used to build recommendations and the
+  // companion index: (userId, nationality, age), then (userId, language) and (userId, interest)
+  @Query("SELECT u.userId, u.nationality, u.age FROM User u")
+  List<Object[]> findAllProfileAttributes();
+
+  @Query("SELECT u.userId, l FROM User u JOIN u.languages l")
+  List<Object[]> findAllUserLanguages();
+
+  @Query("SELECT u.userId, i FROM User u JOIN u.interests i")
+  List<Object[]> findAllUserInterests();
 }
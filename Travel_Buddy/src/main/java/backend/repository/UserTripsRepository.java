@@ -1,11 +1,15 @@
 package backend.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import backend.model.UserTrips;
 
@@ -18,7 +22,124 @@ public interface UserTripsRepository extends JpaRepository<UserTrips, Long> {
     @Query("SELECT ut FROM UserTrips ut WHERE ut.user.userId = :userId")
     List<UserTrips> findByUserId(Long userId);
 
+    // A user's memberships with their trips loaded in the same statement
+    @Query("SELECT ut FROM UserTrips ut JOIN FETCH ut.trip WHERE ut.user.userId = :userId ORDER BY ut.userTripId")
+    List<UserTrips> findWithTripByUserId(@Param("userId") Long userId);
+
+    // Status and version of a membership after a conditional status update
+    interface StatusChange {
+        String getStatus();
+        long getVersion();
+    }
+
+    // Set a membership's status and return the status and version actually stored; the status
+    // is 'waitlisted' instead of 'joined' when the seat trigger finds the trip full. A
+    // compare-and-set: applied only while the row is still at `version`, so an edit based on a
+    // stale read cannot overwrite a newer one. Empty when the row is gone or has moved on to
+    // another version. The trip row is locked before the membership row, the same order as the
+    // bulk review takes them in, so concurrent accepts queue on the trip instead of deadlocking.
+    @Transactional
+    @Query(value = "WITH trip AS (SELECT t.trip_id FROM trips t JOIN usertrips ut ON ut.trip_id = t.trip_id "
+            + "WHERE ut.user_trip_id = :userTripId FOR UPDATE OF t) "
+            + "UPDATE usertrips ut SET status = :status FROM trip "
+            + "WHERE ut.user_trip_id = :userTripId AND ut.trip_id = trip.trip_id AND ut.version = :version "
+            + "RETURNING ut.status AS \"status\", ut.version AS \"version\"",
+           nativeQuery = true)
+    Optional<StatusChange> updateStatus(@Param("userTripId") long userTripId, @Param("status") String status,
+                                        @Param("version") long version);
+
+    // Accept or decline pending requests of a trip with one set-based UPDATE. The statement-level
+    // status trigger notifies the whole batch in a single insert, and the members' profiles are
+    // touched in the same statement. Accepts beyond the trip's free seats are waitlisted by the
+    // seat trigger; the trip row is locked first, as in updateStatus. Returns the IDs of the users
+    // whose request changed; listed rows that were already reviewed or belong to another trip
+    // are skipped.
+    @Transactional
+    @Query(value = "WITH trip AS (SELECT trip_id FROM trips WHERE trip_id = :tripId FOR UPDATE), "
+            + "reviewed AS (UPDATE usertrips ut SET status = :status FROM trip WHERE ut.trip_id = trip.trip_id "
+            + "AND ut.status = 'requested' AND ut.user_trip_id IN (:userTripIds) RETURNING ut.user_id), "
+            + "touched AS (UPDATE users SET updated_at = CURRENT_TIMESTAMP "
+            + "WHERE user_id IN (SELECT user_id FROM reviewed) RETURNING user_id) "
+            + "SELECT CAST(user_id AS BIGINT) FROM touched", nativeQuery = true)
+    List<Long> reviewRequests(@Param("tripId") long tripId, @Param("userTripIds") Collection<Long> userTripIds,
+                              @Param("status") String status);
+
+    // Every pending request of the trip
+    @Transactional
+    @Query(value = "WITH trip AS (SELECT trip_id FROM trips WHERE trip_id = :tripId FOR UPDATE), "
+            + "reviewed AS (UPDATE usertrips ut SET status = :status FROM trip WHERE ut.trip_id = trip.trip_id "
+            + "AND ut.status = 'requested' RETURNING ut.user_id), "
+            + "touched AS (UPDATE users SET updated_at = CURRENT_TIMESTAMP "
+            + "WHERE user_id IN (SELECT user_id FROM reviewed) RETURNING user_id) "
+            + "SELECT CAST(user_id AS BIGINT) FROM touched", nativeQuery = true)
+    List<Long> reviewAllRequests(@Param("tripId") long tripId, @Param("status") String status);
+
+    // Membership, trip card, cover image and creator columns of the "my trips" pages
+    String MY_TRIP_CARD_SELECT = "SELECT ut.user_trip_id, ut.role, ut.status, t.trip_id, t.location, "
+            + "t.start_date, t.end_date, t.description, cover.image AS cover_image, "
+            + "c.user_id AS creator_id, c.username AS creator_username, c.name AS creator_name "
+            + "FROM usertrips ut JOIN trips t ON t.trip_id = ut.trip_id "
+            + "LEFT JOIN users c ON c.user_id = t.created_by "
+            + "LEFT JOIN LATERAL (SELECT ti.image FROM tripimages ti WHERE ti.trip_id = t.trip_id "
+            + "ORDER BY ti.image_id LIMIT 1) cover ON TRUE "
+            + "WHERE ut.user_id = :userId ";
+
+    // Keyset page of a user's trips that have not ended, by start date then trip ID, after
+    // (afterDate, afterId). Columns as in MyTripCard.fromRow.
+    @Query(value = MY_TRIP_CARD_SELECT + "AND t.end_date >= CURRENT_DATE "
+            + "AND (t.start_date, t.trip_id) > (:afterDate, :afterId) "
+            + "ORDER BY t.start_date, t.trip_id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findUpcomingTripCards(@Param("userId") long userId, @Param("afterDate") LocalDate afterDate,
+                                         @Param("afterId") long afterId, @Param("limit") int limit);
+
+    // Keyset page of a user's ended trips, most recent end date first, before
+    // (beforeDate, beforeId). Columns as in MyTripCard.fromRow.
+    @Query(value = MY_TRIP_CARD_SELECT + "AND t.end_date < CURRENT_DATE "
+            + "AND (t.end_date, t.trip_id) < (:beforeDate, :beforeId) "
+            + "ORDER BY t.end_date DESC, t.trip_id DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> findCompletedTripCards(@Param("userId") long userId, @Param("beforeDate") LocalDate beforeDate,
+                                          @Param("beforeId") long beforeId, @Param("limit") int limit);
+
     @Query("SELECT ut FROM UserTrips ut WHERE ut.trip.tripId = :tripId")
     List<UserTrips> findByTripId(Long tripId);
 
+    // (userId, tripId, status) of every user-trip association
+    @Query("SELECT ut.user.userId, ut.trip.tripId, ut.status FROM UserTrips ut")
+    List<Object[]> findAllMemberships();
+
+    // (status, count) of a user's trip memberships
+    @Query("SELECT ut.status, COUNT(ut) FROM UserTrips ut WHERE ut.user.userId = :userId GROUP BY ut.status")
+    List<Object[]> countStatusesByUserId(Long userId);
+
+    // Outcome of a join upsert: whether both the user and the trip exist, the membership row,
+    // and whether its status actually changed (false for a retried or duplicate request)
+    interface JoinResult {
+        boolean getFound();
+        Long getUserTripId();
+        boolean getChanged();
+    }
+
+    // Request to join a trip in one statement. Resolving the user and trip inside the statement
+    // replaces the existence lookups, and ON CONFLICT makes concurrent or repeated requests
+    // converge on the one (user_id, trip_id) row instead of failing on unique_user_trip. Only a
+    // declined membership is turned back into a request; members, creators, the waitlist and
+    // pending requests keep their status, which matches none of the status triggers, so a retry
+    // sends no second notification. Always 'requested': seats are taken when the creator
+    // accepts, never by the upsert itself. `xmax = 0` marks a row the statement inserted.
+    @Transactional
+    @Query(value = "WITH target AS (SELECT u.user_id, t.trip_id FROM users u JOIN trips t ON t.trip_id = :tripId "
+            + "WHERE u.user_id = :userId), "
+            + "previous AS (SELECT status FROM usertrips WHERE user_id = :userId AND trip_id = :tripId), "
+            + "upserted AS (INSERT INTO usertrips (user_id, trip_id, status, created_at) "
+            + "SELECT user_id, trip_id, 'requested', CURRENT_TIMESTAMP FROM target "
+            + "ON CONFLICT (user_id, trip_id) DO UPDATE SET status = CASE WHEN usertrips.status = 'declined' "
+            + "THEN EXCLUDED.status ELSE usertrips.status END "
+            + "RETURNING user_trip_id, xmax = 0 AS inserted) "
+            + "SELECT EXISTS (SELECT 1 FROM target) AS \"found\", "
+            + "(SELECT user_trip_id FROM upserted) AS \"userTripId\", "
+            + "EXISTS (SELECT 1 FROM upserted WHERE inserted) "
+            + "OR EXISTS (SELECT 1 FROM previous WHERE status = 'declined') AS \"changed\"",
+           nativeQuery = true)
+    JoinResult upsertRequest(@Param("userId") long userId, @Param("tripId") long tripId);
+
 }
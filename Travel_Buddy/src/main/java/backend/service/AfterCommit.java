@@ -0,0 +1,25 @@
+package backend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Defers in-memory side effects (index updates, cache invalidation) until the surrounding
+// transaction has committed, so a rolled back write never leaks into them.
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    // Run the action after the current transaction commits, or right away if there is none
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,252 @@
+package backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import backend.model.User;
+import backend.repository.UserRepository;
+
+// Travel companion matching with MinHash signatures and locality-sensitive hashing. Each user
+// is reduced to a set of profile tokens (languages, interests, nationality, age bracket) whose
+// MinHash signature is split into bands; users sharing any band bucket become candidates, and
+// only those candidates are ranked by exact Jaccard similarity instead of scanning every user.
+@Component
+public class CompanionIndex {
+
+    // 20 bands of 3 rows: a pair with Jaccard similarity 0.5 is a candidate ~93% of the time,
+    // one at 0.2 only ~15%
+    static final int BANDS = 20;
+    static final int ROWS = 3;
+    static final int AGE_BRACKET_YEARS = 5;
+
+    private static final long[] SEEDS = new SplittableRandom(0x5EEDL).longs(BANDS * ROWS).toArray();
+
+    // A companion suggestion with the Jaccard similarity of the two profiles
+    public record Match(long userId, double similarity) {}
+
+    private final Map<Long, Set<String>> tokensByUser = new HashMap<>();
+    private final Map<Long, long[]> signaturesByUser = new HashMap<>();
+    private final List<Map<Long, Set<Long>>> buckets = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public CompanionIndex() {
+        for (int band = 0; band < BANDS; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    // Load the profile attributes of every user once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Set<String>> loaded = new HashMap<>();
+        for (Object[] row : userRepository.findAllProfileAttributes()) {
+            Set<String> tokens = loaded.computeIfAbsent((Long) row[0], id -> new HashSet<>());
+            addAttributeTokens(tokens, (String) row[1], (Integer) row[2]);
+        }
+        for (Object[] row : userRepository.findAllUserLanguages()) {
+            addToken(loaded.computeIfAbsent((Long) row[0], id -> new HashSet<>()), "lang:", (String) row[1]);
+        }
+        for (Object[] row : userRepository.findAllUserInterests()) {
+            addToken(loaded.computeIfAbsent((Long) row[0], id -> new HashSet<>()), "interest:", (String) row[1]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            tokensByUser.clear();
+            signaturesByUser.clear();
+            buckets.forEach(Map::clear);
+            loaded.forEach(this::putUnlocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Record a new or edited profile, replacing its previous signature
+    public void put(User user) {
+        put(user.getUserId(), tokensOf(user));
+    }
+
+    public void put(long userId, Set<String> tokens) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(userId);
+            putUnlocked(userId, tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The most similar other users, best first (ties broken by user ID)
+    public List<Match> companions(long userId, int limit) {
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long[] signature = signaturesByUser.get(userId);
+            if (signature == null) {
+                return matches;
+            }
+            Set<String> tokens = tokensByUser.get(userId);
+            Set<Long> candidates = new HashSet<>();
+            for (int band = 0; band < BANDS; band++) {
+                Set<Long> bucket = buckets.get(band).get(bandKey(signature, band));
+                if (bucket != null) {
+                    candidates.addAll(bucket);
+                }
+            }
+            candidates.remove(userId);
+            for (Long candidate : candidates) {
+                matches.add(new Match(candidate, jaccard(tokens, tokensByUser.get(candidate))));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed().thenComparingLong(Match::userId));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return signaturesByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Profile tokens of a user, prefixed by attribute so equal values of different attributes
+    // never collide
+    static Set<String> tokensOf(User user) {
+        Set<String> tokens = new HashSet<>();
+        addAttributeTokens(tokens, user.getNationality(), user.getAge());
+        if (user.getLanguages() != null) {
+            user.getLanguages().forEach(language -> addToken(tokens, "lang:", language));
+        }
+        if (user.getInterests() != null) {
+            user.getInterests().forEach(interest -> addToken(tokens, "interest:", interest));
+        }
+        return tokens;
+    }
+
+    // MinHash signature: for each seeded hash function, the minimum hash over all tokens
+    static long[] signature(Set<String> tokens) {
+        long[] signature = new long[BANDS * ROWS];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String token : tokens) {
+            long hash = fnv1a(token);
+            for (int i = 0; i < signature.length; i++) {
+                signature[i] = Math.min(signature[i], mix(hash ^ SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String token : a) {
+            if (b.contains(token)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    private static void addAttributeTokens(Set<String> tokens, String nationality, Integer age) {
+        addToken(tokens, "nat:", nationality);
+        if (age != null && age > 0) {
+            tokens.add("age:" + (age / AGE_BRACKET_YEARS) * AGE_BRACKET_YEARS);
+        }
+    }
+
+    private static void addToken(Set<String> tokens, String prefix, String value) {
+        if (value != null && !value.isBlank()) {
+            tokens.add(prefix + value.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = mix(key * 31 + signature[row]);
+        }
+        return key;
+    }
+
+    private static long fnv1a(String token) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : token.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer, spreads every input bit over the whole output
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Caller must hold the write lock. Users without any profile tokens are not indexed.
+    private void putUnlocked(long userId, Set<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        long[] signature = signature(tokens);
+        tokensByUser.put(userId, tokens);
+        signaturesByUser.put(userId, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.get(band).computeIfAbsent(bandKey(signature, band), key -> new HashSet<>()).add(userId);
+        }
+    }
+
+    // Caller must hold the write lock
+    private void removeUnlocked(long userId) {
+        long[] signature = signaturesByUser.remove(userId);
+        tokensByUser.remove(userId);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(signature, band);
+            Set<Long> bucket = buckets.get(band).get(key);
+            if (bucket != null) {
+                bucket.remove(userId);
+                if (bucket.isEmpty()) {
+                    buckets.get(band).remove(key);
+                }
+            }
+        }
+    }
+}
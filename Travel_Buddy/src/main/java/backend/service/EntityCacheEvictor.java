@@ -0,0 +1,57 @@
+package backend.service;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import backend.model.Trip;
+import backend.model.User;
+import jakarta.persistence.EntityManagerFactory;
+
+// Explicit second-level cache eviction for writes Hibernate cannot see, such as rows removed by
+// ON DELETE CASCADE in the database. Writes made through entities keep the cache current on
+// their own.
+@Component
+public class EntityCacheEvictor {
+
+    private static final String TRIP_INTERESTS_ROLE = Trip.class.getName() + ".interests";
+    private static final String USER_LANGUAGES_ROLE = User.class.getName() + ".languages";
+    private static final String USER_INTERESTS_ROLE = User.class.getName() + ".interests";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Drop a trip and its interest tags, after the current transaction commits
+    public void evictTrip(long tripId) {
+        AfterCommit.run(() -> {
+            Cache cache = cache();
+            cache.evictEntityData(Trip.class, tripId);
+            cache.evictCollectionData(TRIP_INTERESTS_ROLE, tripId);
+        });
+    }
+
+    // Drop a user together with everything the database cascades from it: the user's profile
+    // collections and every cached trip, since the user's trips are gone as well
+    public void evictUser(long userId) {
+        AfterCommit.run(() -> {
+            Cache cache = cache();
+            cache.evictEntityData(User.class, userId);
+            cache.evictNaturalIdData(User.class);
+            cache.evictCollectionData(USER_LANGUAGES_ROLE, userId);
+            cache.evictCollectionData(USER_INTERESTS_ROLE, userId);
+            cache.evictEntityData(Trip.class);
+            cache.evictCollectionData(TRIP_INTERESTS_ROLE);
+            cache.evictQueryRegions();
+        });
+    }
+
+    // Drop a user row the database updated by itself, such as review_score set by a trigger
+    public void evictUserRow(long userId) {
+        AfterCommit.run(() -> cache().evictEntityData(User.class, userId));
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,278 @@
+package backend.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import backend.model.DeletionJob;
+import backend.model.User;
+import backend.repository.DeletionJobRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Background account deletion. A request only records a job; this worker then removes the
+// user's uploaded images and deletes their rows table by table in small batches, each batch in
+// its own short transaction, writing progress to the job row as it goes. Every step is
+// idempotent, so a job interrupted by a restart or an error is simply picked up again.
+@Service
+public class ForgetMeService {
+
+    // Rows deleted per statement (and per transaction)
+    static final int BATCH_SIZE = 1000;
+
+    // Failed runs before a job is left in the failed state
+    static final int MAX_ATTEMPTS = 3;
+
+    // A running job whose row has not been touched for this long lost its worker
+    private static final String STALE_AFTER = "5 minutes";
+
+    // What the user owns, as subqueries on :userId: the trips they created, their memberships
+    // plus every membership of those trips, and the posts written under any of them
+    private static final String OWN_TRIPS = "SELECT trip_id FROM trips WHERE created_by = :userId";
+    private static final String OWN_USER_TRIPS = "SELECT user_trip_id FROM usertrips "
+            + "WHERE user_id = :userId OR trip_id IN (" + OWN_TRIPS + ")";
+    private static final String OWN_POSTS = "SELECT post_id FROM posts WHERE usertrip_id IN (" + OWN_USER_TRIPS + ")";
+
+    private static final List<String> JOB_TABLE = List.of("deletion_jobs");
+
+    // One step of the deletion: a batched DELETE of at most :batch rows, and the tables it
+    // touches (directly or through triggers)
+    private record Step(String name, List<String> tables, String sql) {}
+
+    // Children before parents, so no step depends on ON DELETE CASCADE removing a large set
+    // of rows inside a single statement
+    private static final List<Step> STEPS = List.of(
+            new Step("comments", List.of("comments"), "DELETE FROM comments WHERE comment_id IN (SELECT comment_id FROM comments "
+                    + "WHERE user_id = :userId OR post_id IN (" + OWN_POSTS + ") LIMIT :batch)"),
+            // The aggregate triggers rewrite the review_score of the other users involved
+            new Step("reviews", List.of("reviews", "users"), "DELETE FROM reviews WHERE review_id IN (SELECT review_id FROM reviews "
+                    + "WHERE reviewer_id = :userId OR reviewee_id = :userId OR post_id IN (" + OWN_POSTS + ") "
+                    + "OR trip_id IN (" + OWN_TRIPS + ") LIMIT :batch)"),
+            new Step("posts", List.of("posts"), "DELETE FROM posts WHERE post_id IN (" + OWN_POSTS + " LIMIT :batch)"),
+            new Step("notifications", List.of("notifications"), "DELETE FROM notifications WHERE notification_id IN "
+                    + "(SELECT notification_id FROM notifications WHERE user_id = :userId LIMIT :batch)"),
+            new Step("messages", List.of("messages"), "DELETE FROM messages WHERE message_id IN (SELECT message_id FROM messages "
+                    + "WHERE sender_id = :userId OR receiver_id = :userId LIMIT :batch)"),
+            new Step("friendships", List.of("friendships"), "DELETE FROM friendships WHERE friendship_id IN "
+                    + "(SELECT friendship_id FROM friendships WHERE user_id_1 = :userId OR user_id_2 = :userId LIMIT :batch)"),
+            new Step("event memberships", List.of("userevents"), "DELETE FROM userevents WHERE user_event_id IN "
+                    + "(SELECT user_event_id FROM userevents WHERE user_id = :userId "
+                    + "OR event_id IN (SELECT event_id FROM events WHERE created_by = :userId) LIMIT :batch)"),
+            new Step("events", List.of("events"), "DELETE FROM events WHERE event_id IN "
+                    + "(SELECT event_id FROM events WHERE created_by = :userId LIMIT :batch)"),
+            // Everyone but the joined members of the user's trips first: releasing a joined seat
+            // promotes the trip's waitlist, which must be empty by then so nobody is promoted into
+            // (and notified about) a trip that is about to be deleted. Seats the user frees in
+            // other people's trips are still handed to their waitlists.
+            new Step("trip requests", List.of("usertrips"), "DELETE FROM usertrips WHERE user_trip_id IN "
+                    + "(SELECT user_trip_id FROM usertrips WHERE trip_id IN (" + OWN_TRIPS + ") "
+                    + "AND status <> 'joined' LIMIT :batch)"),
+            new Step("trip memberships", List.of("usertrips"), "DELETE FROM usertrips WHERE user_trip_id IN ("
+                    + OWN_USER_TRIPS + " LIMIT :batch)"),
+            new Step("trip images", List.of("tripimages"), "DELETE FROM tripimages WHERE image_id IN "
+                    + "(SELECT image_id FROM tripimages WHERE trip_id IN (" + OWN_TRIPS + ") LIMIT :batch)"),
+            new Step("trip interests", List.of("trip_interests"), "DELETE FROM trip_interests WHERE ctid IN "
+                    + "(SELECT ctid FROM trip_interests WHERE trip_id IN (" + OWN_TRIPS + ") LIMIT :batch)"),
+            new Step("trips", List.of("trips"), "DELETE FROM trips WHERE trip_id IN (" + OWN_TRIPS + " LIMIT :batch)"),
+            // The profile collections and review aggregates cascade with this single row
+            new Step("account", List.of("users"), "DELETE FROM users WHERE user_id IN "
+                    + "(SELECT user_id FROM users WHERE user_id = :userId LIMIT :batch)"));
+
+    // Uploaded images of the user's posts and trips that no other row still points at (post
+    // images are stored under their original file name, so another user may share the file)
+    private static final String OWN_IMAGES = "SELECT DISTINCT p.image FROM posts p "
+            + "WHERE p.post_id IN (" + OWN_POSTS + ") AND p.image LIKE '/images/%' "
+            + "AND NOT EXISTS (SELECT 1 FROM posts o WHERE o.image = p.image AND o.post_id NOT IN (" + OWN_POSTS + ")) "
+            + "UNION SELECT DISTINCT ti.image FROM tripimages ti "
+            + "WHERE ti.trip_id IN (" + OWN_TRIPS + ") AND ti.image LIKE '/images/%' "
+            + "AND NOT EXISTS (SELECT 1 FROM tripimages o WHERE o.image = ti.image AND o.trip_id NOT IN (" + OWN_TRIPS + "))";
+
+    @Autowired
+    private DeletionJobRepository deletionJobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CompanionIndex companionIndex;
+
+    @Autowired
+    private InterestFacetIndex interestFacetIndex;
+
+    @Autowired
+    private GeoTripIndex geoTripIndex;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private TripCatalogCache tripCatalogCache;
+
+    @Autowired
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    // Directory the frontend serves uploaded images from ("/images/..." paths resolve under it)
+    @Value("${storage.public-dir:src/main/java/frontend/public}")
+    private String publicDir;
+
+    // Queue the user's deletion, or return the job already queued for them
+    public DeletionJob enqueue(User user) {
+        List<String> active = List.of(DeletionJob.QUEUED, DeletionJob.RUNNING);
+        return deletionJobRepository.findFirstByUserIdAndStatusIn(user.getUserId(), active).orElseGet(() -> {
+            try {
+                return deletionJobRepository.save(new DeletionJob(user.getUserId()));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent request queued it first
+                return deletionJobRepository.findFirstByUserIdAndStatusIn(user.getUserId(), active).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    // Work through queued jobs one at a time; also resumes jobs whose worker died mid-run
+    @Scheduled(fixedDelayString = "${forgetme.poll-interval:5000}")
+    public void runPending() {
+        Object[] job;
+        while ((job = claimNext()) != null) {
+            long jobId = ((Number) job[0]).longValue();
+            long userId = ((Number) job[1]).longValue();
+            int attempts = ((Number) job[2]).intValue();
+            try {
+                process(jobId, userId);
+            } catch (RuntimeException e) {
+                System.err.println("Deletion job " + jobId + " failed (attempt " + attempts + "): " + e.getMessage());
+                String status = attempts < MAX_ATTEMPTS ? DeletionJob.QUEUED : DeletionJob.FAILED;
+                transaction().executeWithoutResult(s -> execute("UPDATE deletion_jobs SET status = :status, error = :error, "
+                        + "updated_at = CURRENT_TIMESTAMP WHERE job_id = :jobId", JOB_TABLE,
+                        "status", status, "error", String.valueOf(e.getMessage()), "jobId", jobId));
+                if (status.equals(DeletionJob.QUEUED)) {
+                    // Retried on the next poll rather than spinning on the same error
+                    return;
+                }
+            }
+        }
+    }
+
+    // Mark the oldest runnable job as running and return (job_id, user_id, attempts), or null
+    private Object[] claimNext() {
+        return transaction().execute(status -> {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery("SELECT job_id, user_id, attempts + 1 FROM deletion_jobs "
+                    + "WHERE status = 'queued' OR (status = 'running' AND updated_at < CURRENT_TIMESTAMP - INTERVAL '"
+                    + STALE_AFTER + "') ORDER BY job_id LIMIT 1 FOR UPDATE SKIP LOCKED").getResultList();
+            if (rows.isEmpty()) {
+                return null;
+            }
+            Object[] row = rows.get(0);
+            execute("UPDATE deletion_jobs SET status = 'running', attempts = attempts + 1, error = NULL, "
+                    + "updated_at = CURRENT_TIMESTAMP WHERE job_id = :jobId", JOB_TABLE, "jobId", row[0]);
+            return row;
+        });
+    }
+
+    private void process(long jobId, long userId) {
+        String email = transaction().execute(status -> {
+            List<?> rows = entityManager.createNativeQuery("SELECT email FROM users WHERE user_id = :userId")
+                                        .setParameter("userId", userId).getResultList();
+            return rows.isEmpty() ? null : (String) rows.get(0);
+        });
+
+        // Likewise the trips the user created, to drop them from the in-memory indexes afterwards
+        List<Long> tripIds = transaction().execute(status -> entityManager.createNativeQuery(OWN_TRIPS)
+                .setParameter("userId", userId).getResultList().stream()
+                .map(tripId -> ((Number) tripId).longValue()).toList());
+
+        // Files first: once the rows are gone nothing records which files were the user's
+        progress(jobId, "images", 0, deleteImages(userId));
+
+        for (Step step : STEPS) {
+            int deleted;
+            do {
+                deleted = transaction().execute(status -> {
+                    int rows = execute(step.sql(), step.tables(), "userId", userId, "batch", BATCH_SIZE);
+                    progressInTransaction(jobId, step.name(), rows, 0);
+                    return rows;
+                });
+            } while (deleted == BATCH_SIZE);
+        }
+
+        transaction().executeWithoutResult(status -> execute("UPDATE deletion_jobs SET status = 'completed', step = NULL, "
+                + "updated_at = CURRENT_TIMESTAMP, completed_at = CURRENT_TIMESTAMP WHERE job_id = :jobId",
+                JOB_TABLE, "jobId", jobId));
+
+        // The user's trips are gone as well; remove exactly those from the trip indexes
+        companionIndex.remove(userId);
+        entityCacheEvictor.evictUser(userId);
+        principalCache.invalidate(userId, email);
+        for (Long tripId : tripIds) {
+            interestFacetIndex.removeTrip(tripId);
+            geoTripIndex.remove(tripId);
+        }
+        recommendationService.onUserDeleted(userId, tripIds);
+        tripCatalogCache.invalidate();
+        System.out.println("Deletion job " + jobId + " completed for user " + userId);
+    }
+
+    // Helper method to delete the user's uploaded image files, returning how many were removed
+    private int deleteImages(long userId) {
+        List<?> images = transaction().execute(status -> entityManager.createNativeQuery(OWN_IMAGES)
+                                                                      .setParameter("userId", userId).getResultList());
+        Path root = Paths.get(publicDir).toAbsolutePath().normalize();
+        int deleted = 0;
+        for (Object image : images) {
+            Path file = root.resolve(((String) image).substring(1)).normalize();
+            if (!file.startsWith(root)) {
+                continue;
+            }
+            try {
+                if (Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Error deleting image " + image, e);
+            }
+        }
+        return deleted;
+    }
+
+    private void progress(long jobId, String step, int rows, int files) {
+        transaction().executeWithoutResult(status -> progressInTransaction(jobId, step, rows, files));
+    }
+
+    // Record progress in the caller's transaction, so it commits together with the batch
+    private void progressInTransaction(long jobId, String step, int rows, int files) {
+        execute("UPDATE deletion_jobs SET step = :step, rows_deleted = rows_deleted + :rows, "
+                + "files_deleted = files_deleted + :files, updated_at = CURRENT_TIMESTAMP WHERE job_id = :jobId",
+                JOB_TABLE, "step", step, "rows", rows, "files", files, "jobId", jobId);
+    }
+
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    // Run a native statement with named parameters (name, value pairs), naming the tables it
+    // touches so Hibernate only invalidates the cache regions mapped to them
+    private int execute(String sql, List<String> tables, Object... parameters) {
+        var query = entityManager.createNativeQuery(sql).setHint(HibernateHints.HINT_NATIVE_SPACES, tables);
+        for (int i = 0; i < parameters.length; i += 2) {
+            query.setParameter((String) parameters[i], parameters[i + 1]);
+        }
+        return query.executeUpdate();
+    }
+}
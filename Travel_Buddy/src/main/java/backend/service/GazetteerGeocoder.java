@@ -0,0 +1,79 @@
+package backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Geocoder backed by a local gazetteer file with one "name,latitude,longitude" entry per line.
+// Names may contain commas ("Paris, France"); the last two fields are always the coordinates.
+// Lookups match the whole location first and then its first comma-separated part (the city).
+@Component
+public class GazetteerGeocoder implements Geocoder {
+
+    private final Map<String, GeoPoint> places = new HashMap<>();
+
+    // An external file overrides the gazetteer bundled with the application
+    public GazetteerGeocoder(@Value("${geocoder.gazetteer-file:}") String gazetteerFile) throws IOException {
+        try (InputStream in = gazetteerFile.isBlank()
+                ? GazetteerGeocoder.class.getResourceAsStream("/gazetteer.csv")
+                : Files.newInputStream(Path.of(gazetteerFile))) {
+            if (in != null) {
+                load(in);
+            }
+        }
+    }
+
+    @Override
+    public Optional<GeoPoint> geocode(String location) {
+        if (location == null || location.isBlank()) {
+            return Optional.empty();
+        }
+        GeoPoint point = places.get(normalize(location));
+        if (point == null) {
+            point = places.get(normalize(firstPart(location)));
+        }
+        return Optional.ofNullable(point);
+    }
+
+    private void load(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int lonSeparator = line.lastIndexOf(',');
+            int latSeparator = line.lastIndexOf(',', lonSeparator - 1);
+            if (latSeparator <= 0) {
+                continue;
+            }
+            String name = line.substring(0, latSeparator);
+            GeoPoint point = new GeoPoint(
+                    Double.parseDouble(line.substring(latSeparator + 1, lonSeparator).trim()),
+                    Double.parseDouble(line.substring(lonSeparator + 1).trim()));
+            places.put(normalize(name), point);
+            places.putIfAbsent(normalize(firstPart(name)), point);
+        }
+    }
+
+    private static String firstPart(String location) {
+        int comma = location.indexOf(',');
+        return comma < 0 ? location : location.substring(0, comma);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+}
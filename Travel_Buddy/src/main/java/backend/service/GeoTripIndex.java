@@ -0,0 +1,237 @@
+package backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import backend.repository.TripRepository;
+
+// In-memory geohash index over trip coordinates. Trips are bucketed by a fine geohash cell
+// kept in a sorted map, so a radius query only range-scans the few coarser cells covering the
+// search circle's bounding box and measures exact distances for the trips found there.
+@Component
+public class GeoTripIndex {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double KM_PER_DEGREE = Math.PI * GeoPoint.EARTH_RADIUS_KM / 180;
+
+    // Cells of about 150m x 150m; queries use shorter prefixes of these hashes
+    static final int STORED_PRECISION = 7;
+
+    // A trip found by a radius query
+    public record Hit(long tripId, double distanceKm) {}
+
+    private final NavigableMap<String, Set<Long>> tripsByCell = new TreeMap<>();
+    private final Map<Long, GeoPoint> pointsByTrip = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    // Load the coordinates of every geocoded trip once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = tripRepository.findAllTripCoordinates();
+        lock.writeLock().lock();
+        try {
+            tripsByCell.clear();
+            pointsByTrip.clear();
+            for (Object[] row : rows) {
+                putUnlocked((Long) row[0], new GeoPoint((Double) row[1], (Double) row[2]));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Record or move a trip. A null point removes it from the index.
+    public void put(long tripId, GeoPoint point) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(tripId);
+            if (point != null) {
+                putUnlocked(tripId, point);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long tripId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(tripId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Trips within `radiusKm` of `center`, nearest first (ties broken by trip ID). For the next
+    // page pass the distance and trip ID of the last hit as `afterKm` / `afterTripId`.
+    public List<Hit> nearby(GeoPoint center, double radiusKm, Double afterKm, Long afterTripId, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String prefix : coveringPrefixes(center, radiusKm)) {
+                for (Set<Long> tripIds : tripsByCell.subMap(prefix, true, prefix + "~", false).values()) {
+                    for (Long tripId : tripIds) {
+                        double distance = center.distanceKm(pointsByTrip.get(tripId));
+                        if (distance <= radiusKm && isAfter(distance, tripId, afterKm, afterTripId)) {
+                            hits.add(new Hit(tripId, distance));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparingLong(Hit::tripId));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return pointsByTrip.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Standard base32 geohash of a point
+    static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLon = mid;
+                } else {
+                    index <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLat = mid;
+                } else {
+                    index <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(index));
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    // Geohash prefixes whose cells together cover the bounding box of the search circle. The
+    // precision is the finest one whose cells are still at least as large as the radius, so
+    // only a handful of cells are scanned.
+    static Set<String> coveringPrefixes(GeoPoint center, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double dLon = 180;
+        if (center.latitude() + dLat < 90 && center.latitude() - dLat > -90) {
+            // Widest longitude offset reached by the circle; it spans every longitude once it
+            // contains a pole
+            double ratio = Math.sin(radiusKm / GeoPoint.EARTH_RADIUS_KM) / Math.cos(Math.toRadians(center.latitude()));
+            dLon = ratio >= 1 ? 180 : Math.toDegrees(Math.asin(ratio));
+        }
+
+        int precision = 1;
+        while (precision < STORED_PRECISION
+                && cellHeight(precision + 1) >= dLat
+                && cellWidth(precision + 1) >= dLon) {
+            precision++;
+        }
+
+        double minLat = Math.max(-90, center.latitude() - dLat);
+        double maxLat = Math.min(90, center.latitude() + dLat);
+        double minLon = center.longitude() - dLon;
+        double maxLon = center.longitude() + dLon;
+        double latStep = cellHeight(precision);
+        double lonStep = cellWidth(precision);
+
+        // Sampling no further apart than one cell, edges included, touches every covering cell
+        Set<String> prefixes = new HashSet<>();
+        for (double lat = minLat; ; lat = Math.min(maxLat, lat + latStep)) {
+            for (double lon = minLon; ; lon = Math.min(maxLon, lon + lonStep)) {
+                prefixes.add(encode(Math.min(lat, 89.999999), wrapLongitude(lon), precision));
+                if (lon >= maxLon) {
+                    break;
+                }
+            }
+            if (lat >= maxLat) {
+                break;
+            }
+        }
+        return prefixes;
+    }
+
+    private static double cellHeight(int precision) {
+        return 180 / Math.pow(2, (5 * precision) / 2);
+    }
+
+    private static double cellWidth(int precision) {
+        return 360 / Math.pow(2, (5 * precision + 1) / 2);
+    }
+
+    private static double wrapLongitude(double longitude) {
+        double wrapped = ((longitude + 180) % 360 + 360) % 360 - 180;
+        return Math.min(wrapped, 179.999999);
+    }
+
+    private static boolean isAfter(double distance, long tripId, Double afterKm, Long afterTripId) {
+        if (afterKm == null) {
+            return true;
+        }
+        int byDistance = Double.compare(distance, afterKm);
+        return byDistance > 0 || (byDistance == 0 && afterTripId != null && tripId > afterTripId);
+    }
+
+    // Caller must hold the write lock
+    private void putUnlocked(long tripId, GeoPoint point) {
+        pointsByTrip.put(tripId, point);
+        tripsByCell.computeIfAbsent(encode(point.latitude(), point.longitude(), STORED_PRECISION), cell -> new HashSet<>())
+                   .add(tripId);
+    }
+
+    // Caller must hold the write lock
+    private void removeUnlocked(long tripId) {
+        GeoPoint previous = pointsByTrip.remove(tripId);
+        if (previous == null) {
+            return;
+        }
+        String cell = encode(previous.latitude(), previous.longitude(), STORED_PRECISION);
+        Set<Long> tripIds = tripsByCell.get(cell);
+        if (tripIds != null) {
+            tripIds.remove(tripId);
+            if (tripIds.isEmpty()) {
+                tripsByCell.remove(cell);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package backend.service;
+
+import java.util.Optional;
+
+// Resolves a free-text trip location to coordinates. The default implementation is
+// GazetteerGeocoder; register another bean marked @Primary to plug in a real geocoding service.
+public interface Geocoder {
+
+    Optional<GeoPoint> geocode(String location);
+}
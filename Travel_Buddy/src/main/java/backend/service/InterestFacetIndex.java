@@ -0,0 +1,174 @@
+package backend.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import backend.repository.TripRepository;
+
+// In-memory index from interest ID to the compressed bitmap of trip IDs tagged with it.
+// Answers AND/OR interest queries and per-interest facet counts without touching the
+// trip_interests table. Trip IDs are SERIAL (int4) so they fit the 32-bit bitmaps.
+@Component
+public class InterestFacetIndex {
+
+    private final Map<Integer, RoaringBitmap> tripsByInterest = new TreeMap<>();
+    private final RoaringBitmap allTrips = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    // Load the whole trip_interests table once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Integer, RoaringBitmap> loaded = new TreeMap<>();
+        RoaringBitmap loadedTrips = new RoaringBitmap();
+        for (Long tripId : tripRepository.findAllTripIds()) {
+            loadedTrips.add(tripId.intValue());
+        }
+        for (Object[] row : tripRepository.findAllTripInterestPairs()) {
+            int tripId = ((Number) row[0]).intValue();
+            int interestId = ((Number) row[1]).intValue();
+            loaded.computeIfAbsent(interestId, id -> new RoaringBitmap()).add(tripId);
+        }
+        loaded.values().forEach(RoaringBitmap::runOptimize);
+        loadedTrips.runOptimize();
+
+        lock.writeLock().lock();
+        try {
+            tripsByInterest.clear();
+            tripsByInterest.putAll(loaded);
+            allTrips.clear();
+            allTrips.or(loadedTrips);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Record a trip and the interests it is tagged with, replacing any previous tags
+    public void putTrip(long tripId, Collection<Integer> interestIds) {
+        int id = Math.toIntExact(tripId);
+        lock.writeLock().lock();
+        try {
+            tripsByInterest.values().forEach(trips -> trips.remove(id));
+            allTrips.add(id);
+            if (interestIds != null) {
+                for (Integer interestId : interestIds) {
+                    tripsByInterest.computeIfAbsent(interestId, key -> new RoaringBitmap()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Forget a deleted trip
+    public void removeTrip(long tripId) {
+        int id = Math.toIntExact(tripId);
+        lock.writeLock().lock();
+        try {
+            tripsByInterest.values().forEach(trips -> trips.remove(id));
+            allTrips.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Trips tagged with at least one of the interests. No interests means every trip.
+    public RoaringBitmap matchAny(Collection<Integer> interestIds) {
+        lock.readLock().lock();
+        try {
+            if (interestIds == null || interestIds.isEmpty()) {
+                return allTrips.clone();
+            }
+            RoaringBitmap result = new RoaringBitmap();
+            for (Integer interestId : interestIds) {
+                RoaringBitmap trips = tripsByInterest.get(interestId);
+                if (trips != null) {
+                    result.or(trips);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Trips tagged with every one of the interests. No interests means every trip.
+    public RoaringBitmap matchAll(Collection<Integer> interestIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = allTrips.clone();
+            if (interestIds == null) {
+                return result;
+            }
+            for (Integer interestId : interestIds) {
+                RoaringBitmap trips = tripsByInterest.get(interestId);
+                if (trips == null) {
+                    return new RoaringBitmap();
+                }
+                result.and(trips);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of trips in `base` carrying each interest, keyed by interest ID
+    public Map<Integer, Integer> facetCounts(RoaringBitmap base) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> counts = new LinkedHashMap<>();
+            for (Map.Entry<Integer, RoaringBitmap> entry : tripsByInterest.entrySet()) {
+                counts.put(entry.getKey(), RoaringBitmap.andCardinality(base, entry.getValue()));
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Serialized size of all bitmaps, a close estimate of the index's heap footprint
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return bitmapBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Summary used by the stats endpoint to size the heap
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("trips", allTrips.getLongCardinality());
+            stats.put("interests", tripsByInterest.size());
+            stats.put("sizeInBytes", bitmapBytes());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the lock
+    private long bitmapBytes() {
+        long bytes = allTrips.getLongSizeInBytes();
+        for (RoaringBitmap trips : tripsByInterest.values()) {
+            bytes += trips.getLongSizeInBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,95 @@
+package backend.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Writes a query's rows as newline-delimited JSON while the query is still running. Rows are
+// pulled from a Spring Data Stream (a JDBC cursor with a fetch size) inside a read-only
+// transaction, serialized one at a time and flushed in small batches, and the persistence
+// context is cleared as it goes, so heap use does not grow with the table.
+@Component
+public class NdjsonStreamer {
+
+    // Rows written between flushes (and persistence context clears)
+    static final int FLUSH_EVERY = 100;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Stream every row `rows` yields as one JSON document per line
+    public <T> ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<T>> rows) {
+        return stream(rows, UnaryOperator.identity());
+    }
+
+    // Same, but each batch of up to FLUSH_EVERY rows is passed through `details` before it is
+    // written, so per-row collections can be attached with one query per batch instead of per row
+    public <T> ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<T>> rows, UnaryOperator<List<T>> details) {
+        StreamingResponseBody body = out -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                try (Stream<T> stream = rows.get();
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.setRootValueSeparator(null);
+                    List<T> batch = new ArrayList<>(FLUSH_EVERY);
+                    for (Iterator<T> iterator = stream.iterator(); iterator.hasNext(); ) {
+                        batch.add(iterator.next());
+                        if (batch.size() == FLUSH_EVERY) {
+                            write(writer, generator, details.apply(batch));
+                            batch.clear();
+                            generator.flush();
+                            entityManager.clear();
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        write(writer, generator, details.apply(batch));
+                    }
+                    generator.flush();
+                } catch (IOException e) {
+                    // Typically the client went away; rolling back closes the cursor
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(body);
+    }
+
+    private static <T> void write(ObjectWriter writer, JsonGenerator generator, List<T> rows) throws IOException {
+        for (T row : rows) {
+            writer.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+// Salted bcrypt password hashing. Hashing is deliberately slow, so it runs on a small bounded
+// pool instead of the request threads: a burst of sign-ins queues up there (or is rejected
+// once the queue is full) while the rest of the API keeps serving.
+@Service
+public class PasswordService {
+
+    // Passwords stored before hashing was introduced are plaintext; anything shaped like a
+    // bcrypt hash is treated as one
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[abxy]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    // Verified against when the username does not exist, so both cases take the same time
+    private final String dummyHash;
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordService(@Value("${auth.bcrypt-strength:10}") int strength,
+                           @Value("${auth.hashing-threads:4}") int threads,
+                           @Value("${auth.hashing-queue:64}") int queueSize) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = encoder.encode("dummy-password");
+    }
+
+    // Outcome of checking a password: whether it matched, and a fresh hash to store when the
+    // stored value was plaintext or a weaker hash (null otherwise)
+    public record Verification(boolean matches, String upgradedHash) {}
+
+    // Check `rawPassword` against the stored value (null when the user does not exist). Fails
+    // with a RejectedExecutionException when the hashing queue is full.
+    public CompletableFuture<Verification> verify(String rawPassword, String storedPassword) {
+        return CompletableFuture.supplyAsync(() -> verifyNow(rawPassword, storedPassword), executor);
+    }
+
+    // Hash a new password. Fails with a RejectedExecutionException when the queue is full.
+    public CompletableFuture<String> hash(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> encoder.encode(rawPassword), executor);
+    }
+
+    public static boolean isHashed(String storedPassword) {
+        return storedPassword != null && BCRYPT_HASH.matcher(storedPassword).matches();
+    }
+
+    Verification verifyNow(String rawPassword, String storedPassword) {
+        if (rawPassword == null || rawPassword.isEmpty() || storedPassword == null || storedPassword.isEmpty()) {
+            // Unknown user, or an account without a local password (e.g. Google sign-in)
+            encoder.matches(rawPassword == null ? "" : rawPassword, dummyHash);
+            return new Verification(false, null);
+        }
+        if (isHashed(storedPassword)) {
+            boolean matches = encoder.matches(rawPassword, storedPassword);
+            boolean upgrade = matches && encoder.upgradeEncoding(storedPassword);
+            return new Verification(matches, upgrade ? encoder.encode(rawPassword) : null);
+        }
+        // Legacy plaintext row: compare in constant time, and hash it on success
+        boolean matches = MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                                                storedPassword.getBytes(StandardCharsets.UTF_8));
+        if (!matches) {
+            encoder.matches(rawPassword, dummyHash);
+        }
+        return new Verification(matches, matches ? encoder.encode(rawPassword) : null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
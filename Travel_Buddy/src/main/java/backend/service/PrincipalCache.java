@@ -0,0 +1,52 @@
+package backend.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import backend.repository.UserRepository;
+
+// Bounded, TTL-evicting cache of request principals by user ID and by email. Repeat requests
+// from the same user are identified from memory; profile updates and account deletion
+// invalidate their entries.
+@Component
+public class PrincipalCache {
+
+    private final Cache<Long, SessionPrincipal> byId;
+    private final Cache<String, SessionPrincipal> byEmail;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public PrincipalCache(@Value("${auth.principal-cache.size:10000}") long maximumSize,
+                          @Value("${auth.principal-cache.ttl:15m}") Duration ttl) {
+        this.byId = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+        this.byEmail = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+    }
+
+    // The principal for a user ID, or null when the user does not exist
+    public SessionPrincipal byId(long userId) {
+        return byId.get(userId, id -> userRepository.findById(id).map(SessionPrincipal::of).orElse(null));
+    }
+
+    // The principal for an email, or null when no user has it
+    public SessionPrincipal byEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return byEmail.get(email, key -> userRepository.findByEmail(key).map(SessionPrincipal::of).orElse(null));
+    }
+
+    // Drop the cached entries of a user whose profile changed or who was deleted
+    public void invalidate(long userId, String email) {
+        byId.invalidate(userId);
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+}
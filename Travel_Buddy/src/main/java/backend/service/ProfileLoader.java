@@ -0,0 +1,114 @@
+package backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import backend.dto.PostCard;
+import backend.dto.PostReview;
+import backend.dto.ProfileView;
+import backend.dto.ReviewStats;
+import backend.model.User;
+import backend.repository.PostRepository;
+import backend.repository.ReviewRepository;
+import backend.repository.UserRepository;
+import backend.repository.UserTripsRepository;
+
+// Assembles a profile page in a fixed number of queries: the post count, one page of post
+// cards and their reviews, the rating aggregate row and the membership counts. The user row
+// itself comes from the second-level cache.
+@Service
+public class ProfileLoader {
+
+    // Upper bound on the number of posts returned with a profile
+    public static final int MAX_POSTS = 50;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserTripsRepository userTripsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // The profile of `user` with its most recent posts whose ID is below `before` (all when null)
+    public ProfileView load(User user, Long before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_POSTS));
+        List<PostCard> posts = postRepository.findRecentPostCardsByUserId(
+                user.getUserId(), before == null ? Long.MAX_VALUE : before, PageRequest.of(0, pageSize));
+        Long nextPostsBefore = posts.size() == pageSize ? posts.get(posts.size() - 1).postId() : null;
+
+        ProfileView.Profile profile = new ProfileView.Profile(user.getUserId(), user.getUsername(), user.getName(),
+                user.getProfilePicture(), user.getBio(), user.getNationality(), user.getAge(), user.getSex(),
+                copyOf(user.getLanguages()), copyOf(user.getInterests()));
+        return new ProfileView(profile, postRepository.countByAuthor(user.getUserId()), posts, nextPostsBefore,
+                               postReviews(posts), reviewStats(user.getUserId()), tripCounts(user.getUserId()));
+    }
+
+    // The given profiles with their languages and interests, in two queries for the whole batch
+    public List<ProfileView.Profile> withCollections(List<ProfileView.Profile> profiles) {
+        if (profiles.isEmpty()) {
+            return profiles;
+        }
+        List<Long> userIds = profiles.stream().map(ProfileView.Profile::userId).toList();
+        Map<Long, List<String>> languages = byUser(userRepository.findLanguagesByUserIds(userIds));
+        Map<Long, List<String>> interests = byUser(userRepository.findInterestsByUserIds(userIds));
+        return profiles.stream()
+                       .map(profile -> profile.withCollections(
+                               languages.getOrDefault(profile.userId(), List.of()),
+                               interests.getOrDefault(profile.userId(), List.of())))
+                       .toList();
+    }
+
+    // (userId, value) rows grouped by user
+    private static Map<Long, List<String>> byUser(List<Object[]> rows) {
+        Map<Long, List<String>> values = new HashMap<>();
+        for (Object[] row : rows) {
+            values.computeIfAbsent((Long) row[0], userId -> new ArrayList<>()).add((String) row[1]);
+        }
+        return values;
+    }
+
+    // Detached copy of a lazily loaded element collection, so serialization runs no queries
+    private static List<String> copyOf(Collection<String> values) {
+        return values == null ? List.of() : List.copyOf(values);
+    }
+
+    private List<PostReview> postReviews(List<PostCard> posts) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+        return reviewRepository.findPostReviews(posts.stream().map(PostCard::postId).toList());
+    }
+
+    private ReviewStats reviewStats(long userId) {
+        List<Object[]> rows = reviewRepository.findUserAggregate(userId);
+        return rows.isEmpty() ? ReviewStats.NONE : ReviewStats.fromRow(rows.get(0), 0);
+    }
+
+    private ProfileView.TripCounts tripCounts(long userId) {
+        long created = 0;
+        long joined = 0;
+        long requested = 0;
+        for (Object[] row : userTripsRepository.countStatusesByUserId(userId)) {
+            long trips = ((Number) row[1]).longValue();
+            switch (String.valueOf(row[0])) {
+                case "created" -> created = trips;
+                case "joined" -> joined = trips;
+                case "requested" -> requested = trips;
+                default -> { }
+            }
+        }
+        return new ProfileView.TripCounts(created, joined, requested);
+    }
+}
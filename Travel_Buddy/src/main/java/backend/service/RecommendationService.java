@@ -0,0 +1,361 @@
+package backend.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import backend.model.Interest;
+import backend.model.User;
+import backend.repository.InterestRepository;
+import backend.repository.TripRepository;
+import backend.repository.UserRepository;
+import backend.repository.UserTripsRepository;
+
+// Ranks upcoming trips for each user and keeps the best TOP_K per user precomputed, so serving
+// recommendations is a map lookup. A trip's score combines:
+//   - how many of its interests match the user's profile interests,
+//   - shared languages and nationality with the trip creator,
+//   - how soon the trip starts,
+//   - how many open join requests and members it already has (popularity).
+// Trips a user created or has any membership in (declined included) are never recommended to
+// them. Trip, profile and membership writes re-rank only the affected trip or user; a nightly
+// rebuild drops trips that have ended.
+@Service
+public class RecommendationService {
+
+    public static final int TOP_K = 50;
+
+    private static final double INTEREST_WEIGHT = 3.0;
+    private static final double LANGUAGE_WEIGHT = 1.0;
+    private static final double NATIONALITY_WEIGHT = 0.5;
+    private static final double DATE_WEIGHT = 1.5;
+    private static final double POPULARITY_WEIGHT = 1.0;
+
+    // Words ignored when matching profile interests ("hiking") against interest names ("Nature and Hiking")
+    private static final Set<String> STOP_WORDS = Set.of("and", "or", "the", "of", "&");
+
+    public record Recommendation(long tripId, double score) {}
+
+    private record TripProfile(long tripId, long creatorId, List<Set<String>> interestWords,
+                               LocalDate startDate, LocalDate endDate) {}
+
+    private record UserProfile(long userId, Set<String> interestWords, Set<String> languages, String nationality) {}
+
+    private static final Comparator<Recommendation> BEST_FIRST =
+            Comparator.comparingDouble(Recommendation::score).reversed().thenComparingLong(Recommendation::tripId);
+
+    // Read without locking by the serving path; every value is an immutable, best-first list
+    private final Map<Long, List<Recommendation>> topByUser = new ConcurrentHashMap<>();
+
+    // Model state below is only touched while holding this service's monitor
+    private final Map<Long, TripProfile> trips = new HashMap<>();
+    private final Map<Long, UserProfile> users = new HashMap<>();
+    private final Map<Long, Map<Long, String>> statusByMember = new HashMap<>();
+    private final Map<Long, Integer> joinRequests = new HashMap<>();
+    private LocalDate today = LocalDate.now();
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTripsRepository userTripsRepository;
+
+    @Autowired
+    private InterestRepository interestRepository;
+
+    // Reload everything and rank every user from scratch: at startup and every night
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 3 * * *")
+    public synchronized void rebuild() {
+        today = LocalDate.now();
+        trips.clear();
+        users.clear();
+        statusByMember.clear();
+        joinRequests.clear();
+        topByUser.clear();
+
+        Map<Integer, Set<String>> wordsByInterest = new HashMap<>();
+        for (Interest interest : interestRepository.findAll()) {
+            wordsByInterest.put(interest.getInterestId(), words(interest.getName()));
+        }
+        Map<Long, List<Set<String>>> interestWordsByTrip = new HashMap<>();
+        for (Object[] row : tripRepository.findAllTripInterestPairs()) {
+            Set<String> interestWords = wordsByInterest.get(((Number) row[1]).intValue());
+            if (interestWords != null) {
+                interestWordsByTrip.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>()).add(interestWords);
+            }
+        }
+        for (Object[] row : tripRepository.findAllTripSchedules()) {
+            TripProfile trip = toTripProfile(row, interestWordsByTrip.getOrDefault((Long) row[0], List.of()));
+            trips.put(trip.tripId(), trip);
+        }
+
+        Map<Long, Set<String>> interestWordsByUser = new HashMap<>();
+        for (Object[] row : userRepository.findAllUserInterests()) {
+            interestWordsByUser.computeIfAbsent((Long) row[0], id -> new HashSet<>()).addAll(words((String) row[1]));
+        }
+        Map<Long, Set<String>> languagesByUser = new HashMap<>();
+        for (Object[] row : userRepository.findAllUserLanguages()) {
+            languagesByUser.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add(normalize((String) row[1]));
+        }
+        for (Object[] row : userRepository.findAllProfileAttributes()) {
+            Long userId = (Long) row[0];
+            users.put(userId, new UserProfile(userId,
+                    interestWordsByUser.getOrDefault(userId, Set.of()),
+                    languagesByUser.getOrDefault(userId, Set.of()),
+                    row[1] != null ? normalize((String) row[1]) : null));
+        }
+
+        for (Object[] row : userTripsRepository.findAllMemberships()) {
+            recordMembership((Long) row[0], (Long) row[1], (String) row[2]);
+        }
+
+        for (UserProfile user : users.values()) {
+            topByUser.put(user.userId(), rank(user));
+        }
+    }
+
+    // Precomputed recommendations for a user, best first. Users seen for the first time since
+    // the last rebuild are ranked on demand.
+    public List<Recommendation> recommend(long userId) {
+        List<Recommendation> top = topByUser.get(userId);
+        if (top != null) {
+            return top;
+        }
+        Optional<User> user = userRepository.findById(userId);
+        if (user.isEmpty()) {
+            return List.of();
+        }
+        onUserSaved(user.get());
+        return topByUser.getOrDefault(userId, List.of());
+    }
+
+    // A trip was created or edited: reload it and re-rank it for every user
+    public synchronized void onTripSaved(long tripId) {
+        List<Object[]> schedule = tripRepository.findTripSchedule(tripId);
+        if (schedule.isEmpty()) {
+            onTripDeleted(tripId);
+            return;
+        }
+        List<Set<String>> interestWords = new ArrayList<>();
+        for (Object[] row : tripRepository.findInterestsByTripIds(List.of(tripId))) {
+            interestWords.add(words(((Interest) row[1]).getName()));
+        }
+        trips.put(tripId, toTripProfile(schedule.get(0), interestWords));
+        rerankTripForAllUsers(tripId);
+    }
+
+    public synchronized void onTripDeleted(long tripId) {
+        trips.remove(tripId);
+        joinRequests.remove(tripId);
+        statusByMember.values().forEach(memberships -> memberships.remove(tripId));
+        rerankTripForAllUsers(tripId);
+    }
+
+    // A user and the trips they created were deleted: forget their profile, list and
+    // memberships, and re-rank once each trip they created or had asked to join
+    public synchronized void onUserDeleted(long userId, Collection<Long> createdTripIds) {
+        users.remove(userId);
+        topByUser.remove(userId);
+        Set<Long> affected = new HashSet<>(createdTripIds);
+        Map<Long, String> memberships = statusByMember.remove(userId);
+        if (memberships != null) {
+            memberships.forEach((tripId, status) -> {
+                if (isOpenRequest(status)) {
+                    joinRequests.merge(tripId, -1, Integer::sum);
+                }
+                affected.add(tripId);
+            });
+        }
+        for (Long tripId : createdTripIds) {
+            trips.remove(tripId);
+            joinRequests.remove(tripId);
+            statusByMember.values().forEach(tripMemberships -> tripMemberships.remove(tripId));
+        }
+        affected.forEach(this::rerankTripForAllUsers);
+    }
+
+    // A profile was created or edited: re-rank everything for this user, and re-rank the trips
+    // they created for everyone else since the creator affinity may have changed
+    public synchronized void onUserSaved(User user) {
+        Set<String> interestWords = new HashSet<>();
+        if (user.getInterests() != null) {
+            user.getInterests().forEach(interest -> interestWords.addAll(words(interest)));
+        }
+        Set<String> languages = new HashSet<>();
+        if (user.getLanguages() != null) {
+            user.getLanguages().forEach(language -> languages.add(normalize(language)));
+        }
+        UserProfile profile = new UserProfile(user.getUserId(), interestWords, languages,
+                user.getNationality() != null ? normalize(user.getNationality()) : null);
+        users.put(profile.userId(), profile);
+        topByUser.put(profile.userId(), rank(profile));
+
+        for (TripProfile trip : List.copyOf(trips.values())) {
+            if (trip.creatorId() == profile.userId()) {
+                rerankTripForAllUsers(trip.tripId());
+            }
+        }
+    }
+
+    // A user's membership of a trip was created, changed status or (status null) removed: the
+    // trip leaves or re-enters their list and its popularity follows the open requests
+    public void onMembershipChanged(long userId, long tripId, String status) {
+        onMembershipsChanged(tripId, List.of(userId), status);
+    }
+
+    // The same status change for many members of one trip, re-ranking the trip once
+    public synchronized void onMembershipsChanged(long tripId, Collection<Long> userIds, String status) {
+        boolean changed = false;
+        for (Long userId : userIds) {
+            changed |= recordMembership(userId, tripId, status);
+        }
+        if (changed) {
+            rerankTripForAllUsers(tripId);
+        }
+    }
+
+    // Score of a trip for a user, empty when the trip cannot be recommended to them
+    private Optional<Double> score(UserProfile user, TripProfile trip) {
+        if (trip.creatorId() == user.userId()
+                || trip.endDate().isBefore(today)
+                || statusByMember.getOrDefault(user.userId(), Map.of()).containsKey(trip.tripId())) {
+            return Optional.empty();
+        }
+
+        double interestScore = 0;
+        if (!trip.interestWords().isEmpty()) {
+            long matched = trip.interestWords().stream()
+                    .filter(interestWords -> interestWords.stream().anyMatch(user.interestWords()::contains))
+                    .count();
+            interestScore = (double) matched / trip.interestWords().size();
+        }
+
+        double languageScore = 0;
+        double nationalityScore = 0;
+        UserProfile creator = users.get(trip.creatorId());
+        if (creator != null) {
+            languageScore = creator.languages().stream().anyMatch(user.languages()::contains) ? 1 : 0;
+            nationalityScore = user.nationality() != null && user.nationality().equals(creator.nationality()) ? 1 : 0;
+        }
+
+        long daysUntilStart = Math.max(0, ChronoUnit.DAYS.between(today, trip.startDate()));
+        double dateScore = 1.0 / (1.0 + daysUntilStart / 30.0);
+
+        int requests = joinRequests.getOrDefault(trip.tripId(), 0);
+        double popularityScore = requests / (requests + 5.0);
+
+        return Optional.of(INTEREST_WEIGHT * interestScore
+                + LANGUAGE_WEIGHT * languageScore
+                + NATIONALITY_WEIGHT * nationalityScore
+                + DATE_WEIGHT * dateScore
+                + POPULARITY_WEIGHT * popularityScore);
+    }
+
+    // Full ranking for one user with a bounded min-heap holding the best TOP_K trips seen so far
+    private List<Recommendation> rank(UserProfile user) {
+        PriorityQueue<Recommendation> heap = new PriorityQueue<>(TOP_K + 1, BEST_FIRST.reversed());
+        for (TripProfile trip : trips.values()) {
+            score(user, trip).ifPresent(score -> {
+                heap.offer(new Recommendation(trip.tripId(), score));
+                if (heap.size() > TOP_K) {
+                    heap.poll();
+                }
+            });
+        }
+        List<Recommendation> top = new ArrayList<>(heap);
+        top.sort(BEST_FIRST);
+        return List.copyOf(top);
+    }
+
+    // Merge one trip's new score into every user's list. If it drops out of a full list the
+    // next best trip is unknown, so that user alone is ranked again from scratch.
+    private void rerankTripForAllUsers(long tripId) {
+        TripProfile trip = trips.get(tripId);
+        for (UserProfile user : users.values()) {
+            List<Recommendation> current = topByUser.getOrDefault(user.userId(), List.of());
+            List<Recommendation> updated = new ArrayList<>(current);
+            boolean wasListed = updated.removeIf(recommendation -> recommendation.tripId() == tripId);
+            Optional<Double> score = trip != null ? score(user, trip) : Optional.empty();
+
+            if (wasListed && current.size() == TOP_K
+                    && (score.isEmpty() || score.get() < current.get(current.size() - 1).score())) {
+                topByUser.put(user.userId(), rank(user));
+                continue;
+            }
+            if (score.isPresent()) {
+                updated.add(new Recommendation(tripId, score.get()));
+                updated.sort(BEST_FIRST);
+                if (updated.size() > TOP_K) {
+                    updated.remove(updated.size() - 1);
+                }
+            }
+            if (wasListed || score.isPresent()) {
+                topByUser.put(user.userId(), List.copyOf(updated));
+            }
+        }
+    }
+
+    // Set or (status null) clear one membership, keeping the trip's request count in step.
+    // Returns whether anything changed.
+    private boolean recordMembership(long userId, long tripId, String status) {
+        Map<Long, String> memberships = statusByMember.computeIfAbsent(userId, id -> new HashMap<>());
+        String previous = status != null ? memberships.put(tripId, status) : memberships.remove(tripId);
+        if (Objects.equals(previous, status)) {
+            return false;
+        }
+        int delta = (isOpenRequest(status) ? 1 : 0) - (isOpenRequest(previous) ? 1 : 0);
+        if (delta != 0) {
+            joinRequests.merge(tripId, delta, Integer::sum);
+        }
+        return true;
+    }
+
+    // Requests still pending or accepted count towards popularity; the creator's own row and
+    // declined requests do not. Joined and waitlisted count alike, so the seat triggers moving a
+    // member between them leave the ranking unchanged.
+    private static boolean isOpenRequest(String status) {
+        return status != null && !"created".equals(status) && !"declined".equals(status);
+    }
+
+    private static TripProfile toTripProfile(Object[] row, List<Set<String>> interestWords) {
+        return new TripProfile((Long) row[0], (Long) row[1], interestWords,
+                ((Date) row[2]).toLocalDate(), ((Date) row[3]).toLocalDate());
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,63 @@
+package backend.service;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Repair job for the per-user and per-trip rating aggregates. The Reviews triggers keep them
+// current one review at a time; this recomputes them from scratch, e.g. after reviews were
+// imported with the triggers disabled or rows were edited by hand.
+@Service
+public class ReviewAggregateService {
+
+    private static final String AGGREGATE_COLUMNS = "COUNT(*), SUM(rating), "
+            + "COUNT(*) FILTER (WHERE rating = 1), COUNT(*) FILTER (WHERE rating = 2), "
+            + "COUNT(*) FILTER (WHERE rating = 3), COUNT(*) FILTER (WHERE rating = 4), "
+            + "COUNT(*) FILTER (WHERE rating = 5)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Every night, after the recommendation rebuild
+    @Scheduled(cron = "0 30 3 * * *")
+    @Transactional
+    public void rebuild() {
+        // Hold off new and deleted reviews until the aggregates are consistent again
+        execute("LOCK TABLE reviews IN SHARE MODE", "reviews");
+
+        // Reviews written before the subjects were recorded on the row
+        execute("UPDATE reviews r SET reviewee_id = COALESCE(r.reviewee_id, ut.user_id), "
+                + "trip_id = COALESCE(r.trip_id, ut.trip_id) "
+                + "FROM posts p JOIN usertrips ut ON ut.user_trip_id = p.usertrip_id "
+                + "WHERE p.post_id = r.post_id AND (r.reviewee_id IS NULL OR r.trip_id IS NULL)", "reviews");
+
+        execute("DELETE FROM user_review_aggregates", "user_review_aggregates");
+        execute("INSERT INTO user_review_aggregates "
+                + "(user_id, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) "
+                + "SELECT reviewee_id, " + AGGREGATE_COLUMNS + " FROM reviews "
+                + "WHERE reviewee_id IS NOT NULL AND rating IS NOT NULL GROUP BY reviewee_id", "user_review_aggregates");
+
+        execute("DELETE FROM trip_review_aggregates", "trip_review_aggregates");
+        execute("INSERT INTO trip_review_aggregates "
+                + "(trip_id, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) "
+                + "SELECT trip_id, " + AGGREGATE_COLUMNS + " FROM reviews "
+                + "WHERE trip_id IS NOT NULL AND rating IS NOT NULL GROUP BY trip_id", "trip_review_aggregates");
+
+        // Declaring the users table evicts the cached User rows whose review_score this rewrites
+        int scores = execute("UPDATE users u SET review_score = "
+                + "COALESCE((SELECT ROUND(CAST(a.rating_sum AS NUMERIC) / NULLIF(a.review_count, 0)) "
+                + "FROM user_review_aggregates a WHERE a.user_id = u.user_id), 0)", "users");
+
+        System.out.println("Review aggregates rebuilt, review scores refreshed for " + scores + " users.");
+    }
+
+    // Run a native statement, naming the tables it touches so Hibernate only invalidates the
+    // cache regions mapped to them instead of the whole second-level cache
+    private int execute(String sql, String tables) {
+        return entityManager.createNativeQuery(sql).setHint(HibernateHints.HINT_NATIVE_SPACES, tables).executeUpdate();
+    }
+}
@@ -0,0 +1,12 @@
+package backend.service;
+
+import backend.model.User;
+
+// The caller of an authenticated request: just enough of the user to identify them and
+// authorize the request, without loading the User entity
+public record SessionPrincipal(long userId, String username, String name, String email) {
+
+    public static SessionPrincipal of(User user) {
+        return new SessionPrincipal(user.getUserId(), user.getUsername(), user.getName(), user.getEmail());
+    }
+}
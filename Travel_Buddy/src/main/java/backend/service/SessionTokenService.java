@@ -0,0 +1,93 @@
+package backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.OptionalLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import backend.model.User;
+
+// Stateless session tokens: `<userId>.<expiry>.<signature>`, signed with HMAC-SHA256. A token
+// is checked with the key alone, so identifying the caller needs no database lookup.
+@Service
+public class SessionTokenService {
+
+    // Response header carrying a freshly issued token
+    public static final String HEADER = "X-Session-Token";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public SessionTokenService(@Value("${auth.token-secret:}") String secret,
+                               @Value("${auth.token-ttl:12h}") Duration ttl) {
+        byte[] keyBytes;
+        if (secret.isBlank()) {
+            // Without a configured secret every restart signs everyone out
+            System.err.println("auth.token-secret is not set, using a random session key.");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = ttl;
+    }
+
+    public String issue(User user) {
+        String payload = user.getUserId() + "." + Instant.now().plus(ttl).getEpochSecond();
+        return payload + "." + sign(payload);
+    }
+
+    // The user ID a token was issued to, or empty when it is malformed, forged or expired
+    public OptionalLong verify(String token) {
+        if (token == null) {
+            return OptionalLong.empty();
+        }
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return OptionalLong.empty();
+        }
+        String payload = token.substring(0, signatureStart);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return OptionalLong.empty();
+        }
+
+        String[] parts = payload.split("\\.");
+        if (parts.length != 2) {
+            return OptionalLong.empty();
+        }
+        try {
+            long userId = Long.parseLong(parts[0]);
+            long expiresAt = Long.parseLong(parts[1]);
+            return Instant.now().getEpochSecond() < expiresAt ? OptionalLong.of(userId) : OptionalLong.empty();
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                         .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Could not sign session token", e);
+        }
+    }
+}
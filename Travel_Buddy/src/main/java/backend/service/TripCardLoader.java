@@ -0,0 +1,168 @@
+package backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import backend.dto.ReviewStats;
+import backend.dto.TripCard;
+import backend.model.Interest;
+import backend.model.Trip;
+import backend.model.User;
+import backend.repository.ReviewRepository;
+import backend.repository.TripImageRepository;
+import backend.repository.TripRepository;
+import backend.repository.TripSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// Builds the trip cards shown on the explore page. Every page costs exactly four queries
+// (card columns + creator summary, images, interests, review aggregates) no matter how many
+// trips it contains.
+@Service
+public class TripCardLoader {
+
+    // Upper bound on the number of trips loaded by a single keyset page
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripImageRepository tripImageRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Load the page of trip cards that comes after the given trip ID
+    public List<TripCard> loadPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return withDetails(tripRepository.findTripCardsAfter(after == null ? 0L : after, PageRequest.of(0, pageSize)));
+    }
+
+    // Load every trip card by walking the keyset pages in trip ID order
+    public List<TripCard> loadAll() {
+        List<TripCard> cards = new ArrayList<>();
+        long after = 0L;
+        while (true) {
+            List<TripCard> page = loadPage(after, MAX_PAGE_SIZE);
+            cards.addAll(page);
+            if (page.size() < MAX_PAGE_SIZE) {
+                return cards;
+            }
+            after = page.get(page.size() - 1).tripId();
+        }
+    }
+
+    // Load the page of trip cards matching the given filters that comes after the given trip ID.
+    // The filters are applied to a criteria query that selects only the card columns.
+    public List<TripCard> searchPage(Specification<Trip> filters, Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Specification<Trip> spec = Specification.where(TripSpecifications.idAfter(after)).and(filters);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TripCard> query = cb.createQuery(TripCard.class);
+        Root<Trip> trip = query.from(Trip.class);
+        Join<Trip, User> creator = trip.join("createdBy");
+        query.select(cb.construct(TripCard.class,
+                trip.get("tripId"), trip.get("location"), trip.get("latitude"), trip.get("longitude"),
+                trip.get("startDate"), trip.get("endDate"), trip.get("description"), trip.get("version"),
+                creator.get("userId"), creator.get("username"), creator.get("name"),
+                creator.get("profilePicture")));
+        Predicate predicate = spec.toPredicate(trip, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(trip.get("tripId")));
+
+        return withDetails(entityManager.createQuery(query).setMaxResults(pageSize).getResultList());
+    }
+
+    // Load the trip cards for the given IDs, keeping the order of `tripIds` (e.g. search rank)
+    public List<TripCard> loadInOrder(List<Long> tripIds) {
+        if (tripIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TripCard> cardsById = new HashMap<>();
+        for (TripCard card : tripRepository.findTripCardsByIds(tripIds)) {
+            cardsById.put(card.tripId(), card);
+        }
+        List<TripCard> ordered = tripIds.stream()
+                .map(cardsById::get)
+                .filter(card -> card != null)
+                .toList();
+        return withDetails(ordered);
+    }
+
+    // Cards of every trip a user created
+    public List<TripCard> loadCreatedBy(long userId) {
+        return withDetails(tripRepository.findTripCardsByCreator(userId));
+    }
+
+    // Image URLs for a batch of trips, keyed by trip ID
+    public Map<Long, List<String>> loadImageUrls(Collection<Long> tripIds) {
+        Map<Long, List<String>> imagesByTrip = new HashMap<>();
+        if (tripIds.isEmpty()) {
+            return imagesByTrip;
+        }
+        for (Object[] row : tripImageRepository.findImageUrlsByTripIds(tripIds)) {
+            imagesByTrip.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return imagesByTrip;
+    }
+
+    // Interests for a batch of trips, keyed by trip ID
+    public Map<Long, List<Interest>> loadInterests(Collection<Long> tripIds) {
+        Map<Long, List<Interest>> interestsByTrip = new HashMap<>();
+        if (tripIds.isEmpty()) {
+            return interestsByTrip;
+        }
+        for (Object[] row : tripRepository.findInterestsByTripIds(tripIds)) {
+            interestsByTrip.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Interest) row[1]);
+        }
+        return interestsByTrip;
+    }
+
+    // Review stats for a batch of trips, keyed by trip ID; trips never reviewed are absent
+    public Map<Long, ReviewStats> loadReviewStats(Collection<Long> tripIds) {
+        Map<Long, ReviewStats> statsByTrip = new HashMap<>();
+        if (tripIds.isEmpty()) {
+            return statsByTrip;
+        }
+        for (Object[] row : reviewRepository.findTripAggregates(tripIds)) {
+            statsByTrip.put(((Number) row[0]).longValue(), ReviewStats.fromRow(row, 1));
+        }
+        return statsByTrip;
+    }
+
+    // Attach the images, interests and review stats of a batch of cards
+    private List<TripCard> withDetails(List<TripCard> cards) {
+        List<Long> tripIds = cards.stream().map(TripCard::tripId).toList();
+        Map<Long, List<String>> imagesByTrip = loadImageUrls(tripIds);
+        Map<Long, List<Interest>> interestsByTrip = loadInterests(tripIds);
+        Map<Long, ReviewStats> reviewsByTrip = loadReviewStats(tripIds);
+
+        List<TripCard> detailed = new ArrayList<>(cards.size());
+        for (TripCard card : cards) {
+            detailed.add(card.withDetails(interestsByTrip.getOrDefault(card.tripId(), List.of()),
+                                          imagesByTrip.getOrDefault(card.tripId(), List.of()),
+                                          reviewsByTrip.getOrDefault(card.tripId(), ReviewStats.NONE)));
+        }
+        return detailed;
+    }
+}
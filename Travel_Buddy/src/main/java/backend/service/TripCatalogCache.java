@@ -0,0 +1,122 @@
+package backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Serialized trip catalog responses keyed by request, tagged with the catalog version they
+// were built from. Every trip write bumps the version, which changes all ETags at once and
+// retires the cached bodies, so repeat reads are answered from memory (or with a 304) until
+// something actually changes.
+@Component
+public class TripCatalogCache {
+
+    static final int MAX_ENTRIES = 256;
+
+    // A serialized response body (null when not found) and the strong ETag identifying it
+    record Entry(long version, String etag, byte[] body) {}
+
+    // Distinguishes ETags handed out before a restart, when the version counter starts over
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Answer a catalog read: 304 when the client's If-None-Match still matches, otherwise the
+    // cached JSON body, building it with `loader` only when the catalog changed since. A loader
+    // returning null is cached as a 404.
+    public ResponseEntity<byte[]> respond(String key, String ifNoneMatch, Supplier<?> loader) {
+        Entry entry = lookup(key, loader);
+        if (entry.body() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (matches(ifNoneMatch, entry.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                 .eTag(entry.etag())
+                                 .cacheControl(CacheControl.noCache())
+                                 .build();
+        }
+        return ResponseEntity.ok()
+                             .eTag(entry.etag())
+                             .cacheControl(CacheControl.noCache())
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(entry.body());
+    }
+
+    // Retire every cached response once the current transaction commits
+    public void invalidate() {
+        AfterCommit.run(() -> {
+            version.incrementAndGet();
+            synchronized (entries) {
+                entries.clear();
+            }
+        });
+    }
+
+    private Entry lookup(String key, Supplier<?> loader) {
+        // Read the version before loading, so a write racing the load leaves this entry stale
+        long current = version.get();
+        synchronized (entries) {
+            Entry cached = entries.get(key);
+            if (cached != null && cached.version() == current) {
+                return cached;
+            }
+        }
+
+        byte[] body = null;
+        try {
+            Object value = loader.get();
+            if (value != null) {
+                body = objectMapper.writeValueAsBytes(value);
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + key, e);
+        }
+        Entry entry = new Entry(current, etag(key, current), body);
+        synchronized (entries) {
+            if (version.get() == current) {
+                entries.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    private String etag(String key, long catalogVersion) {
+        return "\"" + Long.toString(epoch, 36) + "-" + catalogVersion + "-" + Integer.toHexString(key.hashCode()) + "\"";
+    }
+
+    // If-None-Match may list several tags, or `*`; weak tags compare equal to their strong form
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+package backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// "Download my data": a zip archive with one JSON-lines file per kind of record the user owns,
+// plus the image files those records reference. Rows come from server-side cursors and are
+// rendered to JSON by PostgreSQL, files are copied straight from disk, and everything is
+// written to the response as it is read, so heap use does not depend on the export's size.
+@Component
+public class UserDataExporter {
+
+    // Rows fetched per round trip from each cursor
+    private static final String FETCH_SIZE = "500";
+
+    // One JSON-lines file: its name in the archive and a query yielding one JSON text per row
+    private record Section(String fileName, String sql) {}
+
+    private static final List<Section> SECTIONS = List.of(
+            new Section("trips.jsonl", "SELECT row_to_json(x)::text FROM (SELECT ut.user_trip_id, ut.role, ut.status, "
+                    + "ut.created_at AS joined_at, t.trip_id, t.location, t.start_date, t.end_date, t.description, "
+                    + "t.created_by, t.created_at FROM usertrips ut JOIN trips t ON t.trip_id = ut.trip_id "
+                    + "WHERE ut.user_id = :userId ORDER BY ut.user_trip_id) x"),
+            new Section("posts.jsonl", "SELECT row_to_json(x)::text FROM (SELECT p.post_id, p.caption, p.image, "
+                    + "p.created_at, p.updated_at, ut.trip_id FROM posts p JOIN usertrips ut ON ut.user_trip_id = p.usertrip_id "
+                    + "WHERE ut.user_id = :userId ORDER BY p.post_id) x"),
+            new Section("reviews.jsonl", "SELECT row_to_json(x)::text FROM (SELECT r.review_id, "
+                    + "CASE WHEN r.reviewer_id = :userId THEN 'written' ELSE 'received' END AS direction, "
+                    + "r.reviewer_id, r.reviewee_id, r.trip_id, r.post_id, r.rating, r.comment, r.created_at "
+                    + "FROM reviews r WHERE r.reviewer_id = :userId OR r.reviewee_id = :userId ORDER BY r.review_id) x"),
+            new Section("notifications.jsonl", "SELECT row_to_json(x)::text FROM (SELECT n.notification_id, n.message, "
+                    + "n.status, n.created_at FROM notifications n WHERE n.user_id = :userId ORDER BY n.notification_id) x"));
+
+    // Uploaded files referenced by the user's profile, posts and created trips
+    private static final String IMAGES = "SELECT profile_picture FROM users WHERE user_id = :userId "
+            + "UNION SELECT p.image FROM posts p JOIN usertrips ut ON ut.user_trip_id = p.usertrip_id WHERE ut.user_id = :userId "
+            + "UNION SELECT ti.image FROM tripimages ti JOIN trips t ON t.trip_id = ti.trip_id WHERE t.created_by = :userId";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Directory the frontend serves uploaded images from ("/images/..." paths resolve under it)
+    @Value("${storage.public-dir:src/main/java/frontend/public}")
+    private String publicDir;
+
+    // Stream the user's archive as the response body; 404 when there is no such user
+    public ResponseEntity<StreamingResponseBody> export(long userId) {
+        if (entityManager.find(User.class, userId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            // One snapshot for every file, so the archive is consistent with itself
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            transaction.executeWithoutResult(status -> {
+                try {
+                    writeArchive(userId, out);
+                } catch (IOException e) {
+                    // Typically the client went away; rolling back closes the cursors
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                             .contentType(MediaType.parseMediaType("application/zip"))
+                             .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                     .filename("travel-buddy-export-" + userId + ".zip").build().toString())
+                             .body(body);
+    }
+
+    private void writeArchive(long userId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+
+        User user = entityManager.find(User.class, userId);
+        if (user == null) {
+            // Deleted after the request was accepted; abort rather than export an empty profile
+            throw new IllegalStateException("User " + userId + " no longer exists.");
+        }
+        zip.putNextEntry(new ZipEntry("profile.jsonl"));
+        zip.write(objectMapper.writeValueAsBytes(user));
+        zip.write('\n');
+        zip.closeEntry();
+
+        for (Section section : SECTIONS) {
+            zip.putNextEntry(new ZipEntry(section.fileName()));
+            try (Stream<?> rows = stream(section.sql(), userId)) {
+                for (Iterator<?> iterator = rows.iterator(); iterator.hasNext(); ) {
+                    zip.write(((String) iterator.next()).getBytes(StandardCharsets.UTF_8));
+                    zip.write('\n');
+                }
+            }
+            zip.closeEntry();
+            zip.flush();
+        }
+
+        Path root = Paths.get(publicDir).toAbsolutePath().normalize();
+        try (Stream<?> images = stream(IMAGES, userId)) {
+            for (Iterator<?> iterator = images.iterator(); iterator.hasNext(); ) {
+                String image = (String) iterator.next();
+                // Seeded rows link to external URLs; only uploaded files are on disk
+                if (image == null || !image.startsWith("/images/")) {
+                    continue;
+                }
+                Path file = root.resolve(image.substring(1)).normalize();
+                if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                zip.putNextEntry(new ZipEntry(image.substring(1)));
+                Files.copy(file, zip);
+                zip.closeEntry();
+                zip.flush();
+            }
+        }
+
+        // Completes the archive without closing the response stream
+        zip.finish();
+        zip.flush();
+    }
+
+    // Native query results through a server-side cursor
+    private Stream<?> stream(String sql, long userId) {
+        return entityManager.createNativeQuery(sql)
+                            .setParameter("userId", userId)
+                            .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                            .setHint(HibernateHints.HINT_READ_ONLY, "true")
+                            .getResultStream();
+    }
+}
@@ -0,0 +1,30 @@
+package backend.service;
+
+// Strong ETags for versioned entities, and the If-Match check of the endpoints that edit them.
+// A client sends back the tag it last saw; the edit is applied only if the row is still at that
+// version, otherwise it gets 412 and reloads instead of overwriting someone else's change.
+public final class VersionTags {
+
+    private VersionTags() {
+    }
+
+    public static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Whether an If-Match header admits the current version. A missing header imposes no
+    // precondition; weak tags never match, as If-Match uses strong comparison.
+    public static boolean matches(String ifMatch, long version) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return true;
+        }
+        String etag = etag(version);
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
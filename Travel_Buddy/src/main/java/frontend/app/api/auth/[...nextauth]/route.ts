@@ -35,6 +35,8 @@ const options = {
           if (!user) {
             throw new Error("No user data returned");
           }
+          // Backend session token, sent back as "Authorization: Bearer" on API calls
+          user.backendToken = res.headers.get("X-Session-Token");
 
           return user; // Return user object for successful authentication
         } catch (error) {
@@ -47,6 +49,10 @@ const options = {
   pages: {
     signIn: "/signin",
   },
+  // Backend session tokens expire after 12 hours (auth.token-ttl); sign in again by then
+  session: {
+    maxAge: 12 * 60 * 60,
+  },
   callbacks: {
     async signIn({ user, account, profile, email, credentials }) {
       if (account.provider === "google") {
@@ -69,6 +75,7 @@ const options = {
           user.username = userData.username; // Set the username from backend response
           user.id = userData.id; // Set the user ID from backend response
           user.name = userData.name; // Update the session's name
+          user.backendToken = res.headers.get("X-Session-Token");
           return true;
         } catch (error) {
           console.error(error);
@@ -85,6 +92,7 @@ const options = {
         token.username = user.username || user.name || "Unknown User";
         token.user_id = user.id || "Unknown ID";
         token.email = user.email || "Unknown Email";
+        token.backendToken = user.backendToken;
       }
       console.log("Updated token:", token);
       return token;
@@ -98,6 +106,7 @@ const options = {
         token.username || session.user.name || "Unknown User";
       session.user.user_id = token.user_id || "Unknown ID";
       session.user.email = token.email || "Unknown Email";
+      session.backendToken = token.backendToken;
 
       console.log("Updated session:", session);
       return session;
@@ -4,8 +4,10 @@ import { FontAwesomeIcon } from "@fortawesome/react-fontawesome";
 import { faExclamationCircle } from "@fortawesome/free-solid-svg-icons";
 import { useState } from "react";
 import { useSession, signIn, signOut } from "next-auth/react";
+import { authHeaders } from "../lib/backendAuth";
 
 export default function ForgetMeForm() {
+  const { data: session } = useSession();
   const [email, set_email] = useState("");
   const [error, set_error] = useState("");
   const [success, set_success] = useState("");
@@ -17,20 +19,24 @@ export default function ForgetMeForm() {
         method: "POST",
         headers: {
           "Content-Type": "application/json",
+          ...authHeaders(session),
         },
         body: JSON.stringify({
           email: email,
         }),
       });
 
-      if (res.status === 400) {
+      if (res.status === 400 || res.status === 401) {
         set_error(await res.text());
       } else if (!res.ok) {
         throw new Error("Internal server error");
       } else {
         set_error("");
         set_email("");
-        set_success("Your profile has been deleted! You will be redirected soon.");
+        // The deletion runs in the background; its progress is at job.statusUrl
+        const job = await res.json();
+        console.log("Account deletion queued:", job.statusUrl);
+        set_success("Your profile is being deleted! You will be redirected soon.");
         setTimeout(() => {
           signOut({ callbackUrl: "/" }); // Log out and redirect
         }, 3000);
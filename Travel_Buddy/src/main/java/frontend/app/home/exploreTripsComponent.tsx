@@ -1,7 +1,8 @@
 "use client";
 
 import { useSession } from "next-auth/react";
-import { useEffect, useState } from "react";
+import { authHeaders } from "../lib/backendAuth";
+import { useEffect, useRef, useState } from "react";
 import moment from "moment";
 import Slider from "react-slick";
 import "slick-carousel/slick/slick.css";
@@ -64,16 +65,45 @@ interface Interest {
   name: string;
 }
 
+// Trip counts from /backend/trips/facets: how many trips match the requested interests, and
+// how many of those have each interest (keyed by interestId).
+interface InterestFacets {
+  matching: number;
+  counts: Record<string, number>;
+}
+
 const START_DATE_ASC_KEYWORD = "startDateAsc";
 const START_DATE_DESC_KEYWORD = "startDateDesc";
 const DURATION_ASC_KEYWORD = "durationAsc";
 const DURATION_DESC_KEYWORD = "durationDesc";
 
+// Trips are fetched one keyset page at a time; the next page starts after the last tripId.
+const PAGE_SIZE = 50;
+
+// Returns a copy of `trips` ordered by one of the sort keywords above.
+const sortTripList = (trips: Trip[], sortType: string): Trip[] => {
+  const duration = (trip: Trip) =>
+    new Date(trip.endDate).getTime() - new Date(trip.startDate).getTime();
+  const start = (trip: Trip) => new Date(trip.startDate).getTime();
+  switch (sortType) {
+    case START_DATE_DESC_KEYWORD:
+      return [...trips].sort((a, b) => start(b) - start(a));
+    case DURATION_ASC_KEYWORD:
+      return [...trips].sort((a, b) => duration(a) - duration(b));
+    case DURATION_DESC_KEYWORD:
+      return [...trips].sort((a, b) => duration(b) - duration(a));
+    default: // default to start date ascending
+      return [...trips].sort((a, b) => start(a) - start(b));
+  }
+};
+
+// The tripId a following page starts after, or null when `page` was the last one.
+const nextPageAfter = (page: Trip[]): number | null =>
+  page.length === PAGE_SIZE ? page[page.length - 1].tripId : null;
+
 export default function ExploreTripsComponent() {
   // Useful information about the user currently logged in.
   const { data: session } = useSession();
-  // Trips fetched from the backend that are displayed to the user.
-  const [trips, setTrips] = useState<Trip[]>([]);
   const [userTrips, setUserTrips] = useState<UserTrip[]>([]);
   // Improves the UX of the website by communicating to the user that we are waiting for a
   // response/data.
@@ -82,14 +112,28 @@ export default function ExploreTripsComponent() {
   const [isRequested, setIsRequested] = useState<Record<number, boolean>>({});
   const [showFilters, setShowFilters] = useState(false);
   const [showSort, setShowSort] = useState(false);
+  // Trips fetched from the backend that are displayed to the user, and where the next page of
+  // them starts (null once everything has been loaded).
   const [filteredTrips, setFilteredTrips] = useState<Trip[]>([]);
+  const [nextAfter, setNextAfter] = useState<number | null>(null);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
+  // Bumped to reload the first page, e.g. when the keyword search is cleared.
+  const [listingVersion, setListingVersion] = useState(0);
+  // Identifies the listing a "load more" response belongs to, so a page requested before the
+  // filters changed is dropped instead of appended to the new results.
+  const listingId = useRef(0);
+  const isSorted = useRef(false);
   const [interests, setInterests] = useState<Interest[]>([]);
+  // Trips per interest over the whole catalog, and the facets of the current selection.
+  const [interestCounts, setInterestCounts] = useState<Record<string, number>>({});
+  const [selectionFacets, setSelectionFacets] = useState<InterestFacets | null>(null);
 
   // Some of the variables below are used for filtering trips based on user defined
   // criteria such as the location, the start date, the interests etc...
   const [selectedInterests, setSelectedInterests] = useState<number[]>([]);
   const [locations, setLocations] = useState<string[]>([]);
   const [selectedLocation, setSelectedLocation] = useState<string>("");
+  const [locationQuery, setLocationQuery] = useState<string>("");
   const [selectedStartDate, setSelectedStartDate] = useState<string>("");
   const [selectedEndDate, setSelectedEndDate] = useState<string>("");
   const [showInterestDropdown, setShowInterestDropdown] = useState(false);
@@ -100,35 +144,13 @@ export default function ExploreTripsComponent() {
   );
   const [searchKeyword, setSearchKeyword] = useState<string>("");
 
-  // Fetch trips from the backend and display them to the user. We also retrieve and store
-  // every unique trip location for filtering purposes later.
+  // Retrieve the interests and the trips of the user. The trips themselves are paged in by the
+  // listing effect below, the location suggestions by the typeahead effect.
   //
   // This callback is called once as long as the `session` of the user doesn't change. The
   // `session` variable can change if the user decides to log back in with a different
   // account which is currently allowed.
   useEffect(() => {
-    const fetchTrips = async () => {
-      try {
-        const response = await fetch("/backend/trips");
-        if (!response.ok) {
-          throw new Error("Failed to fetch trips.");
-        }
-        const data = await response.json();
-        setTrips(data);
-        setFilteredTrips(data);
-
-        const uniqueLocations = Array.from(
-          new Set(data.map((trip: Trip) => trip.location))
-        );
-        setLocations(uniqueLocations);
-      } catch (error) {
-        console.error("Error fetching trips:", error);
-        setErrorMessage("An error occurred while fetching trips.");
-      } finally {
-        setIsLoading(false);
-      }
-    };
-
     // Fetch the list of interests available from the backend rather than hard coding them
     // in the frontend.
     const fetchInterests = async () => {
@@ -144,13 +166,27 @@ export default function ExploreTripsComponent() {
       }
     };
 
+    // Number of trips per interest, shown next to each interest checkbox. Served from the
+    // backend's in-memory interest index rather than counted from the trips we have loaded.
+    const fetchInterestCounts = async () => {
+      try {
+        const response = await fetch("/backend/trips/facets");
+        if (!response.ok) throw new Error("Failed to fetch interest counts.");
+
+        const data: InterestFacets = await response.json();
+        setInterestCounts(data.counts);
+      } catch (error) {
+        console.error("Error fetching interest counts:", error);
+      }
+    };
+
     // Fetch trips associated with the user currently logged in.
     const fetchUserTrips = async () => {
-      if (!session?.user?.email) return;
+      if (!session?.backendToken) return;
       try {
-        const response = await fetch(
-          `/backend/user-trips?email=${session.user.email}`
-        );
+        const response = await fetch("/backend/user-trips", {
+          headers: authHeaders(session),
+        });
         if (!response.ok) throw new Error("Failed to fetch user trips");
 
         const data = await response.json();
@@ -161,11 +197,68 @@ export default function ExploreTripsComponent() {
       }
     };
 
-    fetchTrips();
     fetchUserTrips();
     fetchInterests();
+    fetchInterestCounts();
   }, [session]);
 
+  // How many trips have any of the selected interests, shown above the interest checkboxes.
+  useEffect(() => {
+    if (selectedInterests.length === 0) {
+      setSelectionFacets(null);
+      return;
+    }
+
+    const controller = new AbortController();
+    const fetchSelectionFacets = async () => {
+      const params = new URLSearchParams();
+      selectedInterests.forEach((interestId) =>
+        params.append("interestIds", String(interestId))
+      );
+      try {
+        const response = await fetch(`/backend/trips/facets?${params}`, {
+          signal: controller.signal,
+        });
+        if (!response.ok) throw new Error("Failed to fetch interest counts.");
+
+        setSelectionFacets(await response.json());
+      } catch (error) {
+        if (error.name === "AbortError") return;
+        console.error("Error fetching interest counts:", error);
+      }
+    };
+
+    fetchSelectionFacets();
+    return () => controller.abort();
+  }, [selectedInterests]);
+
+  // Location typeahead: the backend's best prefix and fuzzy matches for what has been typed, or
+  // the most common locations while the box is empty. Waits for a short pause between
+  // keystrokes, and drops responses for text the user has already typed past.
+  useEffect(() => {
+    const controller = new AbortController();
+    const timeout = setTimeout(async () => {
+      const params = new URLSearchParams({ limit: "10" });
+      if (locationQuery.trim() !== "") params.set("q", locationQuery.trim());
+      try {
+        const response = await fetch(`/backend/trips/locations?${params}`, {
+          signal: controller.signal,
+        });
+        if (!response.ok) throw new Error("Failed to fetch locations.");
+
+        const data = await response.json();
+        setLocations(data);
+      } catch (error) {
+        if (error.name === "AbortError") return;
+        console.error("Error fetching locations:", error);
+      }
+    }, 250);
+    return () => {
+      clearTimeout(timeout);
+      controller.abort();
+    };
+  }, [locationQuery]);
+
   // Fires when the user clicks on the join trip button.
   //
   // Not called directly. See `handleRequestToggle` to see how this closure is called.
@@ -173,7 +266,6 @@ export default function ExploreTripsComponent() {
     try {
       const payload = {
         tripId,
-        userEmail: session?.user?.email,
         status: "requested",
       };
 
@@ -183,6 +275,7 @@ export default function ExploreTripsComponent() {
         method: "POST",
         headers: {
           "Content-Type": "application/json",
+          ...authHeaders(session),
         },
         body: JSON.stringify(payload),
       });
@@ -207,7 +300,10 @@ export default function ExploreTripsComponent() {
     try {
       const response = await fetch("/backend/reviewstemp", {
         method: "POST",
-        headers: { "Content-Type": "application/json" },
+        headers: {
+          "Content-Type": "application/json",
+          ...authHeaders(session),
+        },
         body: JSON.stringify({ tripId, rating }),
       });
 
@@ -234,37 +330,86 @@ export default function ExploreTripsComponent() {
     return userTrip ? userTrip.status : null;
   };
 
-  // Updates the trips seen by the user based on filtering criteria such as interests,
-  // locations, start and end dates etc...
-  useEffect(() => {
-    setFilteredTrips(
-      trips.filter((trip) => {
-        const matchesInterests =
-          selectedInterests.length === 0 ||
-          trip.interests.some((interest) =>
-            selectedInterests.includes(interest.interestId)
-          );
-
-        const matchesLocation =
-          selectedLocation === "" || trip.location === selectedLocation;
-
-        const matchesDateRange =
-          selectedStartDate !== "" && selectedEndDate !== ""
-            ? new Date(trip.endDate) >= new Date(selectedStartDate) &&
-              new Date(trip.startDate) <= new Date(selectedEndDate)
-            : true;
-
-        return matchesInterests && matchesLocation && matchesDateRange;
-      })
+  // Fetches one page of the trips seen by the user: every trip, or those matching filtering
+  // criteria such as interests, locations, start and end dates etc... The filtering itself is
+  // done by the backend so that we don't have to download every trip to narrow them down.
+  const fetchTripPage = async (
+    after: number | null,
+    signal?: AbortSignal
+  ): Promise<Trip[]> => {
+    const hasDateRange = selectedStartDate !== "" && selectedEndDate !== "";
+    const params = new URLSearchParams();
+    selectedInterests.forEach((interestId) =>
+      params.append("interestIds", String(interestId))
+    );
+    if (selectedLocation !== "") params.append("location", selectedLocation);
+    if (hasDateRange) {
+      params.append("from", selectedStartDate);
+      params.append("to", selectedEndDate);
+    }
+    const isFiltered = params.toString() !== "";
+    params.append("limit", String(PAGE_SIZE));
+    if (after !== null) params.append("after", String(after));
+
+    const response = await fetch(
+      `/backend/trips${isFiltered ? "/search" : ""}?${params}`,
+      { signal }
     );
+    if (!response.ok) throw new Error("Failed to fetch trips.");
+    return response.json();
+  };
+
+  // Loads the first page whenever the filtering criteria change.
+  useEffect(() => {
+    const controller = new AbortController();
+    const id = ++listingId.current;
+    const loadFirstPage = async () => {
+      try {
+        const page = await fetchTripPage(null, controller.signal);
+        setFilteredTrips(
+          isSorted.current ? sortTripList(page, selectedSortType) : page
+        );
+        setNextAfter(nextPageAfter(page));
+      } catch (error) {
+        if (error.name === "AbortError") return;
+        console.error("Error fetching trips:", error);
+        setErrorMessage("An error occurred while fetching trips.");
+      } finally {
+        if (listingId.current === id) setIsLoading(false);
+      }
+    };
+
+    loadFirstPage();
+    return () => controller.abort();
   }, [
     selectedInterests,
     selectedLocation,
     selectedStartDate,
     selectedEndDate,
-    trips,
+    listingVersion,
   ]);
 
+  // Appends the next page of the current listing, kept in the order the user sorted by.
+  const loadMoreTrips = async () => {
+    if (nextAfter === null) return;
+    const id = listingId.current;
+    setIsLoadingMore(true);
+    try {
+      const page = await fetchTripPage(nextAfter);
+      if (listingId.current !== id) return;
+      setFilteredTrips((previous) => {
+        const merged = [...previous, ...page];
+        return isSorted.current ? sortTripList(merged, selectedSortType) : merged;
+      });
+      setNextAfter(nextPageAfter(page));
+    } catch (error) {
+      console.error("Error fetching more trips:", error);
+      setErrorMessage("An error occurred while fetching trips.");
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   const toggleShowInterestDropdown = () => {
     if (showLocationDropdown) setShowLocationDropdown(false);
     if (showDatesDropdown) setShowDatesDropdown(false);
@@ -328,42 +473,8 @@ export default function ExploreTripsComponent() {
   const sortTrips = (sortType: string) => {
     toggleShowSort();
     setSelectedSortType(sortType);
-
-    let sortedTrips = [];
-    switch (sortType) {
-      case START_DATE_DESC_KEYWORD:
-        sortedTrips = [...filteredTrips].sort(
-          (a, b) =>
-            new Date(b.startDate).getTime() - new Date(a.startDate).getTime()
-        );
-        break;
-
-      case DURATION_ASC_KEYWORD:
-        sortedTrips = [...filteredTrips].sort(
-          (a, b) =>
-            new Date(a.endDate).getTime() -
-            new Date(a.startDate).getTime() -
-            (new Date(b.endDate).getTime() - new Date(b.startDate).getTime())
-        );
-        break;
-
-      case DURATION_DESC_KEYWORD:
-        sortedTrips = [...filteredTrips].sort(
-          (a, b) =>
-            new Date(b.endDate).getTime() -
-            new Date(b.startDate).getTime() -
-            (new Date(a.endDate).getTime() - new Date(a.startDate).getTime())
-        );
-        break;
-
-      default: // default to start date ascending
-        sortedTrips = [...filteredTrips].sort(
-          (a, b) =>
-            new Date(a.startDate).getTime() - new Date(b.startDate).getTime()
-        );
-        break;
-    }
-    setFilteredTrips(sortedTrips);
+    isSorted.current = true;
+    setFilteredTrips(sortTripList(filteredTrips, sortType));
   };
 
   const handleSearchInputChange = (event: React.ChangeEvent<HTMLInputElement>) => {
@@ -373,19 +484,32 @@ export default function ExploreTripsComponent() {
   };
   
 
-  const search = (keyword: string) => {
+  // Ranked search over trip locations and descriptions done by the backend. Responses for
+  // keywords the user has already typed past are ignored.
+  const latestKeyword = useRef("");
+  const search = async (keyword: string) => {
+    latestKeyword.current = keyword;
     if (!keyword.trim()) {
-      setFilteredTrips([...trips]); // ✅ Use trips instead of allTrips
+      setListingVersion((version) => version + 1); // Back to the paged listing
       return;
     }
-  
-    const lowerCaseKeyword = keyword.trim().toLowerCase();
-  
-    const results = trips.filter((trip) =>
-      trip.location.toLowerCase().includes(lowerCaseKeyword)
-    );
-  
-    setFilteredTrips(results);
+
+    try {
+      const response = await fetch(
+        `/backend/trips/text-search?q=${encodeURIComponent(keyword.trim())}`
+      );
+      if (!response.ok) throw new Error("Failed to search trips.");
+
+      const results = await response.json();
+      if (latestKeyword.current === keyword) {
+        // Ranked results come in one response, there is no next page
+        listingId.current++;
+        setFilteredTrips(results);
+        setNextAfter(null);
+      }
+    } catch (error) {
+      console.error("Error searching trips:", error);
+    }
   };
   
 
@@ -520,6 +644,13 @@ export default function ExploreTripsComponent() {
                 showInterestDropdown ? "" : "hidden"
               }`}
               id="interestsFilters">
+              {selectionFacets && (
+                <p className="mb-3 text-sm text-gray-500">
+                  {selectionFacets.matching}{" "}
+                  {selectionFacets.matching === 1 ? "trip matches" : "trips match"} the
+                  selected interests
+                </p>
+              )}
               <div className="space-y-3"> 
                 {interests.map((interest) => (
                   <div className="flex items-center space-x-3">
@@ -537,6 +668,11 @@ export default function ExploreTripsComponent() {
                       className="text-gray-500"
                       key={interest.interestId}>
                       {interest.name}
+                      {interestCounts[interest.interestId] !== undefined && (
+                        <span className="ml-1 text-gray-400">
+                          ({interestCounts[interest.interestId]})
+                        </span>
+                      )}
                     </label>
                   </div>
                 ))}
@@ -545,6 +681,63 @@ export default function ExploreTripsComponent() {
           </div>
         </div>
 
+        {/* Location filtering code */}
+        <div
+          id="locationFilterComponent"
+          className="border-t border-gray-200 px-4 py-6">
+          <h3 className="-mx-2 -my-3 flow-root">
+            <button
+              type="button"
+              className="flex w-full items-center justify-between bg-white px-2 py-3 text-gray-400 hover:text-gray-500"
+              onClick={() => toggleShowLocationDropdown()}>
+              <span className="font-medium text-gray-900">Location</span>
+              <span className="ml-6 flex items-center">
+                {showLocationDropdown ? (
+                  <FontAwesomeIcon icon={faMinus} />
+                ) : (
+                  <FontAwesomeIcon icon={faPlus} />
+                )}
+              </span>
+            </button>
+          </h3>
+          <div
+            className={`pt-6 ${showLocationDropdown ? "" : "hidden"}`}
+            id="locationFilters">
+            <input
+              type="search"
+              id="location-filter"
+              value={locationQuery}
+              onChange={(e) => setLocationQuery(e.target.value)}
+              className="bg-gray-50 border border-gray-300 text-gray-900 text-sm rounded-lg focus:ring-blue-500 focus:border-blue-500 block w-full p-2.5"
+              placeholder="Search locations"
+            />
+            {selectedLocation !== "" && (
+              <button
+                type="button"
+                onClick={() => handleLocationChange("")}
+                className="mt-2 text-sm text-blue-500 hover:underline">
+                Clear {selectedLocation}
+              </button>
+            )}
+            <ul className="mt-3 space-y-2 max-h-64 overflow-y-auto">
+              {locations.map((location) => (
+                <li key={location}>
+                  <button
+                    type="button"
+                    onClick={() => handleLocationChange(location)}
+                    className={`w-full text-left ${
+                      selectedLocation === location
+                        ? "font-medium text-gray-900"
+                        : "text-gray-500 hover:text-gray-900"
+                    }`}>
+                    {location}
+                  </button>
+                </li>
+              ))}
+            </ul>
+          </div>
+        </div>
+
         {/* Dates filtering code */}
         <div
           id="datesFilterComponent"
@@ -655,9 +848,9 @@ export default function ExploreTripsComponent() {
                 {(getUserTripStatus(trip.tripId) === "joined" ||
                   getUserTripStatus(trip.tripId) === "declined" ||
                   getUserTripStatus(trip.tripId) === "requested" ||
-                  trip.createdBy.email === session?.user?.email) && (
+                  trip.createdBy.username === session?.user?.username) && (
                   <span className="float-right flex items-center justify-center py-1 px-2 text-sm font-medium rounded border bg-gray-300 text-gray-700 border-gray-400">
-                    {trip.createdBy.email === session?.user?.email
+                    {trip.createdBy.username === session?.user?.username
                       ? "Created"
                       : getUserTripStatus(trip.tripId) === "joined"
                       ? "Joined"
@@ -677,7 +870,7 @@ export default function ExploreTripsComponent() {
                       : "bg-blue-500 text-white border-transparent hover:bg-blue-600"
                   } ${
                     getUserTripStatus(trip.tripId) ||
-                    trip.createdBy.email === session?.user?.email
+                    trip.createdBy.username === session?.user?.username
                       ? "hidden"
                       : ""
                   }`}>
@@ -738,6 +931,14 @@ export default function ExploreTripsComponent() {
               </div>
             </div>
           ))}
+          {nextAfter !== null && (
+            <button
+              onClick={loadMoreTrips}
+              disabled={isLoadingMore}
+              className="col-span-2 w-full p-2 text-blue-500 hover:underline text-sm">
+              {isLoadingMore ? "Loading..." : "Show more trips"}
+            </button>
+          )}
         </div>
       ) : (
         <p className="no-trips-msg">No results.</p>
@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from "react";
 import { signIn, signOut, useSession } from "next-auth/react";
+import { authHeaders } from "../../lib/backendAuth";
 import { useRouter } from "next/navigation";
 import "../../styles/Navbar.css";
 import { FontAwesomeIcon } from "@fortawesome/react-fontawesome";
@@ -32,12 +33,12 @@ const Navbar = () => {
 
   // Function to fetch notifications from the backend
   const fetchNotifications = async () => {
-    if (!session?.user?.email) return;
+    if (!session?.backendToken) return;
 
     try {
-      const response = await fetch(
-        `/backend/notifications?email=${session.user.email}`
-      );
+      const response = await fetch("/backend/notifications", {
+        headers: authHeaders(session),
+      });
 
       if (!response.ok) {
         throw new Error("Failed to fetch notifications");
@@ -73,6 +74,7 @@ const Navbar = () => {
           method: "PUT",
           headers: {
             "Content-Type": "application/json",
+            ...authHeaders(session),
           },
         }
       );
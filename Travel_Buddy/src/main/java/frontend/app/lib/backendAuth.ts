@@ -0,0 +1,8 @@
+import type { Session } from "next-auth";
+
+// Authorization header for backend calls made on behalf of the signed-in user. The session
+// token is issued by the backend at sign-in (X-Session-Token) and kept in the NextAuth session.
+export function authHeaders(session: Session | null | undefined): Record<string, string> {
+  const token = session?.backendToken;
+  return token ? { Authorization: `Bearer ${token}` } : {};
+}
@@ -1,6 +1,7 @@
 "use client";
 
 import { useSession } from "next-auth/react";
+import { authHeaders } from "../lib/backendAuth";
 import { useState, useEffect } from "react";
 import { useRouter } from "next/navigation";
 import Select from "react-select"; // Import React Select
@@ -22,6 +23,7 @@ interface UserData {
   interests?: string[];
   bio?: string;
   profilePicture?: string;
+  version?: number;
 }
 
 // Interface defining the structure of a post
@@ -117,8 +119,8 @@ export default function Profile() {
 
   // Fetch user trips when the session is available
   useEffect(() => {
-    if (session?.user?.email) {
-      fetch(`/backend/user-trips?email=${session.user.email}`)
+    if (session?.backendToken) {
+      fetch("/backend/user-trips", { headers: authHeaders(session) })
         .then((res) => res.json())
         .then((data) => setUserTrips(data))
         .catch((err) => console.error("Error fetching user trips:", err));
@@ -132,7 +134,7 @@ export default function Profile() {
         method: "GET",
         headers: {
           "Content-Type": "application/json",
-          Email: session?.user?.email || "",
+          ...authHeaders(session),
         },
       })
         .then((res) => res.json())
@@ -154,11 +156,20 @@ export default function Profile() {
         method: "PUT",
         headers: {
           "Content-Type": "application/json",
-          Email: session?.user?.email || "",
+          ...authHeaders(session),
+          // Rejected if the profile was saved elsewhere since it was loaded
+          ...(userData?.version !== undefined && {
+            "If-Match": `"${userData.version}"`,
+          }),
         },
         body: JSON.stringify(userData),
       });
 
+      if (res.status === 409 || res.status === 412) {
+        alert("Your profile was changed elsewhere. Reload the page and try again.");
+        return;
+      }
+
       if (!res.ok) {
         throw new Error("Failed to update profile");
       }
@@ -445,7 +456,7 @@ export default function Profile() {
             </div>
           </div>
 
-          <PostsComponent />
+          <PostsComponent userId={userData?.userId} />
         </div>
       </div>
 
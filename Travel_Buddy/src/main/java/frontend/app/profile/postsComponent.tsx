@@ -3,6 +3,7 @@
 import Navbar from "../layout/navbar/page";
 import Footer from "../layout/footer/page";
 import { useSession } from "next-auth/react";
+import { authHeaders } from "../lib/backendAuth";
 import { useState, useEffect } from "react";
 import { faStar, faPlus } from "@fortawesome/free-solid-svg-icons";
 import { FontAwesomeIcon } from "@fortawesome/react-fontawesome";
@@ -27,18 +28,32 @@ interface Post {
 
 interface Review {
   post: Post;
-  reviewer?:{
-    userId: number;
-  }  
   rating: number;
   comment: string;
 }
 
-interface User {
+// A review shown under a post, as returned with the profile's posts.
+interface PostReview {
+  postId: number;
+  reviewId: number;
+  reviewerId: number;
+  reviewerUsername: string;
+  reviewerName: string;
+  rating: number;
+  comment: string;
+}
+
+// The parts of /backend/profiles/{userId} this component shows.
+interface ProfileView {
+  posts: Post[];
+  nextPostsBefore: number | null;
+  postReviews: PostReview[];
+}
+
+interface DirectoryEntry {
   userId: number;
   username: string;
   name: string;
-  reviewScore: number;
 }
 
 interface UserTrip {
@@ -53,12 +68,19 @@ interface UserTrip {
   };
 }
 
-export default function PostsComponent() {
+const PAGE_SIZE = 10;
+
+// Posts of one user at a time, read page by page from their profile endpoint: the profile
+// owner's (`userId`) unless another user has been picked through the user search.
+export default function PostsComponent({ userId }: { userId?: number }) {
   const { data: session } = useSession();
+  const [viewedUser, setViewedUser] = useState<DirectoryEntry | null>(null);
+  const viewedUserId = viewedUser ? viewedUser.userId : userId ?? null;
   const [posts, setPosts] = useState<Post[]>([]);
-  const [filteredPosts, setFilteredPosts] = useState<Post[]>([]);
-  const [users, setUsers] = useState<User[]>([]);
-  const [reviews, setReviews] = useState<Review[]>([]);
+  const [postReviews, setPostReviews] = useState<PostReview[]>([]);
+  const [nextPostsBefore, setNextPostsBefore] = useState<number | null>(null);
+  const [userQuery, setUserQuery] = useState("");
+  const [userMatches, setUserMatches] = useState<DirectoryEntry[]>([]);
   const [userTrips, setUserTrips] = useState<UserTrip[]>([]);
   const [isLoading, setIsLoading] = useState(true);
   const [errorMessage, setErrorMessage] = useState<string | null>(null);
@@ -68,7 +90,6 @@ export default function PostsComponent() {
   const [selectedUserTripId, setSelectedUserTripId] = useState<number | null>(
     null
   );
-  const [selectedUserId, setSelectedUserId] = useState<number | null>(null);
   const [showPopup, setShowPopup] = useState(false);
   const [newReview, setNewReview] = useState<Review>({post: {postId: -1, caption: "", image: "", createdAt: ""}, rating: 0, comment: ""});
   const [isSubmitting, setIsSubmitting] = useState(false);
@@ -82,53 +103,18 @@ export default function PostsComponent() {
       
       (async () => {
         try {
+          // The reviewer is the signed-in user, identified by the session token
           const response = await fetch(`/backend/reviews`, { //upsert review
             method: "POST",
-            headers: { "Content-Type": "application/json" },
+            headers: { "Content-Type": "application/json", ...authHeaders(session) },
             body: JSON.stringify(newReview),
           });
     
           if (!response.ok) throw new Error("Failed to submit review");
           
-          const ratedUser = users.find((user) => user.userId === newReview.post.userTrip?.user.userId);
-
-          if (ratedUser !== undefined) {
-
-            const userPostIds = posts
-              .filter((post) => post.userTrip?.user.userId === ratedUser.userId)
-              .map((post) => post.postId);
-
-              let userRatingsSum = 0;
-            let count = 0;
-
-            for (let i = 0; i<reviews.length; i++) {
-              if (userPostIds.includes(reviews[i].post.postId)) {
-                userRatingsSum += reviews[i].rating;
-                count++;
-              }
-            }
-
-            ratedUser.reviewScore = count > 0 
-                                    ? Math.round(userRatingsSum / count) //average of all ratings of all of user's posts
-                                    : 0; 
-
-            const userResponse = await fetch('/backend/user', {
-              method: "PUT",
-              headers: {"Content-Type": "application/json", 
-                Id: ratedUser.userId.toString()
-              },
-              body: JSON.stringify(ratedUser)
-            });            
-          } 
-
-
-
-          if (!response.ok) throw new Error("Failed to update user rating.");
-
+          // The rated user's score is updated by the backend along with the review
           setShowPopup(false);
           fetchPosts();
-          fetchReviews();
-          fetchUsers();
           fetchUserTrips();
         } 
         catch (error) {
@@ -145,22 +131,13 @@ export default function PostsComponent() {
   const handleSubmit = async (e: React.FormEvent) => {
     e.preventDefault();
 
-    try {
-      setIsSubmitting(true);
-      const currUser = users.find( (user) => user.name === session?.user.name && user.username === session?.user.username);
-      
-      if (currUser === undefined) {
-        throw new Error("User not found. Cannot add review.");
-      }   
-
-      setNewReview((prev) => ({ ...prev, reviewer: {userId: currUser.userId}}));
-    }
-    catch (error) {
-      console.error("User not found. Cannot add review.", error);
-    }
-    finally {
+    if (!session?.backendToken) {
+      console.error("User not found. Cannot add review.");
       setShowPopup(false);
+      return;
     }
+    setIsSubmitting(true);
+    setShowPopup(false);
   };
 
   const onAddReviewClick = (postId: number) => {
@@ -174,23 +151,28 @@ export default function PostsComponent() {
     setNewReview((prev) => ({...prev, post: post}));
   }
 
-  const fetchPosts = async () => {
+  // One page of the viewed user's posts with their reviews, replacing the list or, with
+  // `before` (the last postId shown), appending the next page to it.
+  const fetchPosts = async (before: number | null = null) => {
+    if (viewedUserId === null) return;
     try {
-      const response = await fetch("/backend/posts", {
-        method: "GET",
-        headers: {
-          "Content-Type": "application/json",
-        },
-      });
+      const params = new URLSearchParams({ limit: String(PAGE_SIZE) });
+      if (before !== null) params.set("before", String(before));
+      const response = await fetch(`/backend/profiles/${viewedUserId}?${params}`);
 
       if (!response.ok) {
         throw new Error("Failed to fetch posts.");
       }
 
-      const data: Post[] = await response.json();
-      setPosts(data);
-      setFilteredPosts(data);
-      setErrorMessage(data.length === 0 ? "No posts available." : null);
+      const data: ProfileView = await response.json();
+      setPosts((previous) => (before !== null ? [...previous, ...data.posts] : data.posts));
+      setPostReviews((previous) =>
+        before !== null ? [...previous, ...data.postReviews] : data.postReviews
+      );
+      setNextPostsBefore(data.nextPostsBefore);
+      if (before === null) {
+        setErrorMessage(data.posts.length === 0 ? "No posts available." : null);
+      }
     } catch (error) {
       console.error("Error fetching posts:", error);
       setErrorMessage("An error occurred while fetching posts.");
@@ -199,36 +181,12 @@ export default function PostsComponent() {
     }
   };
 
-  const fetchUsers = async () => {
-    try {
-      const response = await fetch("/backend/users");
-      if (!response.ok) throw new Error("Failed to fetch users");
-
-      const data: User[] = await response.json();
-      setUsers(data);
-    } catch (error) {
-      console.error("Error fetching users:", error);
-    }
-  };
-
-  const fetchReviews = async () => {
-    try {
-      const response = await fetch("/backend/reviews");
-      if (!response.ok) throw new Error("Failed to fetch reviews");
-
-      const data: Review[] = await response.json();
-      setReviews(data);
-    } catch (error) {
-      console.error("Error fetching reviews:", error);
-    }
-  };
-
   const fetchUserTrips = async () => {
-    if (!session?.user?.email) return;
+    if (!session?.backendToken) return;
     try {
-      const response = await fetch(
-        `/backend/user-trips?email=${session.user.email}`
-      );
+      const response = await fetch("/backend/user-trips", {
+        headers: authHeaders(session),
+      });
       if (!response.ok) throw new Error("Failed to fetch user trips");
 
       const data: UserTrip[] = await response.json();
@@ -271,23 +229,11 @@ export default function PostsComponent() {
     }
   };
 
-  const handleFilterPosts = () => {
-    if (!selectedUserId) {
-      setFilteredPosts(posts);
-      return;
-    }
-
-    const userPosts = posts.filter(
-      (post) => post.userTrip?.user.userId === selectedUserId
-    );
-
-    if (userPosts.length === 0) {
-      setErrorMessage("No posts found for the selected user.");
-    } else {
-      setErrorMessage(null);
-    }
-
-    setFilteredPosts(userPosts);
+  // Shows the posts of a user picked from the search results, or the profile owner's again.
+  const selectUser = (entry: DirectoryEntry | null) => {
+    setViewedUser(entry);
+    setUserQuery("");
+    setUserMatches([]);
   };
 
   const toggleReviews = (postId: number) => {
@@ -334,12 +280,34 @@ export default function PostsComponent() {
 
 
   useEffect(() => {
-    fetchPosts();
-    fetchReviews();
-    fetchUsers();
     fetchUserTrips();
   }, [session]);
 
+  useEffect(() => {
+    fetchPosts();
+  }, [viewedUserId]);
+
+  // Search the user directory as the user types, waiting for a short pause between keystrokes
+  useEffect(() => {
+    if (userQuery.trim() === "") {
+      setUserMatches([]);
+      return;
+    }
+    const timeout = setTimeout(async () => {
+      try {
+        const params = new URLSearchParams({ q: userQuery.trim(), limit: "10" });
+        const response = await fetch(`/backend/users/search?${params}`);
+        if (!response.ok) throw new Error("Failed to search users");
+
+        const data: { users: DirectoryEntry[] } = await response.json();
+        setUserMatches(data.users);
+      } catch (error) {
+        console.error("Error searching users:", error);
+      }
+    }, 250);
+    return () => clearTimeout(timeout);
+  }, [userQuery]);
+
   return (
     <div className="mt-4 w-100">
       <div className="flex flex-col items-center">
@@ -347,32 +315,38 @@ export default function PostsComponent() {
 
           <div className="filters flex items-start">
             <label className="block mb-4 flex-auto">
-              Filter by User:
-              <select
-                value={selectedUserId || ""}
-                onChange={(e) =>
-                  setSelectedUserId(
-                    e.target.value ? Number(e.target.value) : null
-                  )
-                }
-                className="w-full p-2 border rounded-lg mt-1 bg-white text-black">
-                <option value="">Show all posts</option>
-                {users.map((user) => (
-                  <option
-                    key={user.userId}
-                    value={user.userId}
-                    className="text-black">
-                    {user.name} ({user.username})
-                  </option>
-                ))}
-              </select>
+              {viewedUser
+                ? `Showing posts by ${viewedUser.name} (${viewedUser.username})`
+                : "Show posts by another user:"}
+              <input
+                type="search"
+                value={userQuery}
+                onChange={(e) => setUserQuery(e.target.value)}
+                placeholder="Search users"
+                className="w-full p-2 border rounded-lg mt-1 bg-white text-black"
+              />
             </label>
-            <button
-              onClick={handleFilterPosts}
-              className="px-3 py-2 ml-2 mb-4 bg-blue-500 text-white rounded-lg hover:bg-blue-700 self-end">
-              Apply Filter
-            </button>
+            {viewedUser && (
+              <button
+                onClick={() => selectUser(null)}
+                className="px-3 py-2 ml-2 mb-4 bg-blue-500 text-white rounded-lg hover:bg-blue-700 self-end">
+                My Posts
+              </button>
+            )}
           </div>
+          {userMatches.length > 0 && (
+            <ul className="mb-4 border rounded-lg bg-white text-black">
+              {userMatches.map((entry) => (
+                <li key={entry.userId}>
+                  <button
+                    onClick={() => selectUser(entry)}
+                    className="w-full text-left px-3 py-2 hover:bg-gray-100">
+                    {entry.name} ({entry.username})
+                  </button>
+                </li>
+              ))}
+            </ul>
+          )}
 
           {isLoading ? (
             <p className="loading-msg text-center text-xl font-semibold">
@@ -382,9 +356,9 @@ export default function PostsComponent() {
             <p className="error-msg text-center text-xl text-red-300">
               {errorMessage}
             </p>
-          ) : filteredPosts.length > 0 ? (
+          ) : posts.length > 0 ? (
             <div className="posts-list columns-2 gap-4 space-y-4">
-              {filteredPosts.map((post) => (
+              {posts.map((post) => (
                 <div key={post.postId}
                      className="post-card custom-scrollbar flex flex-col items-start p-[23px] rounded-xl shadow-lg bg-white text-black break-inside-avoid border border-gray-200 relative"> 
 
@@ -495,15 +469,13 @@ export default function PostsComponent() {
                       id={`reviews-list-${post.postId}`}
                       className="reviews-list mt-4 relat" >
 
-                      {reviews
-                        .filter((review) => review.post.postId === post.postId)
+                      {postReviews
+                        .filter((review) => review.postId === post.postId)
                         .map((review) => {
-                          const reviewer = users.find((user) => user.userId === review.reviewer?.userId);
-
                           return (
-                            <div className="review-item mb-3">
+                            <div key={review.reviewId} className="review-item mb-3">
                               <div className="reviewer text-sm font-semibold text-gray-700">
-                                {reviewer ? `${reviewer.name} - ${reviewer.username}` : "User not found"}
+                                {`${review.reviewerName} - ${review.reviewerUsername}`}
                               </div>
                               <div className="rating text-sm">
                                 {renderStars(review.rating)}
@@ -524,6 +496,13 @@ export default function PostsComponent() {
           ) : (
             <p className="no-posts-msg text-center text-xl">No posts found.</p>
           )}
+          {!errorMessage && nextPostsBefore !== null && (
+            <button
+              onClick={() => fetchPosts(nextPostsBefore)}
+              className="w-full mt-4 p-2 text-blue-500 hover:underline text-sm">
+              Show more posts
+            </button>
+          )}
 
         </div>
       </div>
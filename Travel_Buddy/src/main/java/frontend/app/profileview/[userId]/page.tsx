@@ -13,6 +13,21 @@ interface UserProfile {
   reviewsCount: number;
 }
 
+// Response of GET /backend/profiles/{userId}
+interface ProfileResponse {
+  user: {
+    userId: number;
+    username: string;
+    profilePicture: string;
+    name: string;
+    bio: string;
+  };
+  postCount: number;
+  reviews: {
+    count: number;
+  };
+}
+
 export default function ProfileView() {
   const router = useRouter();
   const { userId } = useParams();
@@ -23,10 +38,15 @@ export default function ProfileView() {
   useEffect(() => {
     const fetchUserProfile = async () => {
       try {
-        const response = await fetch(`/backend/user/${parsedUserId}`);
+        // Profile, post count and review count in one request
+        const response = await fetch(`/backend/profiles/${parsedUserId}?limit=1`);
         if (!response.ok) throw new Error("Failed to fetch user profile");
-        const data: UserProfile = await response.json();
-        setUserProfile(data);
+        const data: ProfileResponse = await response.json();
+        setUserProfile({
+          ...data.user,
+          postsCount: data.postCount,
+          reviewsCount: data.reviews.count,
+        });
       } catch (error) {
         console.error("Error fetching user profile:", error);
       } finally {
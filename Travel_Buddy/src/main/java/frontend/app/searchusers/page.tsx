@@ -1,12 +1,10 @@
 "use client";
 
 import { useState, useEffect } from "react";
-import { useRouter } from "next/navigation";
 import Navbar from "../layout/navbar/page";
 import Footer from "../layout/footer/page";
 import { faStar } from "@fortawesome/free-solid-svg-icons";
 import { FontAwesomeIcon } from "@fortawesome/react-fontawesome";
-import { useSession } from "next-auth/react";
 
 // Updated User Interface
 interface UserProfile {
@@ -27,157 +25,68 @@ interface Post {
   caption: string;
   image: string;
   createdAt: string;
-  userTrip?: {
-    user: {
-      userId: number;
-      username: string;
-      name: string;
-      profilePicture: string;
-    };
-    trip: {
-      location: string;
-    };
-  };
 }
 
-// interface Post {
-//   postId: number;
-//   usertripId: number | null;
-//   caption: string;
-//   image: string;
-//   createdAt: string;
-// }
+// One row of GET /backend/users/search
+interface DirectoryEntry {
+  userId: number;
+  username: string;
+  name: string;
+  profilePicture: string | null;
+  averageRating: number | null;
+  reviewCount: number;
+}
 
-interface Review {
-  post: Post;
-  reviewer?:{
-    userId: number;
-  }  
-  rating: number;
-  comment: string;
+interface DirectoryPage {
+  users: DirectoryEntry[];
+  nextCursor: string | null;
 }
 
+const PAGE_SIZE = 20;
+
 export default function SearchUsers() {
-  const { data: session } = useSession();
-  const [users, setUsers] = useState<UserProfile[]>([]);
   const [searchQuery, setSearchQuery] = useState("");
-  const [filteredUsers, setFilteredUsers] = useState<UserProfile[]>([]);
+  const [results, setResults] = useState<DirectoryEntry[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [selectedUser, setSelectedUser] = useState<UserProfile | null>(null);
   const [isLoading, setIsLoading] = useState(true);
   const [userPosts, setUserPosts] = useState<Post[]>([]);
-  const router = useRouter();
-  const [posts, setPosts] = useState<Post[]>([]);
-  const [reviews, setReviews] = useState<Review[]>([]);
-
-  useEffect(() => {
-    fetchPosts();
-    fetchReviews();
-  }, [session]);
-
-  useEffect(() => {
-
-    const setUserReviewScores = async () => { // Updates the reviewScores of the users pre-populated in the database (calculates the average of their pre-populated ratings).
-                                              // This function will not be needed in a production version, as there will be no (pre-populated) dummy data, 
-                                              //    and reviewScores are re-calculated every time someone leaves a review.
-      for (let i = 0; i < users.length; i++) {
-        let user = users[i];
-  
-        if (user !== undefined) {
-  
-          const userPostIds = posts
-            .filter((post) => post.userTrip?.user.userId === user.userId)
-            .map((post) => post.postId);
-  
-          let userRatingsSum = 0;
-          let count = 0;
-  
-          for (let i = 0; i<reviews.length; i++) {
-            if (userPostIds.includes(reviews[i].post.postId)) {
-              userRatingsSum += reviews[i].rating;
-              count++;
-            }
-          }
-  
-          user.reviewScore = count > 0 
-                                  ? Math.round(userRatingsSum / count) //average of all ratings of all of user's posts
-                                  : 0; 
-  
-          const userResponse = await fetch('/backend/user', {
-            method: "PUT",
-            headers: {"Content-Type": "application/json", 
-              Id: user.userId.toString()
-            },
-            body: JSON.stringify(user)
-          });            
-        } 
-      }
-    }
-
-    setUserReviewScores();
-    
-  }, [posts, reviews]);
 
-  useEffect(() => {
-    const fetchUsers = async () => {
-      try {
-        const response = await fetch("/backend/users");
-        if (!response.ok) throw new Error("Failed to fetch users");
-        const data: UserProfile[] = await response.json();
-        setUsers(data);
-        setFilteredUsers(data);
-      } 
-      catch (error) {
-        console.error("Error fetching users:", error);
-      } 
-      finally {
-        setIsLoading(false);
-      }
-    };
-    fetchUsers();
-  }, []);
-
-  const fetchReviews = async () => {
+  // One page of matches from the server, replacing the results or appending to them
+  const fetchResults = async (query: string, cursor: string | null) => {
+    setIsLoading(true);
     try {
-      const response = await fetch("/backend/reviews");
-      if (!response.ok) throw new Error("Failed to fetch reviews");
-
-      const data: Review[] = await response.json();
-      setReviews(data);
+      const params = new URLSearchParams({ q: query, limit: PAGE_SIZE.toString() });
+      if (cursor) params.set("cursor", cursor);
+      const response = await fetch(`/backend/users/search?${params}`);
+      if (!response.ok) throw new Error("Failed to search users");
+      const data: DirectoryPage = await response.json();
+      setResults((previous) => (cursor ? [...previous, ...data.users] : data.users));
+      setNextCursor(data.nextCursor);
     } catch (error) {
-      console.error("Error fetching reviews:", error);
+      console.error("Error searching users:", error);
+    } finally {
+      setIsLoading(false);
     }
   };
 
+  // Search as the user types, waiting for a short pause between keystrokes
   useEffect(() => {
-    const query = searchQuery.toLowerCase();
-    setFilteredUsers(
-      users.filter(
-        (user) =>
-          user.name.toLowerCase().includes(query) ||
-          user.username.toLowerCase().includes(query)
-      )
-    );
-  }, [searchQuery, users]);
+    const timeout = setTimeout(() => fetchResults(searchQuery.trim(), null), 250);
+    return () => clearTimeout(timeout);
+  }, [searchQuery]);
 
-  const fetchPosts = async () => {
+  const selectUser = async (entry: DirectoryEntry) => {
     try {
-      const response = await fetch("/backend/posts", {
-        method: "GET",
-        headers: {
-          "Content-Type": "application/json",
-        },
-      });
-
-      if (!response.ok) {
-        throw new Error("Failed to fetch posts.");
-      }
-
-      const data: Post[] = await response.json();
-      setPosts(data);
+      const response = await fetch(`/backend/user/${entry.userId}`);
+      if (!response.ok) throw new Error("Failed to fetch user");
+      const profile: UserProfile = await response.json();
+      // Ratings come from the directory row, so they are current without recalculating here
+      profile.reviewScore = Math.round(entry.averageRating ?? 0);
+      setSelectedUser(profile);
+      fetchUserPosts(entry.userId);
     } catch (error) {
-      console.error("Error fetching posts:", error);
-    } finally {
-      setIsLoading(false);
+      console.error("Error fetching user:", error);
     }
   };
 
@@ -288,19 +197,13 @@ export default function SearchUsers() {
               onChange={(e) => setSearchQuery(e.target.value)}
               className="w-full mt-4 p-3 border border-gray-300 rounded-lg focus:ring focus:ring-blue-300"
             />
-            {isLoading ? (
-              <p className="text-center text-gray-600 mt-4">Loading users...</p>
-            ) : filteredUsers.length > 0 ? (
+            {results.length > 0 ? (
               <ul className="mt-4 divide-y divide-gray-200">
-                {filteredUsers.map((user) => (
+                {results.map((user) => (
                   <li
                     key={user.userId}
                     className="flex items-center p-3 cursor-pointer hover:bg-gray-100 rounded-lg transition"
-                    onClick={() => {
-                      console.log(user)
-                      setSelectedUser(user);
-                      fetchUserPosts(user.userId);
-                    }}
+                    onClick={() => selectUser(user)}
                   >
                     <img
                       className="w-12 h-12 rounded-full border border-gray-300 mr-4"
@@ -314,9 +217,20 @@ export default function SearchUsers() {
                   </li>
                 ))}
               </ul>
+            ) : isLoading ? (
+              <p className="text-center text-gray-600 mt-4">Loading users...</p>
             ) : (
               <p className="text-center text-gray-600 mt-4">No users found.</p>
             )}
+            {nextCursor && (
+              <button
+                onClick={() => fetchResults(searchQuery.trim(), nextCursor)}
+                disabled={isLoading}
+                className="w-full mt-4 p-2 text-blue-500 hover:underline text-sm"
+              >
+                {isLoading ? "Loading..." : "Show more"}
+              </button>
+            )}
           </>
         )}
       </div>
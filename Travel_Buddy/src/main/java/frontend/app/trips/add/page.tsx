@@ -4,6 +4,7 @@ import NavbarLayout from "../../components/NavbarLayout";
 import { useState, useEffect, useCallback } from "react";
 import { useRouter } from "next/navigation";
 import { useSession } from "next-auth/react";
+import { authHeaders } from "../../lib/backendAuth";
 import Navbar from "../../layout/navbar/page";
 import Footer from "../../layout/footer/page";
 import Select from "react-select";
@@ -29,6 +30,7 @@ export default function AddTrip() {
     startDate: "",
     endDate: "",
     description: "",
+    capacity: "",
     interestIds: [] as number[],
   });
 
@@ -112,18 +114,17 @@ export default function AddTrip() {
     }
 
     try {
-      // Add the email of the user creating the trip.
-      // FIXME: This could be added to the `trip` state.
+      // The creator is the signed-in user, identified by the session token
       const tripData = {
         ...trip,
-        createdByEmail: session?.user?.email,
+        capacity: trip.capacity === "" ? null : Number(trip.capacity), // Empty means no limit
       };
   
       console.log("Sending trip data to backend:", tripData);
   
       const tripResponse = await fetch("/backend/trips", {
         method: "POST",
-        headers: { "Content-Type": "application/json" },
+        headers: { "Content-Type": "application/json", ...authHeaders(session) },
         body: JSON.stringify(tripData),
       });
   
@@ -278,6 +279,19 @@ export default function AddTrip() {
               />
             </div>
 
+            <div className="form-group">
+              <label htmlFor="capacity">Companions (leave empty for no limit):</label>
+              <input
+                type="number"
+                id="capacity"
+                name="capacity"
+                min="1"
+                value={trip.capacity}
+                onChange={handleChange}
+                placeholder="Maximum number of companions"
+              />
+            </div>
+
             {/* Interests Dropdown */}
             <div className="form-group">
               <label>Interests</label>
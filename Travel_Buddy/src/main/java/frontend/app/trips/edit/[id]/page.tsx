@@ -12,6 +12,7 @@ interface Trip {
   endDate: string;
   description: string;
   interests: { interestId: number; name: string }[];
+  version: number;
 }
 
 export default function EditTrip({ params }: { params: { id: string } }) {
@@ -56,11 +57,22 @@ export default function EditTrip({ params }: { params: { id: string } }) {
         `/backend/trips/${params.id}`,
         {
           method: "PUT",
-          headers: { "Content-Type": "application/json" },
+          headers: {
+            "Content-Type": "application/json",
+            // Rejected if the trip was saved by someone else since it was loaded
+            ...(trip && { "If-Match": `"${trip.version}"` }),
+          },
           body: JSON.stringify(trip),
         }
       );
 
+      if (response.status === 409 || response.status === 412) {
+        setErrorMessage(
+          "This trip was changed in the meantime. Reload the page and try again."
+        );
+        return;
+      }
+
       if (response.status === 200) {
         alert("Trip updated successfully!");
         router.push("/trips/mytrips");
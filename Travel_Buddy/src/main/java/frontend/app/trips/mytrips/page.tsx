@@ -6,42 +6,60 @@ import Footer from "../../layout/footer/page";
 import { useRouter } from "next/navigation";
 import { useState, useEffect } from "react";
 import { useSession } from "next-auth/react";
+import { authHeaders } from "../../lib/backendAuth";
 import moment from "moment";
 import { FontAwesomeIcon } from "@fortawesome/react-fontawesome";
-import { faE, faEdit, faTrash } from "@fortawesome/free-solid-svg-icons";
-import Slider from "react-slick";
-import "slick-carousel/slick/slick.css";
-import "slick-carousel/slick/slick-theme.css";
+import { faEdit, faTrash } from "@fortawesome/free-solid-svg-icons";
 
-// Define the Trip interface
+// One of the user's trips as listed by /backend/my-trips: their membership with the trip card
+// fields, a cover image and the creator. Trips they created have status "created".
 interface Trip {
+  userTripId: number;
+  role: string;
+  status: string;
   tripId: number;
   location: string;
   startDate: string;
   endDate: string;
   description: string;
-  interests: { interestId: number; name: string }[];
-  images: string[]; // Add images array
+  coverImage: string | null;
+  creatorId: number | null;
+  creatorUsername: string | null;
+  creatorName: string | null;
+}
+
+// One page of /backend/my-trips; pass `nextCursor` back as `cursor` for the next page
+interface MyTripsPage {
+  scope: string;
+  trips: Trip[];
+  nextCursor: string | null;
 }
 
+type Scope = "upcoming" | "completed";
+
+const PAGE_SIZE = 20;
+
 // Define the Request interface
 interface Request {
   userTripId: number;
   username: string;
   status: string;
   userId: number;
+  version: number;
 }
 
 // Main component for displaying user's trips
 export default function MyTrips() {
   const { data: session } = useSession(); // Get session data
   const router = useRouter(); // Initialize router
+  const [scope, setScope] = useState<Scope>("upcoming"); // Upcoming or completed trips
   const [trips, setTrips] = useState<Trip[]>([]); // State for storing trips
+  const [nextCursor, setNextCursor] = useState<string | null>(null); // Cursor of the next page
   const [requests, setRequests] = useState<{ [tripId: number]: Request[] }>({}); // State for storing requests
   const [isLoading, setIsLoading] = useState(true); // State for loading status
   const [errorMessage, setErrorMessage] = useState<string | null>(null); // State for error messages
 
-  // Function to fetch requests for each trip
+  // Function to fetch the requests of the given trips, keeping those already loaded for others
   const fetchRequests = async (tripIds: number[]) => {
     try {
       const requestsByTrip: { [tripId: number]: Request[] } = {};
@@ -54,51 +72,61 @@ export default function MyTrips() {
         const data: Request[] = await response.json();
         requestsByTrip[tripId] = data;
       }
-      setRequests(requestsByTrip);
+      setRequests((previous) => ({ ...previous, ...requestsByTrip }));
     } catch (error) {
       console.error("Error fetching requests:", error);
     }
   };
 
-  // useEffect to fetch trips when the component mounts or session changes
-  useEffect(() => {
-    const fetchTrips = async () => {
-      try {
-        const response = await fetch("/backend/trips/created", {
-          method: "GET",
-          headers: {
-            "Content-Type": "application/json",
-            Email: session?.user?.email || "",
-          },
-        });
+  // Fetch one page of the user's trips in the given scope, replacing the list or appending to
+  // it; the requests are only loaded for the trips the user created
+  const fetchTrips = async (tripScope: Scope, cursor: string | null) => {
+    setIsLoading(true);
+    try {
+      const params = new URLSearchParams({ scope: tripScope, limit: PAGE_SIZE.toString() });
+      if (cursor) params.set("cursor", cursor);
+      const response = await fetch(`/backend/my-trips?${params}`, {
+        method: "GET",
+        headers: {
+          "Content-Type": "application/json",
+          ...authHeaders(session),
+        },
+      });
 
-        if (!response.ok) {
-          throw new Error("Failed to fetch trips.");
-        }
+      if (!response.ok) {
+        throw new Error("Failed to fetch trips.");
+      }
 
-        const data: Trip[] = await response.json();
+      const data: MyTripsPage = await response.json();
+      setTrips((previous) => (cursor ? [...previous, ...data.trips] : data.trips));
+      setNextCursor(data.nextCursor);
 
-        if (data.length === 0) {
-          setErrorMessage(
-            `You (${session?.user?.username || "User"}) with email (${
-              session?.user?.email || "unknown"
-            }) have no trips posted.`
-          );
-        } else {
-          setTrips(data);
-          setErrorMessage(null);
-          await fetchRequests(data.map((trip) => trip.tripId));
-        }
-      } catch (error) {
-        console.error("Error fetching trips:", error);
-        setErrorMessage("An error occurred while fetching trips.");
-      } finally {
-        setIsLoading(false);
+      if (!cursor && data.trips.length === 0) {
+        setErrorMessage(
+          `You (${session?.user?.username || "User"}) with email (${
+            session?.user?.email || "unknown"
+          }) have no ${tripScope} trips.`
+        );
+      } else {
+        setErrorMessage(null);
+        await fetchRequests(
+          data.trips.filter((trip) => trip.status === "created").map((trip) => trip.tripId)
+        );
       }
-    };
+    } catch (error) {
+      console.error("Error fetching trips:", error);
+      setErrorMessage("An error occurred while fetching trips.");
+    } finally {
+      setIsLoading(false);
+    }
+  };
 
-    fetchTrips();
-  }, [session]);
+  // useEffect to fetch the first page when the component mounts, the session or the scope changes
+  useEffect(() => {
+    if (!session) return;
+    setRequests({});
+    fetchTrips(scope, null);
+  }, [session, scope]);
 
   // Function to handle editing a trip
   const handleEditTrip = (tripId: number) => {
@@ -115,7 +143,7 @@ export default function MyTrips() {
         method: "DELETE",
         headers: {
           "Content-Type": "application/json",
-          Email: session?.user?.email || "", // Include email from session
+          ...authHeaders(session),
         },
       });
 
@@ -132,16 +160,30 @@ export default function MyTrips() {
   };
 
   // Function to handle request actions (accept/decline)
-  const handleRequestAction = async (userTripId: number, status: string) => {
+  const handleRequestAction = async (
+    tripId: number,
+    userTripId: number,
+    status: string,
+    version: number
+  ) => {
     try {
       const response = await fetch(`/backend/user-trips/${userTripId}`, {
         method: "PUT",
         headers: {
           "Content-Type": "application/json",
+          ...authHeaders(session),
+          // Only applied if nobody reviewed the request since it was loaded
+          "If-Match": `"${version}"`,
         },
         body: JSON.stringify({ status }),
       });
 
+      if (response.status === 409 || response.status === 412) {
+        alert("This request was changed in the meantime. The list has been refreshed.");
+        await fetchRequests([tripId]);
+        return;
+      }
+
       if (!response.ok) {
         const errorText = await response.text();
         console.error("Backend error:", errorText);
@@ -149,14 +191,40 @@ export default function MyTrips() {
       }
 
       alert(`Request status updated to ${status}.`);
-      const updatedTrips = trips.map((trip) => trip.tripId);
-      await fetchRequests(updatedTrips);
+      await fetchRequests([tripId]);
     } catch (error) {
       console.error("Error updating request status:", error);
       alert("An error occurred while updating the request status.");
     }
   };
 
+  // Function to accept or decline every pending request of a trip in one call
+  const handleBulkRequestAction = async (tripId: number, status: string) => {
+    try {
+      const response = await fetch(`/backend/trips/${tripId}/requests`, {
+        method: "PUT",
+        headers: {
+          "Content-Type": "application/json",
+          ...authHeaders(session),
+        },
+        body: JSON.stringify({ status, all: true }),
+      });
+
+      if (!response.ok) {
+        const errorText = await response.text();
+        console.error("Backend error:", errorText);
+        throw new Error("Failed to update the request statuses.");
+      }
+
+      const { updated } = await response.json();
+      alert(`${updated} request(s) updated to ${status}.`);
+      await fetchRequests([tripId]);
+    } catch (error) {
+      console.error("Error updating request statuses:", error);
+      alert("An error occurred while updating the request statuses.");
+    }
+  };
+
   // Render the component
   return (
     <div className="mt-16">
@@ -166,7 +234,21 @@ export default function MyTrips() {
           <h1 className="title text-center text-4xl font-bold mb-8">
             My Trips
           </h1>
-          {isLoading ? (
+          <div className="scope-tabs flex justify-center space-x-3 mb-8">
+            {(["upcoming", "completed"] as Scope[]).map((tab) => (
+              <button
+                key={tab}
+                onClick={() => setScope(tab)}
+                className={`px-4 py-2 rounded-lg capitalize ${
+                  scope === tab
+                    ? "bg-blue-600 text-white"
+                    : "bg-gray-200 text-gray-700 hover:bg-gray-300"
+                }`}>
+                {tab}
+              </button>
+            ))}
+          </div>
+          {isLoading && trips.length === 0 ? (
             <p className="loading-msg text-center text-xl font-semibold">
               Loading trips...
             </p>
@@ -178,24 +260,30 @@ export default function MyTrips() {
             <div className="trip-list space-y-6">
               {trips.map((trip) => (
                 <div
-                  key={trip.tripId}
+                  key={trip.userTripId}
                   className="block mb-3.5 w-full rounded-lg border border-gray-300 bg-white shadow-lg p-6">
                   <div className="flex justify-between items-center border-b border-gray-300 px-6 py-3 text-black">
                     <span className="trip-location text-2xl">
                       {trip.location}
                     </span>
-                    <span className="flex space-x-3">
-                      <button
-                        onClick={() => handleDeleteTrip(trip.tripId)}
-                        className="px-3 py-1 text-red-600 text-lg rounded-lg hover:bg-red-700 hover:text-white">
-                        <FontAwesomeIcon icon={faTrash} />
-                      </button>
-                      <button
-                        onClick={() => handleEditTrip(trip.tripId)}
-                        className="px-3 py-1 text-blue-600 text-lg rounded-lg hover:bg-blue-600 hover:text-white">
-                        <FontAwesomeIcon icon={faEdit} />
-                      </button>
-                    </span>
+                    {trip.status === "created" ? (
+                      <span className="flex space-x-3">
+                        <button
+                          onClick={() => handleDeleteTrip(trip.tripId)}
+                          className="px-3 py-1 text-red-600 text-lg rounded-lg hover:bg-red-700 hover:text-white">
+                          <FontAwesomeIcon icon={faTrash} />
+                        </button>
+                        <button
+                          onClick={() => handleEditTrip(trip.tripId)}
+                          className="px-3 py-1 text-blue-600 text-lg rounded-lg hover:bg-blue-600 hover:text-white">
+                          <FontAwesomeIcon icon={faEdit} />
+                        </button>
+                      </span>
+                    ) : (
+                      <span className="trip-status text-sm capitalize px-3 py-1 rounded-lg bg-gray-200 text-gray-700">
+                        {trip.status}
+                      </span>
+                    )}
                   </div>
 
                   <div className="flex justify-between p-6">
@@ -207,112 +295,116 @@ export default function MyTrips() {
                       <p className="description text-gray-700 mb-4">
                         {trip.description}
                       </p>
-                      {trip.interests && trip.interests.length > 0 && (
-                        <div className="interests text-gray-700">
-                          <h3 className="font-semibold mb-2">Interests:</h3>
-                          <ul className="list-disc ml-6">
-                            {trip.interests.map((interest) => (
-                              <li key={interest.interestId}>{interest.name}</li>
-                            ))}
-                          </ul>
-                        </div>
+                      {trip.status !== "created" && trip.creatorUsername && (
+                        <p className="creator text-gray-600">
+                          Organised by {trip.creatorName || trip.creatorUsername}
+                        </p>
                       )}
                     </div>
 
-                    {/* Carousel for Trip Images */}
-                    {trip.images && trip.images.length > 0 && (
-                      <div className="carousel-container w-2/5 pr-6">
-                        {" "}
-                        {/* Added pr-6 to move it left */}
-                        {trip.images.length > 1 ? (
-                          <Slider
-                            dots={true}
-                            infinite={true}
-                            speed={500}
-                            slidesToShow={1}
-                            slidesToScroll={1}>
-                            {trip.images.map((image, index) => (
-                              <div key={index} className="pl-2">
-                                {" "}
-                                {/* Added pl-2 to move images left */}
-                                <img
-                                  src={image}
-                                  alt={`Trip ${trip.tripId} Image ${index + 1}`}
-                                  className="rounded-lg w-full h-48 object-cover"
-                                />
-                              </div>
-                            ))}
-                          </Slider>
-                        ) : (
-                          <div className="pl-2">
-                            {" "}
-                            {/* Added pl-2 to move single image left */}
-                            <img
-                              src={trip.images[0]}
-                              alt={`Trip ${trip.tripId} Image`}
-                              className="rounded-lg w-full h-48 object-cover"
-                            />
-                          </div>
-                        )}
+                    {/* Cover image of the trip */}
+                    {trip.coverImage && (
+                      <div className="cover-container w-2/5 pr-6">
+                        <div className="pl-2">
+                          <img
+                            src={trip.coverImage}
+                            alt={`Trip ${trip.tripId} Image`}
+                            className="rounded-lg w-full h-48 object-cover"
+                          />
+                        </div>
                       </div>
                     )}
 
-                    <div className="requests-section w-2/5 bg-gray-100 p-4 rounded-lg">
-                      <h3 className="requests-title text-lg font-bold mb-4 text-blue-800">
-                        Requests
-                      </h3>
-                      {requests[trip.tripId]?.filter(
-                        (req) => req.status !== "created"
-                      ).length > 0 ? (
-                        <ul className="space-y-2">
-                          {requests[trip.tripId]
-                            .filter((req) => req.status !== "created")
-                            .map((req) => (
-                              <li
-                                key={req.userTripId}
-                                className="request-item flex justify-between items-center bg-gray-200 p-3 rounded-lg">
-                                <div>
-                                  <span className="username font-semibold">
-                                    {req.username}
-                                  </span>{" "}
-                                  <span className="status text-sm">
-                                    ({req.status})
-                                  </span>
-                                </div>
-                                {req.status === "requested" && (
-                                  <div className="actions flex space-x-2">
-                                    <button
-                                      onClick={() =>
-                                        handleRequestAction(
-                                          req.userTripId,
-                                          "joined"
-                                        )
-                                      }
-                                      className="px-3 py-1 bg-green-500 text-white rounded-lg hover:bg-green-700">
-                                      Accept
-                                    </button>
-                                    <button
-                                      onClick={() =>
-                                        handleRequestAction(
-                                          req.userTripId,
-                                          "declined"
-                                        )
-                                      }
-                                      className="px-3 py-1 bg-red-500 text-white rounded-lg hover:bg-red-700">
-                                      Decline
-                                    </button>
+                    {trip.status === "created" && (
+                      <div className="requests-section w-2/5 bg-gray-100 p-4 rounded-lg">
+                        <h3 className="requests-title text-lg font-bold mb-4 text-blue-800">
+                          Requests
+                        </h3>
+                        {requests[trip.tripId]?.filter(
+                          (req) => req.status === "requested"
+                        ).length > 1 && (
+                          <div className="bulk-actions flex space-x-2 mb-4">
+                            <button
+                              onClick={() =>
+                                handleBulkRequestAction(trip.tripId, "joined")
+                              }
+                              className="px-3 py-1 bg-green-500 text-white rounded-lg hover:bg-green-700">
+                              Accept all
+                            </button>
+                            <button
+                              onClick={() =>
+                                handleBulkRequestAction(trip.tripId, "declined")
+                              }
+                              className="px-3 py-1 bg-red-500 text-white rounded-lg hover:bg-red-700">
+                              Decline all
+                            </button>
+                          </div>
+                        )}
+                        {requests[trip.tripId]?.filter(
+                          (req) => req.status !== "created"
+                        ).length > 0 ? (
+                          <ul className="space-y-2">
+                            {requests[trip.tripId]
+                              .filter((req) => req.status !== "created")
+                              .map((req) => (
+                                <li
+                                  key={req.userTripId}
+                                  className="request-item flex justify-between items-center bg-gray-200 p-3 rounded-lg">
+                                  <div>
+                                    <span className="username font-semibold">
+                                      {req.username}
+                                    </span>{" "}
+                                    <span className="status text-sm">
+                                      ({req.status})
+                                    </span>
                                   </div>
-                                )}
-                              </li>
-                            ))}
-                        </ul>
-                      ) : (
-                        <p className="text-gray-500">No requests.</p>
-                      )}
-                    </div>
+                                  {req.status === "requested" && (
+                                    <div className="actions flex space-x-2">
+                                      <button
+                                        onClick={() =>
+                                          handleRequestAction(
+                                            trip.tripId,
+                                            req.userTripId,
+                                            "joined",
+                                            req.version
+                                          )
+                                        }
+                                        className="px-3 py-1 bg-green-500 text-white rounded-lg hover:bg-green-700">
+                                        Accept
+                                      </button>
+                                      <button
+                                        onClick={() =>
+                                          handleRequestAction(
+                                            trip.tripId,
+                                            req.userTripId,
+                                            "declined",
+                                            req.version
+                                          )
+                                        }
+                                        className="px-3 py-1 bg-red-500 text-white rounded-lg hover:bg-red-700">
+                                        Decline
+                                      </button>
+                                    </div>
+                                  )}
+                                </li>
+                              ))}
+                          </ul>
+                        ) : (
+                          <p className="text-gray-500">No requests.</p>
+                        )}
+                      </div>
+                    )}
                   </div>
                 </div>
               ))}
+              {nextCursor && (
+                <button
+                  onClick={() => fetchTrips(scope, nextCursor)}
+                  disabled={isLoading}
+                  className="w-full mt-4 p-2 text-blue-500 hover:underline">
+                  {isLoading ? "Loading..." : "Show more trips"}
+                </button>
+              )}
             </div>
           ) : (
             <p className="no-trips-msg text-center text-xl">No trips found.</p>
@@ -6,6 +6,7 @@ import { useState, useEffect } from "react";
 import Navbar from "../../layout/navbar/page";
 import Footer from "../../layout/footer/page";
 import { useSession } from "next-auth/react";
+import { authHeaders } from "../../lib/backendAuth";
 
 interface Trip {
   tripId: number;
@@ -14,7 +15,7 @@ interface Trip {
   endDate: string;
   description: string;
   interests: { interestId: number; name: string }[];
-  createdBy: { email: string }; // Creator of the trip
+  createdBy: { username: string }; // Creator of the trip
 }
 
 interface UserTrip {
@@ -65,11 +66,11 @@ export default function ViewTrips() {
     };
 
     const fetchUserTrips = async () => {
-      if (!session?.user?.email) return;
+      if (!session?.backendToken) return;
       try {
-        const response = await fetch(
-          `/backend/user-trips?email=${session.user.email}`
-        );
+        const response = await fetch("/backend/user-trips", {
+          headers: authHeaders(session),
+        });
         if (!response.ok) throw new Error("Failed to fetch user trips");
 
         const data = await response.json();
@@ -87,7 +88,6 @@ export default function ViewTrips() {
     try {
       const payload = {
         tripId,
-        userEmail: session?.user?.email,
         status: "requested",
       };
   
@@ -97,6 +97,7 @@ export default function ViewTrips() {
         method: "POST",
         headers: {
           "Content-Type": "application/json",
+          ...authHeaders(session),
         },
         body: JSON.stringify(payload),
       });
@@ -287,7 +288,7 @@ export default function ViewTrips() {
                       </ul>
                     </div>
                   )}
-                  {trip.createdBy.email !== session?.user?.email && (
+                  {trip.createdBy.username !== session?.user?.username && (
                     <button
                       onClick={() => handleJoinTrip(trip.tripId)}
                       className="join-button"
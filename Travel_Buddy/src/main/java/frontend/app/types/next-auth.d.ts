@@ -8,5 +8,7 @@ declare module "next-auth" {
       image?: string | null;
       username?: string | null;
     };
+    // Signed backend session token, sent as "Authorization: Bearer"
+    backendToken?: string;
   }
 }
@@ -41,6 +41,11 @@ import backend.repository.UserRepository;
 import backend.repository.UserTripsRepository;
 import backend.model.Post;
 import backend.repository.PostRepository;
+import backend.repository.DeletionJobRepository;
+import backend.model.DeletionJob;
+import backend.dto.DeletionStatus;
+import backend.service.SessionPrincipal;
+import backend.service.SessionTokenService;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -66,6 +71,9 @@ class BackendApplicationTests {
     @Mock
     private TripRepository trip_repository;
 
+    @Mock
+    private SessionTokenService sessionTokenService;
+
     @InjectMocks
     private BackendApplication backendApplication;
 
@@ -76,6 +84,9 @@ class BackendApplicationTests {
 
     @Mock
     private PostRepository postRepository;
+
+    @Mock
+    private DeletionJobRepository deletionJobRepository;
     // @Test
     // void shouldAuthenticateUserSuccessfully() {
     //     // Arrange
@@ -989,4 +1000,114 @@ class BackendApplicationTests {
         assertEquals("UserTrip not found for the given ID.", response.getBody());
         verify(postRepository, never()).save(any(Post.class));
     }
+
+    // Unit test for [`addTrip(SessionPrincipal, Trip)`]
+    //
+    // Validate that coordinates sent with a new trip are checked before it is
+    // saved: half a coordinate pair or a value out of range is the client's
+    // mistake, not a server error.
+    //
+    // The system should respond with a bad response code and should not save
+    // the trip in the repository.
+    @Test
+    void shouldReturnBadRequestForInvalidCoordinatesOnAddTrip() {
+        // Arrange
+        User creator = new User();
+        creator.setUserId(1L);
+        when(user_repository.findById(1L)).thenReturn(Optional.of(creator));
+        SessionPrincipal caller = new SessionPrincipal(1L, "creator", "Creator", "creator@example.com");
+
+        // Act
+        ResponseEntity<?> halfPair = backendApplication.addTrip(caller, tripAt(45.0, null));
+        ResponseEntity<?> latitudeOutOfRange = backendApplication.addTrip(caller, tripAt(91.0, 10.0));
+        ResponseEntity<?> longitudeOutOfRange = backendApplication.addTrip(caller, tripAt(45.0, -180.5));
+
+        // Assert
+        assertEquals(400, halfPair.getStatusCodeValue());
+        assertEquals("Latitude and longitude must be given together.", halfPair.getBody());
+        assertEquals(400, latitudeOutOfRange.getStatusCodeValue());
+        assertEquals(400, longitudeOutOfRange.getStatusCodeValue());
+        verify(trip_repository, never()).save(any(Trip.class));
+    }
+
+    // Unit test for [`updateUserTripStatus(Long, SessionPrincipal, Map, String)`]
+    // and [`updateRequest(SessionPrincipal, Map, String)`]
+    //
+    // Validate that only the trip creator can accept, decline or waitlist a
+    // request: anyone else signed in is forbidden, and an anonymous caller is
+    // asked to sign in.
+    //
+    // The system should respond with 403 or 401 and should not change the
+    // request's status.
+    @Test
+    void shouldRejectStatusChangesByNonCreators() {
+        // Arrange
+        User creator = new User();
+        creator.setUserId(1L);
+        User requester = new User();
+        requester.setUserId(2L);
+        Trip trip = tripAt(null, null);
+        trip.setTripId(10L);
+        trip.setCreatedBy(creator);
+        UserTrips userTrip = new UserTrips();
+        userTrip.setUserTripId(5L);
+        userTrip.setUser(requester);
+        userTrip.setTrip(trip);
+        userTrip.setStatus("requested");
+        when(userTripsRepository.findById(5L)).thenReturn(Optional.of(userTrip));
+        when(userTripsRepository.findByUserIdAndTripId(2L, 10L)).thenReturn(Optional.of(userTrip));
+        SessionPrincipal other = new SessionPrincipal(2L, "requester", "Requester", "requester@example.com");
+        Map<String, Object> payload = Map.of("tripId", 10L, "userId", 2L, "status", "joined");
+
+        // Act
+        ResponseEntity<?> byId = backendApplication.updateUserTripStatus(5L, other, Map.of("status", "joined"), null);
+        ResponseEntity<?> byPair = backendApplication.updateRequest(other, payload, null);
+        ResponseEntity<?> anonymous = backendApplication.updateUserTripStatus(5L, null, Map.of("status", "joined"), null);
+
+        // Assert
+        assertEquals(403, byId.getStatusCodeValue());
+        assertEquals(403, byPair.getStatusCodeValue());
+        assertEquals(401, anonymous.getStatusCodeValue());
+        verify(userTripsRepository, never()).updateStatus(anyLong(), anyString(), anyLong());
+    }
+
+    // Unit test for [`getForgetMeStatus(long, SessionPrincipal)`]
+    //
+    // Validate that a deletion job is only visible to the user it deletes,
+    // and only as a status summary without the user ID or error.
+    //
+    // The system should respond with 401 without a token, 404 for someone
+    // else's job and 200 with the summary for the caller's own job.
+    @Test
+    void shouldShowDeletionStatusOnlyToItsUser() {
+        // Arrange
+        DeletionJob job = new DeletionJob(1L);
+        job.setJobId(7L);
+        job.setStatus(DeletionJob.FAILED);
+        job.setError("relation \"comments\" does not exist");
+        when(deletionJobRepository.findById(7L)).thenReturn(Optional.of(job));
+        SessionPrincipal owner = new SessionPrincipal(1L, "owner", "Owner", "owner@example.com");
+        SessionPrincipal other = new SessionPrincipal(2L, "other", "Other", "other@example.com");
+
+        // Act
+        ResponseEntity<?> anonymous = backendApplication.getForgetMeStatus(7L, null);
+        ResponseEntity<?> someoneElse = backendApplication.getForgetMeStatus(7L, other);
+        ResponseEntity<?> own = backendApplication.getForgetMeStatus(7L, owner);
+
+        // Assert
+        assertEquals(401, anonymous.getStatusCodeValue());
+        assertEquals(404, someoneElse.getStatusCodeValue());
+        assertEquals(200, own.getStatusCodeValue());
+        DeletionStatus status = (DeletionStatus) own.getBody();
+        assertEquals(7L, status.jobId());
+        assertEquals(DeletionJob.FAILED, status.status());
+    }
+
+    private static Trip tripAt(Double latitude, Double longitude) {
+        Trip trip = new Trip();
+        trip.setLocation("Somewhere");
+        trip.setLatitude(latitude);
+        trip.setLongitude(longitude);
+        return trip;
+    }
 }
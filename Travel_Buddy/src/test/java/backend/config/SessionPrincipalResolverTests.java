@@ -0,0 +1,104 @@
+package backend.config;
+
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import backend.service.PrincipalCache;
+import backend.service.SessionPrincipal;
+import backend.service.SessionTokenService;
+
+class SessionPrincipalResolverTests {
+    private static final SessionPrincipal ALICE = new SessionPrincipal(7, "alice", "Alice", "alice@example.com");
+
+    @Mock
+    private SessionTokenService sessionTokenService;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @InjectMocks
+    private SessionPrincipalResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(sessionTokenService.verify("good")).thenReturn(OptionalLong.of(7));
+        when(sessionTokenService.verify("forged")).thenReturn(OptionalLong.empty());
+        when(principalCache.byId(7)).thenReturn(ALICE);
+        when(principalCache.byEmail("alice@example.com")).thenReturn(ALICE);
+    }
+
+    // Handler signatures the resolver is asked to fill
+    @SuppressWarnings("unused")
+    private void endpoint(SessionPrincipal caller, @TokenOnly SessionPrincipal tokenCaller) {
+    }
+
+    private Object resolve(MockHttpServletRequest request, int parameterIndex) {
+        try {
+            MethodParameter parameter = new MethodParameter(getClass().getDeclaredMethod("endpoint",
+                    SessionPrincipal.class, SessionPrincipal.class), parameterIndex);
+            return resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object resolve(MockHttpServletRequest request) {
+        return resolve(request, 0);
+    }
+
+    @Test
+    void shouldIdentifyCallersByBearerToken() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer good");
+
+        assertEquals(ALICE, resolve(request));
+    }
+
+    @Test
+    void shouldRejectForgedTokensAndBareEmailHeaders() {
+        MockHttpServletRequest forged = new MockHttpServletRequest();
+        forged.addHeader(HttpHeaders.AUTHORIZATION, "Bearer forged");
+        forged.addHeader("Email", "alice@example.com");
+        MockHttpServletRequest emailOnly = new MockHttpServletRequest();
+        emailOnly.addHeader("Email", "alice@example.com");
+        emailOnly.addParameter("email", "alice@example.com");
+
+        assertNull(resolve(forged));
+        assertNull(resolve(emailOnly));
+    }
+
+    @Test
+    void shouldHonourEmailHeaderOnlyWhenLegacyModeIsOn() {
+        ReflectionTestUtils.setField(resolver, "legacyEmailHeader", true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Email", "alice@example.com");
+
+        assertEquals(ALICE, resolve(request));
+    }
+
+    @Test
+    void shouldRequireTokenForTokenOnlyParametersEvenInLegacyMode() {
+        ReflectionTestUtils.setField(resolver, "legacyEmailHeader", true);
+        MockHttpServletRequest emailOnly = new MockHttpServletRequest();
+        emailOnly.addHeader("Email", "alice@example.com");
+        MockHttpServletRequest bearer = new MockHttpServletRequest();
+        bearer.addHeader(HttpHeaders.AUTHORIZATION, "Bearer good");
+
+        assertNull(resolve(emailOnly, 1));
+        assertEquals(ALICE, resolve(bearer, 1));
+    }
+}
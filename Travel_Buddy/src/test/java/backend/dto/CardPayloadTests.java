@@ -0,0 +1,186 @@
+package backend.dto;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import backend.model.Interest;
+import backend.model.Post;
+import backend.model.Trip;
+import backend.model.User;
+import backend.model.UserTrips;
+
+// Pins the fields trip and post cards expose, and measures their payload against the entity
+// graphs the endpoints used to serialize on a synthetic data set
+class CardPayloadTests {
+    private static final int USERS = 50;
+    private static final int TRIPS = 200;
+    private static final int POSTS = 500;
+    // Card payload as a share of the entity payload; measured at 78% for trips and 26% for posts
+    private static final int MAX_TRIP_PERCENT = 85;
+    private static final int MAX_POST_PERCENT = 30;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private User user;
+    private Trip trip;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        user = user(1);
+        trip = trip(10, user);
+        post = post(1000, user, trip);
+    }
+
+    private static User user(long userId) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUsername("traveller" + userId);
+        user.setName("Test Traveller " + userId);
+        user.setEmail("traveller" + userId + "@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopq");
+        user.setPhoneNumber("+1 555 0100");
+        user.setLanguages(List.of("English", "French"));
+        user.setInterests(List.of("Hiking", "Food"));
+        user.setBio("I love travelling and meeting new people.");
+        return user;
+    }
+
+    private static Trip trip(long tripId, User creator) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Interest interest = new Interest();
+        interest.setInterestId(1);
+        interest.setName("Hiking");
+
+        Trip trip = new Trip();
+        trip.setTripId(tripId);
+        trip.setLocation("Paris, France");
+        trip.setStartDate(Date.valueOf("2025-06-01"));
+        trip.setEndDate(Date.valueOf("2025-06-10"));
+        trip.setDescription("A week of museums and cafes.");
+        trip.setCreatedBy(creator);
+        trip.setInterests(List.of(interest));
+        trip.setCreatedAt(now);
+        trip.setUpdatedAt(now);
+        return trip;
+    }
+
+    // A post whose user trip ID is derived from the author and trip
+    private static Post post(long postId, User author, Trip trip) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        UserTrips userTrip = new UserTrips();
+        userTrip.setUserTripId(author.getUserId() * 1000 + trip.getTripId());
+        userTrip.setUser(author);
+        userTrip.setTrip(trip);
+
+        Post post = new Post();
+        post.setPostId(postId);
+        post.setUserTrip(userTrip);
+        post.setCaption("Great day out!");
+        post.setImage("/images/posts/" + postId + ".jpg");
+        post.setCreatedAt(now);
+        post.setUpdatedAt(now);
+        return post;
+    }
+
+    private static TripCard tripCard(Trip trip) {
+        User creator = trip.getCreatedBy();
+        return new TripCard(trip.getTripId(), trip.getLocation(), null, null, trip.getStartDate(), trip.getEndDate(),
+                trip.getDescription(), trip.getVersion(), creator.getUserId(), creator.getUsername(), creator.getName(),
+                creator.getProfilePicture()).withDetails(trip.getInterests(), images(trip));
+    }
+
+    private static PostCard postCard(Post post) {
+        User author = post.getUserTrip().getUser();
+        Trip trip = post.getUserTrip().getTrip();
+        return new PostCard(post.getPostId(), post.getCaption(), post.getImage(), post.getCreatedAt(),
+                post.getUserTrip().getUserTripId(), author.getUserId(), author.getUsername(), author.getName(),
+                author.getProfilePicture(), trip.getTripId(), trip.getLocation(),
+                trip.getStartDate(), trip.getEndDate());
+    }
+
+    // What the trip endpoints used to return: the entity with its whole creator and the images
+    private static Map<String, Object> tripEntity(Trip trip) {
+        Map<String, Object> entity = new HashMap<>();
+        entity.put("tripId", trip.getTripId());
+        entity.put("location", trip.getLocation());
+        entity.put("startDate", trip.getStartDate());
+        entity.put("endDate", trip.getEndDate());
+        entity.put("description", trip.getDescription());
+        entity.put("createdBy", trip.getCreatedBy());
+        entity.put("interests", trip.getInterests());
+        entity.put("images", images(trip));
+        return entity;
+    }
+
+    private static List<String> images(Trip trip) {
+        return List.of("/images/trips/" + trip.getTripId() + "-1.jpg", "/images/trips/" + trip.getTripId() + "-2.jpg");
+    }
+
+    @Test
+    void shouldExposeOnlyTheDisplayedFields() throws Exception {
+        JsonNode tripJson = objectMapper.valueToTree(tripCard(trip));
+        JsonNode postJson = objectMapper.valueToTree(postCard(post));
+        Set<String> userFields = Set.of("userId", "username", "name", "profilePicture");
+
+        assertEquals(Set.of("tripId", "location", "latitude", "longitude", "startDate", "endDate", "description",
+                            "version", "createdBy", "interests", "images", "reviews"),
+                     fieldNames(tripJson));
+        assertEquals(userFields, fieldNames(tripJson.get("createdBy")));
+
+        assertEquals(Set.of("postId", "caption", "image", "createdAt", "userTrip"), fieldNames(postJson));
+        JsonNode userTrip = postJson.get("userTrip");
+        assertEquals(Set.of("userTripId", "user", "trip"), fieldNames(userTrip));
+        assertEquals(userFields, fieldNames(userTrip.get("user")));
+        assertEquals(Set.of("tripId", "location", "startDate", "endDate"), fieldNames(userTrip.get("trip")));
+        assertEquals(1, userTrip.get("user").get("userId").asLong());
+    }
+
+    // 50 users, 200 trips and 500 posts, serialized as the cards and as the entity graphs
+    @Test
+    void shouldSerializeSmallerThanEntityGraphs() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(user(i));
+        }
+        List<Trip> trips = new ArrayList<>();
+        for (int i = 1; i <= TRIPS; i++) {
+            trips.add(trip(i, users.get(i % USERS)));
+        }
+        List<Post> posts = new ArrayList<>();
+        for (int i = 1; i <= POSTS; i++) {
+            posts.add(post(i, users.get(i % USERS), trips.get(i % TRIPS)));
+        }
+
+        int tripBefore = objectMapper.writeValueAsBytes(trips.stream().map(CardPayloadTests::tripEntity).toList()).length;
+        int tripAfter = objectMapper.writeValueAsBytes(trips.stream().map(CardPayloadTests::tripCard).toList()).length;
+        int postBefore = objectMapper.writeValueAsBytes(posts).length;
+        int postAfter = objectMapper.writeValueAsBytes(posts.stream().map(CardPayloadTests::postCard).toList()).length;
+
+        assertTrue(tripAfter * 100L < tripBefore * MAX_TRIP_PERCENT, "trip bytes: " + tripBefore + " -> " + tripAfter);
+        assertTrue(postAfter * 100L < postBefore * MAX_POST_PERCENT, "post bytes: " + postBefore + " -> " + postAfter);
+    }
+
+    private static Set<String> fieldNames(JsonNode node) {
+        Set<String> names = new TreeSet<>();
+        for (Iterator<String> it = node.fieldNames(); it.hasNext();) {
+            names.add(it.next());
+        }
+        return names;
+    }
+}
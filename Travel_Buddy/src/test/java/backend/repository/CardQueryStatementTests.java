@@ -0,0 +1,166 @@
+package backend.repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import backend.dto.PostCard;
+import backend.dto.TripCard;
+import backend.model.Interest;
+import backend.model.Post;
+import backend.model.Trip;
+import backend.model.TripImage;
+import backend.model.User;
+import backend.model.UserTrips;
+import backend.service.TripCardLoader;
+import jakarta.persistence.EntityManager;
+
+// Counts the SQL statements behind the trip and post card listings on 50 users, 200 trips and
+// 500 posts, so a regression to lazy-loading creators, collections or user trips per row fails
+// the build. The review aggregates are a PostgreSQL view, so that batch is mocked out here.
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(TripCardLoader.class)
+class CardQueryStatementTests {
+    private static final int USERS = 50;
+    private static final int TRIPS = 200;
+    private static final int POSTS = 500;
+
+    // Only the entities and repositories; the application class wires the whole web layer
+    @Configuration
+    @EntityScan("backend.model")
+    @EnableJpaRepositories("backend.repository")
+    static class JpaConfig {}
+
+    @MockBean
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private TripCardLoader tripCardLoader;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Filled in by a trigger in the real schema
+        entityManager.createNativeQuery("ALTER TABLE trips ALTER COLUMN seats_taken SET DEFAULT 0").executeUpdate();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        List<Interest> interests = new ArrayList<>();
+        for (String name : List.of("Hiking", "Food", "Museums")) {
+            Interest interest = new Interest();
+            interest.setName(name);
+            entityManager.persist(interest);
+            interests.add(interest);
+        }
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret");
+            user.setLanguages(List.of("English", "French"));
+            user.setInterests(List.of("Hiking", "Food"));
+            entityManager.persist(user);
+            users.add(user);
+        }
+
+        List<UserTrips> userTrips = new ArrayList<>();
+        for (int i = 0; i < TRIPS; i++) {
+            Trip trip = new Trip();
+            trip.setLocation("Location " + i);
+            trip.setStartDate(Date.valueOf("2030-01-01"));
+            trip.setEndDate(Date.valueOf("2030-01-10"));
+            trip.setDescription("Trip " + i);
+            trip.setCreatedBy(users.get(i % USERS));
+            trip.setInterests(List.of(interests.get(i % interests.size()), interests.get((i + 1) % interests.size())));
+            entityManager.persist(trip);
+
+            for (int image = 0; image < 2; image++) {
+                TripImage tripImage = new TripImage();
+                tripImage.setTrip(trip);
+                tripImage.setImageUrl("/images/trips/" + i + "-" + image + ".jpg");
+                entityManager.persist(tripImage);
+            }
+
+            UserTrips userTrip = new UserTrips();
+            userTrip.setUser(users.get(i % USERS));
+            userTrip.setTrip(trip);
+            userTrip.setRole("creator");
+            userTrip.setStatus("created");
+            userTrip.setCreatedAt(now);
+            entityManager.persist(userTrip);
+            userTrips.add(userTrip);
+        }
+
+        for (int i = 0; i < POSTS; i++) {
+            Post post = new Post();
+            post.setUserTrip(userTrips.get(i % TRIPS));
+            post.setCaption("Post " + i);
+            post.setImage("/images/posts/" + i + ".jpg");
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            entityManager.persist(post);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldLoadATripCardPageInThreeStatements() {
+        List<TripCard> cards = tripCardLoader.loadPage(0L, TripCardLoader.MAX_PAGE_SIZE);
+
+        assertEquals(TRIPS, cards.size());
+        assertEquals(2, cards.get(0).images().size());
+        assertEquals(2, cards.get(0).interests().size());
+        // Card columns with the creator, images, interests
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldLoadAFilteredTripCardPageInThreeStatements() {
+        List<TripCard> cards = tripCardLoader.searchPage(
+                TripSpecifications.overlaps(Date.valueOf("2030-01-05"), null), 0L, TripCardLoader.MAX_PAGE_SIZE);
+
+        assertEquals(TRIPS, cards.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldLoadEveryPostCardInOneStatement() {
+        List<PostCard> cards = postRepository.findAllPostCards();
+
+        assertEquals(POSTS, cards.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,207 @@
+package backend.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import backend.model.Notification;
+import backend.model.Post;
+import backend.model.Review;
+import backend.model.Trip;
+import backend.model.User;
+import backend.model.UserTrips;
+import backend.service.NdjsonStreamer;
+import backend.service.ProfileLoader;
+import jakarta.persistence.EntityManager;
+
+// Counts the SQL statements behind the users, reviews and notifications NDJSON exports, so a regression to
+// serializing entities (and lazy-loading their collections and associations per row) fails the build
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({NdjsonStreamer.class, ProfileLoader.class})
+class ExportStreamStatementTests {
+    private static final int USERS = 250;
+    private static final int TRIPS = 10;
+    private static final int REVIEWS = 300;
+
+    // Only the entities and repositories; the application class wires the whole web layer
+    @Configuration
+    @EntityScan("backend.model")
+    @EnableJpaRepositories("backend.repository")
+    static class JpaConfig {}
+
+    @Autowired
+    private NdjsonStreamer ndjsonStreamer;
+
+    @Autowired
+    private ProfileLoader profileLoader;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Filled in by a trigger in the real schema
+        entityManager.createNativeQuery("ALTER TABLE trips ALTER COLUMN seats_taken SET DEFAULT 0").executeUpdate();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret");
+            user.setPhoneNumber("555-" + i);
+            user.setLanguages(List.of("English", "French"));
+            user.setInterests(List.of("Hiking", "Food"));
+            entityManager.persist(user);
+            users.add(user);
+        }
+
+        List<Trip> trips = new ArrayList<>();
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < TRIPS; i++) {
+            Trip trip = new Trip();
+            trip.setLocation("Location " + i);
+            trip.setStartDate(Date.valueOf("2030-01-01"));
+            trip.setEndDate(Date.valueOf("2030-01-10"));
+            trip.setCreatedBy(users.get(i));
+            entityManager.persist(trip);
+            trips.add(trip);
+
+            UserTrips userTrip = new UserTrips();
+            userTrip.setUser(users.get(i));
+            userTrip.setTrip(trip);
+            userTrip.setRole("creator");
+            userTrip.setStatus("created");
+            userTrip.setCreatedAt(now);
+            entityManager.persist(userTrip);
+
+            Post post = new Post();
+            post.setUserTrip(userTrip);
+            post.setCaption("Post " + i);
+            post.setImage("/images/posts/" + i + ".jpg");
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            entityManager.persist(post);
+            posts.add(post);
+        }
+
+        // Reviews of a user, of a trip and of a post in turn, each with a notification to the reviewer
+        for (int i = 0; i < REVIEWS; i++) {
+            Review review = new Review();
+            review.setReviewer(users.get(i % USERS));
+            switch (i % 3) {
+                case 0 -> review.setReviewee(users.get((i + 1) % USERS));
+                case 1 -> review.setTrip(trips.get(i % TRIPS));
+                default -> review.setPost(posts.get(i % TRIPS));
+            }
+            review.setRating(1 + i % 5);
+            review.setComment("Review " + i);
+            entityManager.persist(review);
+
+            Notification notification = new Notification();
+            notification.setUser(users.get(i % USERS));
+            notification.setMessage("Notification " + i);
+            notification.setStatus("unread");
+            entityManager.persist(notification);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldStreamUsersWithTwoQueriesPerBatch() throws Exception {
+        List<JsonNode> lines = write(ndjsonStreamer.stream(userRepository::streamAllProfiles, profileLoader::withCollections));
+
+        assertEquals(USERS, lines.size());
+        JsonNode user = lines.get(0);
+        assertEquals("user0", user.get("username").asText());
+        assertEquals(2, user.get("languages").size());
+        assertEquals(2, user.get("interests").size());
+        assertFalse(user.has("email") || user.has("password") || user.has("phoneNumber"));
+        // The profile cursor, then languages and interests for each batch of 100, 100 and 50
+        assertEquals(1 + 2 * 3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldStreamReviewsInOneStatement() throws Exception {
+        List<JsonNode> lines = write(ndjsonStreamer.stream(reviewRepository::streamAllLines));
+
+        assertEquals(REVIEWS, lines.size());
+        assertEquals("user1", lines.get(0).get("reviewee").get("username").asText());
+        assertTrue(lines.get(0).get("trip").isNull());
+        assertEquals("Location 1", lines.get(1).get("trip").get("location").asText());
+        assertTrue(lines.get(2).get("postId").isNumber());
+        assertFalse(lines.get(2).get("reviewer").has("phoneNumber"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldStreamNotificationsInOneStatement() throws Exception {
+        List<JsonNode> lines = write(ndjsonStreamer.stream(notificationRepository::streamAllLines));
+
+        assertEquals(REVIEWS, lines.size());
+        assertEquals("user0", lines.get(0).get("username").asText());
+        assertFalse(lines.get(0).has("user"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private List<JsonNode> write(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).lines().toList()) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,113 @@
+package backend.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Fires thousands of parallel join requests (every user joining several times) at one trip:
+// each must succeed, and each user must end up with exactly one membership and one
+// notification to the creator, however the requests interleave
+class JoinTripConcurrencyTests extends PostgresTestDatabase {
+    private static final int USERS = 250;
+    private static final int ATTEMPTS_PER_USER = 8;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private UserTripsRepository userTripsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String location;
+    private long tripId;
+    private List<Long> userIds;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime());
+        location = "Concurrency " + run;
+        userIds = jdbcTemplate.queryForList("INSERT INTO users (username, name, email, password) "
+                + "SELECT 'joiner' || ? || '_' || g, 'Joiner ' || g, 'joiner' || ? || '_' || g || '@example.com', 'secret' "
+                + "FROM generate_series(1, ?) g RETURNING user_id", Long.class, run, run, USERS);
+        tripId = jdbcTemplate.queryForObject("INSERT INTO trips (location, start_date, end_date, created_by) "
+                + "VALUES (?, DATE '2030-01-01', DATE '2030-01-10', 1) RETURNING trip_id", Long.class, location);
+    }
+
+    @Test
+    void shouldConvergeOnOneMembershipPerUser() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> userTripIds = ConcurrentHashMap.newKeySet();
+        List<Future<?>> requests = new ArrayList<>();
+        try {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_USER; attempt++) {
+                for (long userId : userIds) {
+                    requests.add(executor.submit(() -> {
+                        start.await();
+                        UserTripsRepository.JoinResult result = userTripsRepository.upsertRequest(userId, tripId);
+                        assertTrue(result.getFound());
+                        assertNotNull(result.getUserTripId());
+                        userTripIds.add(result.getUserTripId());
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> request : requests) {
+                request.get(); // Rethrows any failed join
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(USERS, userTripIds.size());
+        assertEquals(USERS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usertrips WHERE trip_id = ? AND status = 'requested'", Integer.class, tripId));
+        // The creator's own row, added by the trips trigger, is untouched
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usertrips WHERE trip_id = ? AND status = 'created'", Integer.class, tripId));
+        // Retries update the existing row, so the insert trigger notified the creator once per user
+        assertEquals(USERS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notifications WHERE user_id = 1 AND message LIKE ?", Integer.class,
+                "% has requested to join your trip to " + location + "."));
+    }
+
+    @Test
+    void shouldReportMissingTripsAndRepeatedRequests() {
+        long userId = userIds.get(0);
+
+        assertEquals(false, userTripsRepository.upsertRequest(userId, Long.MAX_VALUE).getFound());
+        assertTrue(userTripsRepository.upsertRequest(userId, tripId).getChanged());
+        assertEquals(false, userTripsRepository.upsertRequest(userId, tripId).getChanged());
+
+        // Only a declined membership becomes a request again; an accepted one is left alone
+        long userTripId = userTripsRepository.upsertRequest(userId, tripId).getUserTripId();
+        assertEquals("joined", review(userTripId, "joined").orElseThrow());
+        assertEquals(false, userTripsRepository.upsertRequest(userId, tripId).getChanged());
+        assertEquals("declined", review(userTripId, "declined").orElseThrow());
+        assertTrue(userTripsRepository.upsertRequest(userId, tripId).getChanged());
+        assertEquals("requested", userTripsRepository.findById(userTripId).orElseThrow().getStatus());
+    }
+
+    // Review a request the way the endpoints do: conditional on the version just read, empty
+    // when the row changed in between
+    private Optional<String> review(long userTripId, String status) {
+        long version = jdbcTemplate.queryForObject(
+                "SELECT version FROM usertrips WHERE user_trip_id = ?", Long.class, userTripId);
+        return userTripsRepository.updateStatus(userTripId, status, version).map(UserTripsRepository.StatusChange::getStatus);
+    }
+}
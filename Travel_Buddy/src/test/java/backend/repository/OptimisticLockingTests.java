@@ -0,0 +1,154 @@
+package backend.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import backend.model.Trip;
+import backend.model.User;
+
+// Many editors of the same row, all starting from the same version: exactly one edit may land,
+// the rest must be rejected instead of silently overwriting it
+class OptimisticLockingTests extends PostgresTestDatabase {
+    private static final int EDITORS = 32;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTripsRepository userTripsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long tripId;
+    private long userTripId;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime());
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, name, email, password) "
+                + "VALUES (?, 'Editor', ?, 'secret') RETURNING user_id", Long.class,
+                "editor" + run, "editor" + run + "@example.com");
+        tripId = jdbcTemplate.queryForObject("INSERT INTO trips (location, start_date, end_date, created_by) "
+                + "VALUES (?, DATE '2030-01-01', DATE '2030-01-10', 1) RETURNING trip_id", Long.class,
+                "Versions " + run);
+        userTripId = jdbcTemplate.queryForObject("INSERT INTO usertrips (user_id, trip_id, status) "
+                + "VALUES (?, ?, 'requested') RETURNING user_trip_id", Long.class, userId, tripId);
+    }
+
+    @Test
+    void shouldKeepOnlyOneOfConcurrentTripEdits() throws Exception {
+        // Every editor reads the trip before any of them saves
+        CountDownLatch loaded = new CountDownLatch(EDITORS);
+        List<Callable<String>> edits = new ArrayList<>();
+        for (int i = 0; i < EDITORS; i++) {
+            String description = "Edit " + i;
+            edits.add(() -> {
+                Trip trip = tripRepository.findById(tripId).orElseThrow();
+                loaded.countDown();
+                loaded.await();
+                trip.setDescription(description);
+                try {
+                    tripRepository.save(trip);
+                    return description;
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    return null;
+                }
+            });
+        }
+        List<String> saved = runConcurrently(edits).stream().filter(description -> description != null).toList();
+
+        assertEquals(1, saved.size());
+        Trip trip = tripRepository.findById(tripId).orElseThrow();
+        assertEquals(saved.get(0), trip.getDescription());
+        assertEquals(1, trip.getVersion());
+    }
+
+    @Test
+    void shouldApplyOneStatusChangePerVersion() throws Exception {
+        List<Callable<Boolean>> reviews = new ArrayList<>();
+        for (int i = 0; i < EDITORS; i++) {
+            String status = i % 2 == 0 ? "joined" : "declined";
+            reviews.add(() -> userTripsRepository.updateStatus(userTripId, status, 0).isPresent());
+        }
+        List<Boolean> applied = runConcurrently(reviews);
+
+        assertEquals(1, applied.stream().filter(Boolean::booleanValue).count());
+        assertEquals(1, userTripsRepository.findById(userTripId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldBumpVersionOnSetBasedStatusChanges() {
+        userTripsRepository.reviewAllRequests(tripId, "joined");
+        assertEquals(1, userTripsRepository.findById(userTripId).orElseThrow().getVersion());
+
+        // A review based on the pre-bulk read is refused; re-applying the same status keeps the version
+        assertTrue(userTripsRepository.updateStatus(userTripId, "declined", 0).isEmpty());
+        assertEquals("joined", userTripsRepository.updateStatus(userTripId, "joined", 1).orElseThrow().getStatus());
+        assertEquals(1, userTripsRepository.findById(userTripId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldTouchProfileWithoutChangingItsVersion() {
+        User user = userRepository.findById(userId).orElseThrow();
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        userRepository.save(user);
+        assertEquals(0, userRepository.findById(userId).orElseThrow().getVersion());
+
+        user = userRepository.findById(userId).orElseThrow();
+        user.setBio("Edited");
+        userRepository.save(user);
+        assertEquals(1, userRepository.findById(userId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldTouchProfileInOneStatementWithoutChangingItsVersion() {
+        assertEquals(List.of(userId), userRepository.touch(userId));
+        assertTrue(userRepository.touch(-1).isEmpty());
+
+        User user = userRepository.findById(userId).orElseThrow();
+        assertEquals(0, user.getVersion());
+        assertTrue(user.getUpdatedAt() != null);
+    }
+
+    // Run every task on its own thread, all released at once; rethrows the first failure
+    private <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
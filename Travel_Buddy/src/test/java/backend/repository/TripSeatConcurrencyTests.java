@@ -0,0 +1,200 @@
+package backend.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Hammers one capacity-limited trip with concurrent accepts, bulk accepts, departures and repeated
+// join requests. However they interleave, the trip must never hold more joined members than its
+// capacity, its seat counter must match the joined rows, and freed seats must go to the oldest
+// waitlisted requests.
+class TripSeatConcurrencyTests extends PostgresTestDatabase {
+    private static final int CAPACITY = 25;
+    private static final int REQUESTS = 400;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private UserTripsRepository userTripsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long tripId;
+
+    private List<Long> userIds;
+
+    // user_trip_id of every request, oldest first
+    private List<Long> requestIds;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime());
+        userIds = jdbcTemplate.queryForList("INSERT INTO users (username, name, email, password) "
+                + "SELECT 'seat' || ? || '_' || g, 'Seat ' || g, 'seat' || ? || '_' || g || '@example.com', 'secret' "
+                + "FROM generate_series(1, ?) g RETURNING user_id", Long.class, run, run, REQUESTS);
+        tripId = jdbcTemplate.queryForObject("INSERT INTO trips (location, start_date, end_date, created_by, capacity) "
+                + "VALUES (?, DATE '2030-01-01', DATE '2030-01-10', 1, ?) RETURNING trip_id", Long.class,
+                "Seats " + run, CAPACITY);
+        // Distinct request times, so the waitlist order is well defined
+        requestIds = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            requestIds.add(jdbcTemplate.queryForObject("INSERT INTO usertrips (user_id, trip_id, status, created_at) "
+                    + "VALUES (?, ?, 'requested', TIMESTAMP '2029-01-01' + ? * INTERVAL '1 second') RETURNING user_trip_id",
+                    Long.class, userIds.get(i), tripId, i));
+        }
+    }
+
+    @Test
+    void shouldNeverOverbookUnderConcurrentAccepts() throws Exception {
+        List<Callable<String>> accepts = new ArrayList<>();
+        for (long requestId : requestIds) {
+            accepts.add(() -> review(requestId, "joined").orElseThrow());
+        }
+        List<String> stored = runConcurrently(accepts);
+
+        assertEquals(CAPACITY, stored.stream().filter("joined"::equals).count());
+        assertEquals(REQUESTS - CAPACITY, stored.stream().filter("waitlisted"::equals).count());
+        assertSeatsConsistent(CAPACITY);
+    }
+
+    @Test
+    void shouldPromoteOldestWaitlistedWhenMembersLeave() throws Exception {
+        // Fill the trip with the first requests, waitlist the rest
+        for (long requestId : requestIds) {
+            review(requestId, "joined");
+        }
+        List<Long> joined = idsWithStatus("joined");
+        assertEquals(requestIds.subList(0, CAPACITY), joined);
+
+        // Ten members leave at once: five decline, five are removed
+        List<Callable<String>> departures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            long requestId = joined.get(i);
+            departures.add(i % 2 == 0
+                    ? () -> review(requestId, "declined").orElseThrow()
+                    : () -> {
+                        jdbcTemplate.update("DELETE FROM usertrips WHERE user_trip_id = ?", requestId);
+                        return "deleted";
+                    });
+        }
+        runConcurrently(departures);
+
+        List<Long> expected = new ArrayList<>(joined.subList(10, CAPACITY));
+        expected.addAll(requestIds.subList(CAPACITY, CAPACITY + 10));
+        assertEquals(expected, idsWithStatus("joined"));
+        assertSeatsConsistent(CAPACITY);
+
+        // The waitlisted heard when the trip was full, the promoted when their seat opened up
+        assertEquals(REQUESTS - CAPACITY, notificationsLike("%but the trip is full. You are on the waitlist."));
+        assertEquals(10, notificationsLike("A seat opened up on the trip to %"));
+    }
+
+    @Test
+    void shouldNotTakeSeatsOnRepeatedJoinRequests() throws Exception {
+        for (long requestId : requestIds) {
+            review(requestId, "joined");
+        }
+        List<Long> joined = idsWithStatus("joined");
+        List<Long> declined = idsWithStatus("waitlisted").subList(0, 10);
+        for (long requestId : declined) {
+            review(requestId, "declined");
+        }
+
+        // Every user asks to join again, several times over, while the trip is full
+        List<Callable<Boolean>> upserts = new ArrayList<>();
+        for (int attempt = 0; attempt < 3; attempt++) {
+            for (long userId : userIds) {
+                upserts.add(() -> userTripsRepository.upsertRequest(userId, tripId).getChanged());
+            }
+        }
+        List<Boolean> changed = runConcurrently(upserts);
+
+        // Members keep their seats, declined users are pending again, the rest are untouched
+        assertEquals(declined.size(), changed.stream().filter(Boolean::booleanValue).count());
+        assertEquals(joined, idsWithStatus("joined"));
+        assertEquals(declined, idsWithStatus("requested"));
+        assertEquals(REQUESTS - CAPACITY - declined.size(), idsWithStatus("waitlisted").size());
+        assertSeatsConsistent(CAPACITY);
+    }
+
+    @Test
+    void shouldKeepSeatCountUnderMixedLoad() throws Exception {
+        List<Callable<String>> work = new ArrayList<>();
+        // Single accepts of the newer half and one bulk accept of everything still pending; a
+        // single accept loses (as a 409 would) when the bulk accept got to its row first
+        for (long requestId : requestIds.subList(REQUESTS / 2, REQUESTS)) {
+            work.add(() -> review(requestId, "joined").orElse("none"));
+        }
+        work.add(() -> Integer.toString(userTripsRepository.reviewAllRequests(tripId, "joined").size()));
+        // Members leaving while seats are being handed out
+        for (long requestId : requestIds.subList(REQUESTS / 2, REQUESTS / 2 + 50)) {
+            work.add(() -> review(requestId, "declined").orElse("none"));
+        }
+        runConcurrently(work);
+
+        assertSeatsConsistent(CAPACITY);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usertrips WHERE trip_id = ? AND status = 'requested'", Integer.class, tripId));
+    }
+
+    // Run every task from a fixed pool, all released at once; rethrows the first failure
+    private <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Long> idsWithStatus(String status) {
+        return jdbcTemplate.queryForList("SELECT user_trip_id FROM usertrips WHERE trip_id = ? AND status = ? "
+                + "ORDER BY created_at, user_trip_id", Long.class, tripId, status);
+    }
+
+    private int notificationsLike(String pattern) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications n JOIN usertrips ut ON ut.user_id = n.user_id "
+                + "WHERE ut.trip_id = ? AND n.message LIKE ?", Integer.class, tripId, pattern);
+    }
+
+    private void assertSeatsConsistent(int expectedJoined) {
+        int joined = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usertrips WHERE trip_id = ? AND status = 'joined'", Integer.class, tripId);
+        int seatsTaken = jdbcTemplate.queryForObject(
+                "SELECT seats_taken FROM trips WHERE trip_id = ?", Integer.class, tripId);
+        assertEquals(expectedJoined, joined);
+        assertEquals(joined, seatsTaken);
+    }
+
+    // Review a request the way the endpoints do: conditional on the version just read, empty
+    // when the row changed in between
+    private Optional<String> review(long userTripId, String status) {
+        long version = jdbcTemplate.queryForObject(
+                "SELECT version FROM usertrips WHERE user_trip_id = ?", Long.class, userTripId);
+        return userTripsRepository.updateStatus(userTripId, status, version).map(UserTripsRepository.StatusChange::getStatus);
+    }
+}
@@ -0,0 +1,103 @@
+package backend.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import backend.model.User;
+import jakarta.persistence.EntityManager;
+
+// Counts the SQL statements behind a bulk user listing and a profile update against an
+// in-memory database, so a regression to one select per user (or to rewriting whole
+// collections) fails the build
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UserCollectionStatementTests {
+    private static final int USERS = 120;
+
+    // Only the entities and repositories; the application class wires the whole web layer
+    @Configuration
+    @EntityScan("backend.model")
+    @EnableJpaRepositories("backend.repository")
+    static class JpaConfig {}
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret");
+            user.setLanguages(List.of("English", "French"));
+            user.setInterests(List.of("Hiking", "Food"));
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldBatchFetchCollectionsWhenListingUsers() {
+        List<User> users = userRepository.findAll();
+        int elements = 0;
+        for (User user : users) {
+            elements += user.getLanguages().size() + user.getInterests().size();
+        }
+
+        int batches = (USERS + User.COLLECTION_BATCH_SIZE - 1) / User.COLLECTION_BATCH_SIZE;
+        assertEquals(USERS * 4, elements);
+        // One select for the users plus one per batch and collection, instead of 1 + 2 * USERS
+        assertTrue(statistics.getPrepareStatementCount() <= 1 + 2L * batches,
+                   "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldWriteOnlyChangedRowsOnProfileUpdate() {
+        User user = userRepository.findByUsername("user0").orElseThrow();
+        user.getLanguages().size();
+        user.getInterests().size();
+        statistics.clear();
+
+        // The same replacement update_user performs with the request body
+        user.setLanguages(new ArrayList<>(List.of("English", "Spanish")));
+        user.setInterests(List.of("Hiking", "Food"));
+        userRepository.save(user);
+        entityManager.flush();
+
+        // "French" deleted and "Spanish" inserted; interests unchanged. The third statement is the
+        // users row's version increment: a collection change is a profile edit, so concurrent
+        // edits based on the old version must conflict with it (see User.version).
+        assertEquals(0, statistics.getCollectionRecreateCount());
+        assertEquals(1, statistics.getCollectionUpdateCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(1, userRepository.findByUsername("user0").orElseThrow().getVersion());
+    }
+}
@@ -0,0 +1,148 @@
+package backend.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import backend.model.User;
+
+// The MinHash seeds are fixed, so signatures and band buckets are the same on every run and
+// these rates are exact for this data, not samples that can flake
+class CompanionIndexTests {
+    private static final int PAIRS = 200;
+    private static final int SET_SIZE = 30;
+
+    private CompanionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CompanionIndex();
+    }
+
+    @Test
+    void shouldEstimateJaccardFromSignatures() {
+        for (int shared : List.of(0, 10, 20, 30)) {
+            double expected = (double) shared / (2 * SET_SIZE - shared);
+            double total = 0;
+            for (int pair = 0; pair < PAIRS; pair++) {
+                total += estimate(CompanionIndex.signature(tokens(pair, 0, shared)),
+                                  CompanionIndex.signature(tokens(pair, 1, shared)));
+            }
+            double mean = total / PAIRS;
+            assertEquals(expected, mean, 0.03, "shared " + shared + ": mean estimate " + mean);
+        }
+        assertArrayEquals(CompanionIndex.signature(tokens(0, 0, SET_SIZE)), CompanionIndex.signature(tokens(0, 1, SET_SIZE)));
+    }
+
+    @Test
+    void shouldMakeSimilarPairsCandidatesFarMoreOftenThanDissimilarOnes() {
+        // Theory for 20 bands of 3 rows: 1 - (1 - J^3)^20, about 0.93 at J = 0.5 and 0.15 at 0.2
+        double similar = candidateRate(20);
+        double dissimilar = candidateRate(10);
+        assertTrue(similar >= 0.85, "candidate rate at J = 0.5: " + similar);
+        assertTrue(dissimilar <= 0.25, "candidate rate at J = 0.2: " + dissimilar);
+        assertEquals(1.0, candidateRate(SET_SIZE));
+        assertEquals(0.0, candidateRate(0));
+    }
+
+    @Test
+    void shouldRankCandidatesByExactJaccard() {
+        index.put(1, Set.of("lang:english", "interest:hiking", "interest:food", "nat:french"));
+        index.put(2, Set.of("lang:english", "interest:hiking", "interest:food", "nat:french"));
+        index.put(3, Set.of("lang:english", "interest:hiking", "interest:food", "nat:german"));
+        index.put(4, Set.of("lang:english", "interest:hiking", "interest:food", "nat:german"));
+        index.put(5, Set.of("lang:japanese", "interest:museums"));
+
+        List<CompanionIndex.Match> matches = index.companions(1, 10);
+        assertEquals(new CompanionIndex.Match(2, 1.0), matches.get(0));
+        // Candidates are ranked by exact similarity, ties by user ID; never the user themselves
+        for (int i = 1; i < matches.size(); i++) {
+            CompanionIndex.Match previous = matches.get(i - 1);
+            CompanionIndex.Match match = matches.get(i);
+            assertTrue(previous.similarity() > match.similarity()
+                    || (previous.similarity() == match.similarity() && previous.userId() < match.userId()));
+            assertTrue(match.userId() != 1);
+        }
+        assertEquals(1, index.companions(1, 1).size());
+        assertTrue(index.companions(99, 10).isEmpty());
+    }
+
+    @Test
+    void shouldReplaceAndRemoveProfiles() {
+        Set<String> hiker = Set.of("lang:english", "interest:hiking", "nat:french");
+        index.put(1, hiker);
+        index.put(2, hiker);
+        assertEquals(List.of(new CompanionIndex.Match(2, 1.0)), index.companions(1, 10));
+
+        // A profile with nothing in common leaves every shared bucket
+        index.put(2, Set.of("lang:japanese", "interest:museums"));
+        assertTrue(index.companions(1, 10).isEmpty());
+        assertEquals(2, index.size());
+
+        index.remove(2);
+        assertEquals(1, index.size());
+        assertTrue(index.companions(1, 10).isEmpty());
+
+        // Users without any tokens are not indexed
+        index.put(3, Set.of());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void shouldTokenizeProfiles() {
+        User user = new User();
+        user.setNationality(" French ");
+        user.setAge(34);
+        user.setLanguages(List.of("English", "FRENCH"));
+        user.setInterests(List.of("Hiking", "french"));
+
+        assertEquals(Set.of("nat:french", "age:30", "lang:english", "lang:french", "interest:hiking", "interest:french"),
+                     CompanionIndex.tokensOf(user));
+        assertEquals(0.5, CompanionIndex.jaccard(Set.of("a", "b"), Set.of("b", "c", "a", "d")));
+        assertEquals(0.0, CompanionIndex.jaccard(Set.of(), Set.of()));
+    }
+
+    // Share of pairs with `shared` common tokens out of SET_SIZE each that land in a common band
+    private double candidateRate(int shared) {
+        CompanionIndex pairs = new CompanionIndex();
+        for (int pair = 0; pair < PAIRS; pair++) {
+            pairs.put(2L * pair, tokens(pair, 0, shared));
+            pairs.put(2L * pair + 1, tokens(pair, 1, shared));
+        }
+        int candidates = 0;
+        for (int pair = 0; pair < PAIRS; pair++) {
+            long partner = 2L * pair + 1;
+            if (pairs.companions(2L * pair, Integer.MAX_VALUE).stream().anyMatch(match -> match.userId() == partner)) {
+                candidates++;
+            }
+        }
+        return (double) candidates / PAIRS;
+    }
+
+    // SET_SIZE tokens for one side of a pair: `shared` common to both sides, the rest its own.
+    // Tokens of different pairs never overlap.
+    private static Set<String> tokens(int pair, int side, int shared) {
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i < SET_SIZE; i++) {
+            tokens.add(i < shared ? "interest:p" + pair + "-shared" + i : "interest:p" + pair + "-side" + side + "-" + i);
+        }
+        return tokens;
+    }
+
+    // Fraction of signature rows on which the two signatures agree
+    private static double estimate(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+}
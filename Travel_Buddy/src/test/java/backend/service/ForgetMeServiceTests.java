@@ -0,0 +1,130 @@
+package backend.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import backend.model.DeletionJob;
+import backend.repository.PostgresTestDatabase;
+import backend.repository.UserRepository;
+
+// Deletes a user who created a full trip with a waitlist and holds a seat in someone else's full
+// trip. The seat they leave behind goes to that trip's waitlist; their own trip disappears
+// without promoting (and notifying) anyone into it first.
+@Import(ForgetMeService.class)
+class ForgetMeServiceTests extends PostgresTestDatabase {
+
+    @MockBean
+    private CompanionIndex companionIndex;
+
+    @MockBean
+    private InterestFacetIndex interestFacetIndex;
+
+    @MockBean
+    private GeoTripIndex geoTripIndex;
+
+    @MockBean
+    private RecommendationService recommendationService;
+
+    @MockBean
+    private TripCatalogCache tripCatalogCache;
+
+    @MockBean
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @MockBean
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private ForgetMeService forgetMeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long creatorId;
+    private long ownTripId;
+    private long otherTripId;
+    private String ownLocation;
+    private String otherLocation;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime());
+        ownLocation = "Deleted " + run;
+        otherLocation = "Kept " + run;
+        creatorId = createUser("creator" + run);
+        long memberId = createUser("member" + run);
+        long waitingId = createUser("waiting" + run);
+
+        ownTripId = createTrip(ownLocation, creatorId);
+        otherTripId = createTrip(otherLocation, 1);
+        // Capacity 1: the first joined row takes the seat, the second is waitlisted
+        join(memberId, ownTripId);
+        join(waitingId, ownTripId);
+        join(creatorId, otherTripId);
+        join(waitingId, otherTripId);
+    }
+
+    @Test
+    void shouldPromoteOnlyIntoTripsThatRemain() {
+        DeletionJob job = forgetMeService.enqueue(userRepository.findById(creatorId).orElseThrow());
+        forgetMeService.runPending();
+
+        assertEquals(DeletionJob.COMPLETED, jdbcTemplate.queryForObject(
+                "SELECT status FROM deletion_jobs WHERE job_id = ?", String.class, job.getJobId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM trips WHERE trip_id = ?", ownTripId));
+        assertEquals(0, count("SELECT COUNT(*) FROM usertrips WHERE trip_id = ?", ownTripId));
+        assertEquals(0, count("SELECT COUNT(*) FROM notifications WHERE message LIKE ?",
+                "A seat opened up on the trip to " + ownLocation + "%"));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM usertrips WHERE trip_id = ? AND status = 'joined'", otherTripId));
+        assertEquals(1, count("SELECT seats_taken FROM trips WHERE trip_id = ?", otherTripId));
+        assertEquals(1, count("SELECT COUNT(*) FROM notifications WHERE message LIKE ?",
+                "A seat opened up on the trip to " + otherLocation + "%"));
+    }
+
+    @Test
+    void shouldRemoveOnlyTheDeletedTripsFromTheIndexes() {
+        forgetMeService.enqueue(userRepository.findById(creatorId).orElseThrow());
+        forgetMeService.runPending();
+
+        verify(interestFacetIndex).removeTrip(ownTripId);
+        verify(geoTripIndex).remove(ownTripId);
+        verify(recommendationService).onUserDeleted(creatorId, List.of(ownTripId));
+        verify(companionIndex).remove(creatorId);
+        verify(interestFacetIndex, never()).rebuild();
+        verify(geoTripIndex, never()).rebuild();
+        verify(recommendationService, never()).rebuild();
+    }
+
+    private long createUser(String username) {
+        return jdbcTemplate.queryForObject("INSERT INTO users (username, name, email, password) "
+                + "VALUES (?, ?, ?, 'secret') RETURNING user_id", Long.class, username, username, username + "@example.com");
+    }
+
+    private long createTrip(String location, long createdBy) {
+        return jdbcTemplate.queryForObject("INSERT INTO trips (location, start_date, end_date, created_by, capacity) "
+                + "VALUES (?, DATE '2030-01-01', DATE '2030-01-10', ?, 1) RETURNING trip_id", Long.class, location, createdBy);
+    }
+
+    private void join(long userId, long tripId) {
+        long userTripId = jdbcTemplate.queryForObject("INSERT INTO usertrips (user_id, trip_id, status) "
+                + "VALUES (?, ?, 'requested') RETURNING user_trip_id", Long.class, userId, tripId);
+        jdbcTemplate.update("UPDATE usertrips SET status = 'joined' WHERE user_trip_id = ?", userTripId);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
@@ -0,0 +1,143 @@
+package backend.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Radius queries where the geohash grid is awkward: points on either side of a cell edge, of
+// the antimeridian and around the poles, plus a seeded comparison against a brute-force scan
+class GeoTripIndexTests {
+    private GeoTripIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new GeoTripIndex();
+    }
+
+    @Test
+    void shouldEncodeKnownGeohashes() {
+        assertEquals("u4pruyd", GeoTripIndex.encode(57.64911, 10.40744, 7));
+        assertEquals("s000000", GeoTripIndex.encode(0, 0, 7));
+        assertEquals("7zzzzzz", GeoTripIndex.encode(-0.000001, -0.000001, 7));
+    }
+
+    @Test
+    void shouldFindTripsAcrossCellEdges() {
+        // The four quadrants around (0, 0) fall in four different top-level cells
+        index.put(1, new GeoPoint(0.001, 0.001));
+        index.put(2, new GeoPoint(0.001, -0.001));
+        index.put(3, new GeoPoint(-0.001, 0.001));
+        index.put(4, new GeoPoint(-0.001, -0.001));
+        index.put(5, new GeoPoint(0.02, 0));
+        Set<Character> cells = new HashSet<>();
+        for (double lat : List.of(0.001, -0.001)) {
+            for (double lon : List.of(0.001, -0.001)) {
+                cells.add(GeoTripIndex.encode(lat, lon, 1).charAt(0));
+            }
+        }
+        assertEquals(4, cells.size());
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), tripIds(index.nearby(new GeoPoint(0, 0), 1, null, null, 10)));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), tripIds(index.nearby(new GeoPoint(0, 0), 5, null, null, 10)));
+    }
+
+    @Test
+    void shouldFindTripsAcrossTheAntimeridian() {
+        index.put(1, new GeoPoint(10, 179.999));
+        index.put(2, new GeoPoint(10, -179.999));
+        index.put(3, new GeoPoint(10, 0));
+
+        assertEquals(List.of(1L, 2L), tripIds(index.nearby(new GeoPoint(10, 179.9995), 1, null, null, 10)));
+        assertEquals(List.of(2L, 1L), tripIds(index.nearby(new GeoPoint(10, -179.9995), 1, null, null, 10)));
+        // On the antimeridian itself both are the same distance away
+        assertEquals(Set.of(1L, 2L), Set.copyOf(tripIds(index.nearby(new GeoPoint(10, 180), 1, null, null, 10))));
+    }
+
+    @Test
+    void shouldFindTripsAroundThePoles() {
+        // Every longitude meets at a pole, so these are all a few hundred metres apart
+        index.put(1, new GeoPoint(89.999, 0));
+        index.put(2, new GeoPoint(89.999, 90));
+        index.put(3, new GeoPoint(89.999, 180));
+        index.put(4, new GeoPoint(89.999, -90));
+        index.put(5, new GeoPoint(-89.999, 45));
+        index.put(6, new GeoPoint(-89.999, -135));
+
+        assertEquals(Set.of(1L, 2L, 3L, 4L), Set.copyOf(tripIds(index.nearby(new GeoPoint(90, 0), 1, null, null, 10))));
+        assertEquals(Set.of(1L, 2L, 3L, 4L),
+                     Set.copyOf(tripIds(index.nearby(new GeoPoint(89.9995, 45), 1, null, null, 10))));
+        assertEquals(Set.of(5L, 6L), Set.copyOf(tripIds(index.nearby(new GeoPoint(-90, 170), 1, null, null, 10))));
+    }
+
+    @Test
+    void shouldMatchABruteForceScan() {
+        Random random = new Random(42);
+        GeoPoint[] points = new GeoPoint[3000];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = randomPoint(random);
+            index.put(i, points[i]);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            GeoPoint center = randomPoint(random);
+            double radiusKm = Math.pow(10, random.nextDouble() * 3.5);
+            Set<Long> expected = new HashSet<>();
+            for (int i = 0; i < points.length; i++) {
+                if (center.distanceKm(points[i]) <= radiusKm) {
+                    expected.add((long) i);
+                }
+            }
+
+            List<GeoTripIndex.Hit> hits = index.nearby(center, radiusKm, null, null, Integer.MAX_VALUE);
+            assertEquals(expected, Set.copyOf(tripIds(hits)), "center " + center + ", radius " + radiusKm);
+            for (int i = 1; i < hits.size(); i++) {
+                assertTrue(hits.get(i - 1).distanceKm() <= hits.get(i).distanceKm());
+            }
+        }
+    }
+
+    @Test
+    void shouldPageByDistanceThenTripId() {
+        index.put(1, new GeoPoint(0, 0.01));
+        index.put(2, new GeoPoint(0, -0.01));
+        index.put(3, new GeoPoint(0, 0.02));
+
+        List<GeoTripIndex.Hit> first = index.nearby(new GeoPoint(0, 0), 10, null, null, 2);
+        assertEquals(List.of(1L, 2L), tripIds(first));
+        GeoTripIndex.Hit last = first.get(1);
+        assertEquals(List.of(3L), tripIds(index.nearby(new GeoPoint(0, 0), 10, last.distanceKm(), last.tripId(), 2)));
+    }
+
+    @Test
+    void shouldMoveAndRemoveTrips() {
+        index.put(1, new GeoPoint(48.8566, 2.3522));
+        index.put(1, new GeoPoint(51.5074, -0.1278));
+        assertEquals(1, index.size());
+        assertTrue(index.nearby(new GeoPoint(48.8566, 2.3522), 10, null, null, 10).isEmpty());
+        assertEquals(List.of(1L), tripIds(index.nearby(new GeoPoint(51.5074, -0.1278), 10, null, null, 10)));
+
+        index.put(1, null);
+        assertEquals(0, index.size());
+        assertTrue(index.nearby(new GeoPoint(51.5074, -0.1278), 10, null, null, 10).isEmpty());
+    }
+
+    // Uniform points, with half of them crowded near the poles and the antimeridian
+    private static GeoPoint randomPoint(Random random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> new GeoPoint(90 - random.nextDouble() * 2, random.nextDouble() * 360 - 180);
+            case 1 -> new GeoPoint(-90 + random.nextDouble() * 2, random.nextDouble() * 360 - 180);
+            case 2 -> new GeoPoint(random.nextDouble() * 180 - 90, 180 - random.nextDouble() * 4);
+            default -> new GeoPoint(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+        };
+    }
+
+    private static List<Long> tripIds(List<GeoTripIndex.Hit> hits) {
+        return hits.stream().map(GeoTripIndex.Hit::tripId).toList();
+    }
+}
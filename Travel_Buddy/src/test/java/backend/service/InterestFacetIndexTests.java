@@ -0,0 +1,64 @@
+package backend.service;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.roaringbitmap.RoaringBitmap;
+
+import backend.repository.TripRepository;
+
+class InterestFacetIndexTests {
+    @Mock
+    private TripRepository tripRepository;
+
+    @InjectMocks
+    private InterestFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(tripRepository.findAllTripIds()).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(tripRepository.findAllTripInterestPairs()).thenReturn(List.of(
+                new Object[] {1, 10},
+                new Object[] {2, 10},
+                new Object[] {2, 20},
+                new Object[] {3, 20}));
+        index.rebuild();
+    }
+
+    @Test
+    void shouldAnswerAnyAndAllQueries() {
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3), index.matchAny(List.of(10, 20)));
+        assertEquals(RoaringBitmap.bitmapOf(2), index.matchAll(List.of(10, 20)));
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3, 4), index.matchAny(List.of()));
+        assertTrue(index.matchAll(List.of(10, 99)).isEmpty());
+    }
+
+    @Test
+    void shouldCountFacetsWithinSelection() {
+        Map<Integer, Integer> counts = index.facetCounts(index.matchAny(List.of(10)));
+
+        assertEquals(2, counts.get(10));
+        assertEquals(1, counts.get(20));
+    }
+
+    @Test
+    void shouldApplyTripWrites() {
+        index.putTrip(5L, List.of(20));
+        index.putTrip(1L, List.of(20));
+        index.removeTrip(2L);
+
+        assertEquals(RoaringBitmap.bitmapOf(1, 3, 5), index.matchAny(List.of(20)));
+        assertTrue(index.matchAny(List.of(10)).isEmpty());
+        assertEquals(4L, index.stats().get("trips"));
+        assertTrue(index.sizeInBytes() > 0);
+    }
+}
@@ -0,0 +1,87 @@
+package backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+class NdjsonStreamerTests {
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private NdjsonStreamer streamer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void shouldWriteOneJsonDocumentPerLine() throws Exception {
+        ResponseEntity<StreamingResponseBody> response =
+                streamer.stream(() -> Stream.of(Map.of("id", 1), Map.of("id", 2)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldClearPersistenceContextWhileStreaming() throws Exception {
+        int rows = NdjsonStreamer.FLUSH_EVERY * 3 + 1;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamer.stream(() -> IntStream.range(0, rows).boxed()).getBody().writeTo(out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(rows, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.matches("\\d+")));
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void shouldPassEachBatchThroughDetails() throws Exception {
+        int rows = NdjsonStreamer.FLUSH_EVERY * 2 + 1;
+        List<Integer> batchSizes = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamer.stream(() -> IntStream.range(0, rows).boxed(), batch -> {
+            batchSizes.add(batch.size());
+            return batch.stream().map(row -> -row).toList();
+        }).getBody().writeTo(out);
+
+        assertEquals(List.of(NdjsonStreamer.FLUSH_EVERY, NdjsonStreamer.FLUSH_EVERY, 1), batchSizes);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(rows, lines.size());
+        assertEquals("-200", lines.get(rows - 1));
+        verify(entityManager, times(2)).clear();
+    }
+}
@@ -0,0 +1,43 @@
+package backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PasswordServiceTests {
+    private final PasswordService passwordService = new PasswordService(4, 1, 4);
+
+    @AfterEach
+    void tearDown() {
+        passwordService.shutdown();
+    }
+
+    @Test
+    void shouldVerifyHashedPasswords() {
+        String hash = passwordService.hash("secret").join();
+
+        assertTrue(PasswordService.isHashed(hash));
+        assertTrue(passwordService.verify("secret", hash).join().matches());
+        assertFalse(passwordService.verify("wrong", hash).join().matches());
+        assertNull(passwordService.verify("secret", hash).join().upgradedHash());
+    }
+
+    @Test
+    void shouldMigratePlaintextPasswordsOnSuccessfulSignIn() {
+        PasswordService.Verification verification = passwordService.verify("password123", "password123").join();
+
+        assertTrue(verification.matches());
+        assertNotNull(verification.upgradedHash());
+        assertTrue(passwordService.verify("password123", verification.upgradedHash()).join().matches());
+        assertNull(passwordService.verify("nope", "password123").join().upgradedHash());
+    }
+
+    @Test
+    void shouldRejectUnknownUsersAndAccountsWithoutPassword() {
+        assertFalse(passwordService.verify("secret", null).join().matches());
+        assertFalse(passwordService.verify("", "").join().matches());
+    }
+}
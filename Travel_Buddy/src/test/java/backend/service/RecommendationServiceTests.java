@@ -0,0 +1,194 @@
+package backend.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import backend.model.Interest;
+import backend.repository.InterestRepository;
+import backend.repository.TripRepository;
+import backend.repository.UserRepository;
+import backend.repository.UserTripsRepository;
+
+// Ranks small catalogues for a user interested in hiking and one with no profile, all trips
+// created by a third user. Without an interest match or requests, sooner trips rank higher.
+class RecommendationServiceTests {
+    private static final long HIKER = 1;
+    private static final long OTHER = 2;
+    private static final long CREATOR = 3;
+    private static final int HIKING = 10;
+    private static final int FOOD = 20;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserTripsRepository userTripsRepository;
+
+    @Mock
+    private InterestRepository interestRepository;
+
+    @InjectMocks
+    private RecommendationService service;
+
+    private final List<Object[]> schedules = new ArrayList<>();
+    private final List<Object[]> tripInterests = new ArrayList<>();
+    private final List<Object[]> memberships = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(interestRepository.findAll()).thenReturn(List.of(interest(HIKING, "Nature and Hiking"), interest(FOOD, "Food")));
+        when(tripRepository.findAllTripSchedules()).thenReturn(schedules);
+        when(tripRepository.findAllTripInterestPairs()).thenReturn(tripInterests);
+        when(userRepository.findAllUserInterests()).thenReturn(List.<Object[]>of(new Object[] {HIKER, "hiking"}));
+        when(userRepository.findAllUserLanguages()).thenReturn(List.of());
+        when(userRepository.findAllProfileAttributes()).thenReturn(List.of(
+                new Object[] {HIKER, null, null}, new Object[] {OTHER, null, null}, new Object[] {CREATOR, null, null}));
+        when(userTripsRepository.findAllMemberships()).thenReturn(memberships);
+    }
+
+    @Test
+    void shouldRankByScoreAndSkipUnrecommendableTrips() {
+        addTrip(1, CREATOR, 10, FOOD);
+        addTrip(2, CREATOR, 20, HIKING);
+        addTrip(3, HIKER, 5, HIKING);   // their own trip
+        addTrip(4, CREATOR, -30, HIKING); // already ended
+        addTrip(5, CREATOR, 5, HIKING);
+        memberships.add(new Object[] {HIKER, 5L, "requested"});
+        service.rebuild();
+
+        // The interest match outweighs the sooner start of trip 1
+        assertEquals(List.of(2L, 1L), tripIds(service.recommend(HIKER)));
+        assertEquals(List.of(5L, 3L, 1L, 2L), tripIds(service.recommend(OTHER)));
+    }
+
+    @Test
+    void shouldKeepOnlyTheBestTopKTrips() {
+        int trips = RecommendationService.TOP_K + 10;
+        for (int i = 1; i <= trips; i++) {
+            addTrip(i, CREATOR, i, FOOD);
+        }
+        service.rebuild();
+
+        List<Long> expected = new ArrayList<>();
+        for (long i = 1; i <= RecommendationService.TOP_K; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, tripIds(service.recommend(HIKER)));
+
+        // A listed trip dropping out of a full list lets the best unlisted one in
+        service.onMembershipChanged(HIKER, 1, "requested");
+        expected.remove(0);
+        expected.add((long) RecommendationService.TOP_K + 1);
+        assertEquals(expected, tripIds(service.recommend(HIKER)));
+    }
+
+    @Test
+    void shouldFollowMembershipChanges() {
+        addTrip(1, CREATOR, 10, FOOD);
+        addTrip(2, CREATOR, 10, FOOD);
+        service.rebuild();
+        assertEquals(List.of(1L, 2L), tripIds(service.recommend(HIKER)));
+
+        // Open requests make trip 2 more popular, and it leaves the requester's list
+        service.onMembershipsChanged(2, List.of(OTHER, CREATOR + 1), "requested");
+        assertEquals(List.of(2L, 1L), tripIds(service.recommend(HIKER)));
+        assertEquals(List.of(1L), tripIds(service.recommend(OTHER)));
+
+        // Waitlisting changes nothing; a decline no longer counts but stays off their list
+        List<RecommendationService.Recommendation> before = service.recommend(HIKER);
+        service.onMembershipChanged(OTHER, 2, "waitlisted");
+        assertEquals(before, service.recommend(HIKER));
+        service.onMembershipsChanged(2, List.of(OTHER, CREATOR + 1), "declined");
+        assertEquals(List.of(1L, 2L), tripIds(service.recommend(HIKER)));
+        assertEquals(List.of(1L), tripIds(service.recommend(OTHER)));
+
+        // A removed membership makes the trip recommendable to them again
+        service.onMembershipChanged(OTHER, 2, null);
+        assertTrue(tripIds(service.recommend(OTHER)).contains(2L));
+    }
+
+    @Test
+    void shouldMatchARebuildAfterIncrementalChanges() {
+        for (int i = 1; i <= 12; i++) {
+            addTrip(i, CREATOR, 3 * i, i % 3 == 0 ? HIKING : FOOD);
+        }
+        service.rebuild();
+
+        service.onMembershipsChanged(7, List.of(OTHER, CREATOR + 1, CREATOR + 2), "requested");
+        service.onMembershipChanged(HIKER, 3, "requested");
+        service.onMembershipChanged(HIKER, 3, "joined");
+        service.onMembershipsChanged(7, List.of(CREATOR + 1), "declined");
+        service.onMembershipChanged(OTHER, 9, "requested");
+        service.onMembershipChanged(OTHER, 9, null);
+        List<RecommendationService.Recommendation> hiker = service.recommend(HIKER);
+        List<RecommendationService.Recommendation> other = service.recommend(OTHER);
+        assertFalse(tripIds(hiker).contains(3L));
+
+        memberships.add(new Object[] {OTHER, 7L, "requested"});
+        memberships.add(new Object[] {CREATOR + 1, 7L, "declined"});
+        memberships.add(new Object[] {CREATOR + 2, 7L, "requested"});
+        memberships.add(new Object[] {HIKER, 3L, "joined"});
+        service.rebuild();
+        assertEquals(service.recommend(HIKER), hiker);
+        assertEquals(service.recommend(OTHER), other);
+    }
+
+    @Test
+    void shouldMatchARebuildAfterAUserIsDeleted() {
+        long deleted = CREATOR + 1;
+        addTrip(1, CREATOR, 10, FOOD);
+        addTrip(2, deleted, 10, HIKING);
+        addTrip(3, CREATOR, 20, HIKING);
+        memberships.add(new Object[] {OTHER, 2L, "requested"});
+        memberships.add(new Object[] {deleted, 3L, "requested"});
+        service.rebuild();
+        service.onUserDeleted(deleted, List.of(2L));
+
+        // Their trip is gone and trip 3 lost a request
+        assertEquals(List.of(3L, 1L), tripIds(service.recommend(HIKER)));
+        List<RecommendationService.Recommendation> hiker = service.recommend(HIKER);
+        List<RecommendationService.Recommendation> other = service.recommend(OTHER);
+
+        schedules.removeIf(row -> row[0].equals(2L));
+        tripInterests.removeIf(row -> row[0].equals(2L));
+        memberships.removeIf(row -> row[0].equals(deleted) || row[1].equals(2L));
+        service.rebuild();
+        assertEquals(service.recommend(HIKER), hiker);
+        assertEquals(service.recommend(OTHER), other);
+    }
+
+    // A trip starting `startsInDays` from today and lasting a week, tagged with one interest
+    private void addTrip(long tripId, long creatorId, int startsInDays, int interestId) {
+        LocalDate start = LocalDate.now().plusDays(startsInDays);
+        schedules.add(new Object[] {tripId, creatorId, Date.valueOf(start), Date.valueOf(start.plusDays(7))});
+        tripInterests.add(new Object[] {tripId, interestId});
+        memberships.add(new Object[] {creatorId, tripId, "created"});
+    }
+
+    private static Interest interest(int interestId, String name) {
+        Interest interest = new Interest();
+        interest.setInterestId(interestId);
+        interest.setName(name);
+        return interest;
+    }
+
+    private static List<Long> tripIds(List<RecommendationService.Recommendation> recommendations) {
+        return recommendations.stream().map(RecommendationService.Recommendation::tripId).toList();
+    }
+}
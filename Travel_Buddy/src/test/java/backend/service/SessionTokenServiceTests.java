@@ -0,0 +1,49 @@
+package backend.service;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import backend.model.User;
+
+class SessionTokenServiceTests {
+    private static final String SECRET = "c2Vzc2lvbi10b2tlbi10ZXN0LXNlY3JldC0zMi1ieXRlcw==";
+
+    private final SessionTokenService tokens = new SessionTokenService(SECRET, Duration.ofHours(1));
+
+    private static User user(long id) {
+        User user = new User();
+        user.setUserId(id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+
+    @Test
+    void shouldVerifyIssuedTokens() {
+        String token = tokens.issue(user(42));
+
+        assertEquals(OptionalLong.of(42), tokens.verify(token));
+    }
+
+    @Test
+    void shouldRejectTamperedAndForeignTokens() {
+        String token = tokens.issue(user(42));
+        String forged = "43" + token.substring(2);
+        String foreign = new SessionTokenService("", Duration.ofHours(1)).issue(user(42));
+
+        assertTrue(tokens.verify(forged).isEmpty());
+        assertTrue(tokens.verify(foreign).isEmpty());
+        assertTrue(tokens.verify("not-a-token").isEmpty());
+        assertTrue(tokens.verify(null).isEmpty());
+    }
+
+    @Test
+    void shouldRejectExpiredTokens() {
+        SessionTokenService expired = new SessionTokenService(SECRET, Duration.ofSeconds(-1));
+
+        assertTrue(tokens.verify(expired.issue(user(42))).isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package backend.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TripCatalogCacheTests {
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private TripCatalogCache cache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private ResponseEntity<byte[]> get(String ifNoneMatch) {
+        return cache.respond("trips", ifNoneMatch, () -> {
+            loads.incrementAndGet();
+            return List.of("trip");
+        });
+    }
+
+    @Test
+    void shouldServeRepeatReadsFromCacheAndAnswerConditionalGets() {
+        ResponseEntity<byte[]> first = get(null);
+        String etag = first.getHeaders().getETag();
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals("[\"trip\"]", new String(first.getBody()));
+        assertEquals(HttpStatus.NOT_MODIFIED, get(etag).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, get("\"other\", W/" + etag).getStatusCode());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldChangeEtagAfterInvalidation() {
+        String etag = get(null).getHeaders().getETag();
+
+        cache.invalidate();
+        ResponseEntity<byte[]> reloaded = get(etag);
+
+        assertEquals(HttpStatus.OK, reloaded.getStatusCode());
+        assertNotEquals(etag, reloaded.getHeaders().getETag());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldCacheMissingTripsAsNotFound() {
+        assertEquals(HttpStatus.NOT_FOUND, cache.respond("trip:9", null, () -> null).getStatusCode());
+    }
+}
@@ -0,0 +1,138 @@
+package backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import backend.repository.PostgresTestDatabase;
+
+// Exports a user with a trip, posts, a review and a notification, and checks the archive: one
+// JSON-lines file per section in a fixed order, one line per row, and the uploaded images the
+// rows reference (but not external URLs)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(UserDataExporter.class)
+class UserDataExporterTests extends PostgresTestDatabase {
+    private static final Path PUBLIC_DIR = createPublicDir();
+    private static final byte[] IMAGE = {1, 2, 3, 4};
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("storage.public-dir", PUBLIC_DIR::toString);
+    }
+
+    @Autowired
+    private UserDataExporter exporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private String email;
+    private String imagePath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String run = Long.toString(System.nanoTime());
+        email = "export" + run + "@example.com";
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, name, email, password) "
+                + "VALUES (?, 'Exporter', ?, 'secret') RETURNING user_id", Long.class, "export" + run, email);
+        long tripId = jdbcTemplate.queryForObject("INSERT INTO trips (location, start_date, end_date, created_by) "
+                + "VALUES (?, DATE '2030-01-01', DATE '2030-01-10', ?) RETURNING trip_id", Long.class,
+                "Export " + run, userId);
+        // The creator's membership comes from the trips insert trigger
+        long userTripId = jdbcTemplate.queryForObject("SELECT user_trip_id FROM usertrips WHERE user_id = ? AND trip_id = ?",
+                Long.class, userId, tripId);
+
+        imagePath = "/images/posts/export-" + run + ".jpg";
+        Path file = PUBLIC_DIR.resolve(imagePath.substring(1));
+        Files.createDirectories(file.getParent());
+        Files.write(file, IMAGE);
+        jdbcTemplate.update("INSERT INTO posts (usertrip_id, caption, image) VALUES (?, 'Uploaded', ?)", userTripId, imagePath);
+        jdbcTemplate.update("INSERT INTO posts (usertrip_id, caption, image) VALUES (?, 'Linked', 'https://example.com/a.jpg')",
+                userTripId);
+        jdbcTemplate.update("INSERT INTO reviews (reviewer_id, reviewee_id, trip_id, rating) VALUES (1, ?, ?, 4)", userId, tripId);
+        jdbcTemplate.update("INSERT INTO notifications (user_id, message) VALUES (?, ?)", userId, "Export " + run);
+    }
+
+    @Test
+    void shouldWriteOneFilePerSectionAndTheUploadedImages() throws IOException {
+        Map<String, byte[]> entries = unzip(exporter.export(userId));
+
+        assertEquals(List.of("profile.jsonl", "trips.jsonl", "posts.jsonl", "reviews.jsonl", "notifications.jsonl",
+                             imagePath.substring(1)),
+                     new ArrayList<>(entries.keySet()));
+
+        List<String> profile = lines(entries.get("profile.jsonl"));
+        assertEquals(1, profile.size());
+        assertTrue(profile.get(0).contains(email));
+        assertFalse(profile.get(0).contains("password"));
+
+        assertEquals(1, lines(entries.get("trips.jsonl")).size());
+        assertEquals(2, lines(entries.get("posts.jsonl")).size());
+        List<String> reviews = lines(entries.get("reviews.jsonl"));
+        assertEquals(1, reviews.size());
+        assertTrue(reviews.get(0).contains("\"direction\":\"received\""));
+        assertTrue(lines(entries.get("notifications.jsonl")).stream().anyMatch(line -> line.contains("Export ")));
+        assertArrayEquals(IMAGE, entries.get(imagePath.substring(1)));
+    }
+
+    @Test
+    void shouldAnswerNotFoundForUnknownUsers() {
+        assertEquals(HttpStatus.NOT_FOUND, exporter.export(-1).getStatusCode());
+    }
+
+    // Archive entries in the order they were written
+    private static Map<String, byte[]> unzip(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        response.getBody().writeTo(archive);
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static List<String> lines(byte[] content) {
+        String text = new String(content, StandardCharsets.UTF_8);
+        return text.isEmpty() ? List.of() : List.of(text.split("\n"));
+    }
+
+    private static Path createPublicDir() {
+        try {
+            return Files.createTempDirectory("export-public");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}